@@ -0,0 +1,57 @@
+package org.example;
+
+import java.util.*;
+
+// Same recommendations as RecommendationSystem, computed through a
+// GenreSignatureCache so users whose likes lead through the same genres
+// share one candidate list. A fresh cache is used per call, as its entries
+// belong to the catalog of that call; its counters are kept afterwards.
+public class CachedRecommendationSystem implements Recommender {
+
+    public static final long DEFAULT_MAX_TITLES = 1L << 22;
+
+    private final long maxTitles;
+    private final ParallelRecommendationSystem runner;
+    private volatile GenreSignatureCache.Stats lastStats;
+
+    public CachedRecommendationSystem() {
+        this(DEFAULT_MAX_TITLES, 1);
+    }
+
+    public CachedRecommendationSystem(long maxTitles, int parallelism) {
+        if (maxTitles < 0) throw new IllegalArgumentException("Cache size must not be negative: " + maxTitles);
+        this.maxTitles = maxTitles;
+        this.runner = new ParallelRecommendationSystem(parallelism);
+    }
+
+    public long getMaxTitles() {
+        return maxTitles;
+    }
+
+    // Cache counters of the last call, or null before the first one.
+    public GenreSignatureCache.Stats getLastStats() {
+        return lastStats;
+    }
+
+    @Override
+    public Map<User, List<String>> recommend(List<User> users, List<Movie> movies) {
+        return recommend(users, new GenreIndex(movies));
+    }
+
+    @Override
+    public Map<User, List<String>> recommend(List<User> users, Catalog catalog) {
+        return recommend(users, new GenreIndex(catalog));
+    }
+
+    private Map<User, List<String>> recommend(List<User> users, GenreIndex index) {
+        GenreSignatureCache cache = new GenreSignatureCache(index, maxTitles);
+        List<List<String>> results = runner.recommendAll(index, users, cache);
+        lastStats = cache.stats();
+
+        Map<User, List<String>> output = new LinkedHashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            output.put(users.get(i), results.get(i));
+        }
+        return output;
+    }
+}
@@ -0,0 +1,230 @@
+package org.example;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// Struct-of-arrays movie catalog. Titles and IDs are UTF-8 bytes in one
+// buffer each, addressed by offsets; genres are codes into a small table of
+// distinct genre names, stored per movie in CSR form. A whole catalog is a
+// handful of arrays however many movies it holds, and movie objects are
+// only created when asked for.
+public class Catalog {
+
+    private final byte[] titleBytes;
+    private final int[] titleOffsets;
+    private final byte[] idBytes;
+    private final int[] idOffsets;
+    private final String[] genreNames;
+    private final int[] genreOffsets;
+    private final int[] genres;
+    // open addressing over ID bytes, holding movie position + 1
+    private final int[] idTable;
+
+    private Catalog(Builder builder) {
+        int count = builder.count;
+        titleBytes = Arrays.copyOf(builder.titleBytes, builder.titleOffsets[count]);
+        titleOffsets = Arrays.copyOf(builder.titleOffsets, count + 1);
+        idBytes = Arrays.copyOf(builder.idBytes, builder.idOffsets[count]);
+        idOffsets = Arrays.copyOf(builder.idOffsets, count + 1);
+        genreNames = builder.genreNames.toArray(new String[0]);
+        genreOffsets = Arrays.copyOf(builder.genreOffsets, count + 1);
+        genres = Arrays.copyOf(builder.genres, builder.genreOffsets[count]);
+
+        idTable = new int[Integer.highestOneBit(Math.max(4, count * 2 - 1)) << 1];
+        int mask = idTable.length - 1;
+        for (int m = 0; m < count; m++) {
+            int slot = hash(idBytes, idOffsets[m], idOffsets[m + 1]) & mask;
+            while (idTable[slot] != 0 && !sameId(idTable[slot] - 1, m)) slot = (slot + 1) & mask;
+            // later duplicates win, as in RecommendationSystem's id lookup
+            idTable[slot] = m + 1;
+        }
+    }
+
+    public static Catalog of(List<Movie> movies) {
+        Builder builder = new Builder();
+        for (Movie movie : movies) builder.add(movie.getTitle(), movie.getId(), movie.getGenres());
+        return builder.build();
+    }
+
+    public int size() {
+        return titleOffsets.length - 1;
+    }
+
+    public String title(int movie) {
+        return new String(titleBytes, titleOffsets[movie], titleOffsets[movie + 1] - titleOffsets[movie], StandardCharsets.UTF_8);
+    }
+
+    public String id(int movie) {
+        return new String(idBytes, idOffsets[movie], idOffsets[movie + 1] - idOffsets[movie], StandardCharsets.UTF_8);
+    }
+
+    public List<String> genres(int movie) {
+        String[] names = new String[genreOffsets[movie + 1] - genreOffsets[movie]];
+        for (int g = 0; g < names.length; g++) names[g] = genreNames[genres[genreOffsets[movie] + g]];
+        return Arrays.asList(names);
+    }
+
+    // Genres of a movie are genre(from(movie)) until genre(to(movie) - 1).
+    public int genresFrom(int movie) {
+        return genreOffsets[movie];
+    }
+
+    public int genresTo(int movie) {
+        return genreOffsets[movie + 1];
+    }
+
+    public int genre(int entry) {
+        return genres[entry];
+    }
+
+    public int genreCount() {
+        return genreNames.length;
+    }
+
+    public String genreName(int genre) {
+        return genreNames[genre];
+    }
+
+    // Position of the movie with this ID (the last one for duplicates), or -1.
+    public int movieOf(String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int mask = idTable.length - 1;
+        for (int slot = hash(key, 0, key.length) & mask; idTable[slot] != 0; slot = (slot + 1) & mask) {
+            int m = idTable[slot] - 1;
+            if (Arrays.equals(idBytes, idOffsets[m], idOffsets[m + 1], key, 0, key.length)) return m;
+        }
+        return -1;
+    }
+
+    public Movie movie(int movie) {
+        return new Movie(title(movie), id(movie), genres(movie));
+    }
+
+    public List<Movie> toMovies() {
+        List<Movie> movies = new ArrayList<>(size());
+        for (int m = 0; m < size(); m++) movies.add(movie(m));
+        return movies;
+    }
+
+    // UTF-8 lengths of a movie's title and ID, and copies of their bytes.
+    int titleLength(int movie) {
+        return titleOffsets[movie + 1] - titleOffsets[movie];
+    }
+
+    int idLength(int movie) {
+        return idOffsets[movie + 1] - idOffsets[movie];
+    }
+
+    void copyTitle(int movie, MemorySegment target, long offset) {
+        MemorySegment.copy(MemorySegment.ofArray(titleBytes), titleOffsets[movie], target, offset, titleLength(movie));
+    }
+
+    void copyId(int movie, MemorySegment target, long offset) {
+        MemorySegment.copy(MemorySegment.ofArray(idBytes), idOffsets[movie], target, offset, idLength(movie));
+    }
+
+    // Codes for the distinct titles, in order of first appearance: fills
+    // codes[movie] and returns the first movie with each code. No title is
+    // decoded.
+    int[] titleCodes(int[] codes) {
+        return distinct(titleBytes, titleOffsets, codes);
+    }
+
+    // The same for movie IDs.
+    int[] idCodes(int[] codes) {
+        return distinct(idBytes, idOffsets, codes);
+    }
+
+    private static int[] distinct(byte[] bytes, int[] offsets, int[] codes) {
+        int count = offsets.length - 1;
+        // open addressing over the values, holding code + 1
+        int[] table = new int[Integer.highestOneBit(Math.max(4, count * 2 - 1)) << 1];
+        int[] first = new int[count];
+        int distinct = 0;
+        int mask = table.length - 1;
+        for (int m = 0; m < count; m++) {
+            int slot = hash(bytes, offsets[m], offsets[m + 1]) & mask;
+            while (table[slot] != 0) {
+                int other = first[table[slot] - 1];
+                if (Arrays.equals(bytes, offsets[other], offsets[other + 1], bytes, offsets[m], offsets[m + 1])) break;
+                slot = (slot + 1) & mask;
+            }
+            if (table[slot] == 0) {
+                first[distinct] = m;
+                table[slot] = ++distinct;
+            }
+            codes[m] = table[slot] - 1;
+        }
+        return Arrays.copyOf(first, distinct);
+    }
+
+    private boolean sameId(int a, int b) {
+        return Arrays.equals(idBytes, idOffsets[a], idOffsets[a + 1], idBytes, idOffsets[b], idOffsets[b + 1]);
+    }
+
+    private static int hash(byte[] bytes, int from, int to) {
+        int h = 0;
+        for (int i = from; i < to; i++) h = 31 * h + bytes[i];
+        return h ^ (h >>> 16);
+    }
+
+    // Appends movies in catalog order.
+    public static class Builder {
+        private byte[] titleBytes = new byte[1024];
+        private int[] titleOffsets = new int[65];
+        private byte[] idBytes = new byte[512];
+        private int[] idOffsets = new int[65];
+        private int[] genreOffsets = new int[65];
+        private int[] genres = new int[128];
+        private final List<String> genreNames = new ArrayList<>();
+        private final Map<String, Integer> genreCodes = new HashMap<>();
+        private int count;
+
+        public Builder add(String title, String id, List<String> movieGenres) {
+            if (count + 1 == titleOffsets.length) {
+                titleOffsets = Arrays.copyOf(titleOffsets, titleOffsets.length * 2);
+                idOffsets = Arrays.copyOf(idOffsets, idOffsets.length * 2);
+                genreOffsets = Arrays.copyOf(genreOffsets, genreOffsets.length * 2);
+            }
+            titleBytes = append(titleBytes, titleOffsets, title);
+            idBytes = append(idBytes, idOffsets, id);
+
+            int start = genreOffsets[count];
+            if (start + movieGenres.size() > genres.length) {
+                genres = Arrays.copyOf(genres, Math.max(genres.length * 2, start + movieGenres.size()));
+            }
+            for (String genre : movieGenres) {
+                Integer code = genreCodes.get(genre);
+                if (code == null) {
+                    code = genreNames.size();
+                    genreCodes.put(genre, code);
+                    genreNames.add(genre);
+                }
+                genres[start++] = code;
+            }
+            genreOffsets[count + 1] = start;
+            count++;
+            return this;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        public Catalog build() {
+            return new Catalog(this);
+        }
+
+        private byte[] append(byte[] buffer, int[] offsets, String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            int start = offsets[count];
+            if (start + bytes.length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, start + bytes.length));
+            }
+            System.arraycopy(bytes, 0, buffer, start, bytes.length);
+            offsets[count + 1] = start + bytes.length;
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package org.example;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+// Compact binary copy of a parsed and validated movies.txt, written next to
+// it so later runs can skip parsing and validation. Layout, all big-endian:
+//
+//   magic, version                          int, int
+//   source size, mtime, CRC32C              long, long, long
+//   validator key                           int length + UTF-8 bytes
+//   string table                            int count, int[count + 1] offsets, UTF-8 bytes
+//   movie count                             int
+//   title and id string refs                int[count], int[count]
+//   genres in CSR form                      int[count + 1] offsets, int[] string refs
+//
+// A snapshot is used only when the source size, mtime and checksum and the
+// validator that accepted it all still match.
+//
+// There is no genre-to-movie postings section. load() hands back movies,
+// which every engine accepts, and the engines that need postings get them
+// from GenreIndex, which builds them in one linear pass over the genre
+// refs above. A stored copy would only save that pass, and it would tie
+// the file to one index layout.
+public class CatalogSnapshot {
+
+    static final int MAGIC = 0x4D525331;
+    static final int VERSION = 1;
+
+    public static Path snapshotPath(String moviesFile) {
+        return Paths.get(moviesFile + ".snap");
+    }
+
+    // Identifies the rules a catalog was validated with.
+    public static String validatorKey(Validator validator) {
+        String key = validator.getClass().getName();
+        if (validator instanceof ExtendedIdValidator extended) {
+            key += ":" + extended.getSuffixDigits() + ":" + extended.getUniqueness();
+        }
+        return key;
+    }
+
+    // Returns the cached movies, or null when the snapshot is missing, stale
+    // or unreadable.
+    public static List<Movie> load(Path snapshot, Path source, String validatorKey) throws IOException {
+        if (!Files.isRegularFile(snapshot) || !Files.isRegularFile(source)) return null;
+
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) return null;
+
+            BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+            long size = buffer.getLong();
+            long modified = buffer.getLong();
+            long checksum = buffer.getLong();
+            if (size != attributes.size() || modified != attributes.lastModifiedTime().toMillis()) return null;
+            if (!validatorKey.equals(readString(buffer))) return null;
+            if (checksum != checksum(source)) return null;
+
+            String[] strings = readStringTable(buffer);
+            int count = buffer.getInt();
+            int[] titles = readInts(buffer, count);
+            int[] ids = readInts(buffer, count);
+            int[] genreOffsets = readInts(buffer, count + 1);
+            int[] genreRefs = readInts(buffer, genreOffsets[count]);
+
+            List<Movie> movies = new ArrayList<>(count);
+            for (int m = 0; m < count; m++) {
+                String[] genres = new String[genreOffsets[m + 1] - genreOffsets[m]];
+                for (int g = 0; g < genres.length; g++) genres[g] = strings[genreRefs[genreOffsets[m] + g]];
+                movies.add(new Movie(strings[titles[m]], strings[ids[m]], Arrays.asList(genres)));
+            }
+            return movies;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+
+    // Writes to a temp file first so readers never see a half written snapshot.
+    public static void write(Path snapshot, Path source, String validatorKey,
+                             BasicFileAttributes sourceAttributes, List<Movie> movies) throws IOException {
+        Map<String, Integer> stringRefs = new LinkedHashMap<>();
+        int count = movies.size();
+        int[] titles = new int[count];
+        int[] ids = new int[count];
+        int[] genreOffsets = new int[count + 1];
+        List<Integer> genreRefs = new ArrayList<>();
+        for (int m = 0; m < count; m++) {
+            Movie movie = movies.get(m);
+            titles[m] = intern(stringRefs, movie.getTitle());
+            ids[m] = intern(stringRefs, movie.getId());
+            for (String genre : movie.getGenres()) genreRefs.add(intern(stringRefs, genre));
+            genreOffsets[m + 1] = genreRefs.size();
+        }
+
+        Path temp = Files.createTempFile(snapshot.toAbsolutePath().getParent(), snapshot.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(sourceAttributes.size());
+                out.writeLong(sourceAttributes.lastModifiedTime().toMillis());
+                out.writeLong(checksum(source));
+                writeString(out, validatorKey);
+
+                out.writeInt(stringRefs.size());
+                List<byte[]> encoded = new ArrayList<>(stringRefs.size());
+                int offset = 0;
+                out.writeInt(offset);
+                for (String s : stringRefs.keySet()) {
+                    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                    encoded.add(bytes);
+                    offset += bytes.length;
+                    out.writeInt(offset);
+                }
+                for (byte[] bytes : encoded) out.write(bytes);
+
+                out.writeInt(count);
+                for (int title : titles) out.writeInt(title);
+                for (int id : ids) out.writeInt(id);
+                for (int genreOffset : genreOffsets) out.writeInt(genreOffset);
+                for (int genreRef : genreRefs) out.writeInt(genreRef);
+            }
+            try {
+                Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static long checksum(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += Integer.MAX_VALUE) {
+                long length = Math.min(Integer.MAX_VALUE, size - position);
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static int intern(Map<String, Integer> refs, String value) {
+        Integer ref = refs.get(value);
+        if (ref == null) {
+            ref = refs.size();
+            refs.put(value, ref);
+        }
+        return ref;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String[] readStringTable(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        int[] offsets = readInts(buffer, count + 1);
+        byte[] bytes = new byte[offsets[count]];
+        buffer.get(bytes);
+        String[] strings = new String[count];
+        for (int i = 0; i < count; i++) {
+            strings[i] = new String(bytes, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+        return values;
+    }
+}
@@ -0,0 +1,123 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Keeps a GenreIndex in step with the catalog file. A background thread
+// polls the file's size and modification time; on a change it loads the
+// file into a new index, and only if that succeeds without errors is the
+// index handed to the listener, which swaps it in. A catalog with errors
+// is counted in the stats, its first error handed to the failure listener,
+// and the old index kept serving.
+//
+// Polling rather than a WatchService also sees files replaced by a rename,
+// which is how catalogs should be updated. A file written in place may be
+// caught half way: if its stamp changed while it was read, the load is
+// thrown away and retried on the next poll.
+public class CatalogWatcher implements Closeable {
+
+    public interface Loader {
+        GenreIndex load(List<String> errors) throws IOException;
+    }
+
+    public record Stats(long reloads, long failures, String lastError) {}
+
+    private record Stamp(long size, FileTime modified) {}
+
+    private final Path file;
+    private final Loader loader;
+    private final Consumer<GenreIndex> listener;
+    private final Consumer<String> failureListener;
+    private ScheduledExecutorService poller;
+    // only touched by the polling thread, or by callers of checkNow
+    private Stamp loaded;
+    private volatile long reloads;
+    private volatile long failures;
+    private volatile String lastError;
+
+    // The file is taken to be loaded as it is now.
+    public CatalogWatcher(Path file, Loader loader, Consumer<GenreIndex> listener) throws IOException {
+        this(file, loader, listener, error -> {});
+    }
+
+    public CatalogWatcher(Path file, Loader loader, Consumer<GenreIndex> listener,
+                          Consumer<String> failureListener) throws IOException {
+        this.file = file;
+        this.loader = loader;
+        this.listener = listener;
+        this.failureListener = failureListener;
+        this.loaded = stamp();
+    }
+
+    public synchronized void start(long intervalMillis) {
+        if (intervalMillis <= 0) throw new IllegalArgumentException("Poll interval must be positive: " + intervalMillis);
+        if (poller != null) throw new IllegalStateException("Watcher already started");
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::checkNow, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Reloads the catalog if the file changed since it was last loaded;
+    // true when a new index was handed over.
+    public synchronized boolean checkNow() {
+        try {
+            Stamp current = stamp();
+            if (current == null || current.equals(loaded)) return false;
+
+            List<String> errors = new ArrayList<>();
+            GenreIndex index = loader.load(errors);
+            if (!current.equals(stamp())) return false;
+            loaded = current;
+            if (!errors.isEmpty()) {
+                fail(errors.get(0));
+                return false;
+            }
+            listener.accept(index);
+            reloads++;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            fail("File error: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(reloads, failures, lastError);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (poller != null) poller.shutdownNow();
+        poller = null;
+    }
+
+    private void fail(String error) {
+        failures++;
+        lastError = error;
+        failureListener.accept(error);
+    }
+
+    // null while the file is missing, as it may be between a delete and a create
+    private Stamp stamp() throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new Stamp(attributes.size(), attributes.lastModifiedTime());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package org.example;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+// Counts, in one pass over the users, how many users like each pair of
+// movies. Pairs are kept as (movie << 32 | other movie) keys in a primitive
+// hash map sized once from the memory budget; when it is half full it is
+// sorted in place, written out as a run and cleared, so it never grows.
+// finish() merges the runs row by row into a NeighborTable scored by cosine
+// similarity:
+//
+//   co-likes(a, b) / sqrt(likes(a) * likes(b))
+//
+// Both (a, b) and (b, a) are counted so every row comes out of the merge
+// contiguously. At most MAX_FAN_IN runs are read at once: beyond that the
+// oldest runs are first merged into new ones, MAX_FAN_IN at a time.
+public class CoLikeCounter implements Closeable {
+
+    // a key and a count slot at the map's 50% load factor
+    static final int BYTES_PER_PAIR = 24;
+    static final int MAX_FAN_IN = 64;
+
+    private final GenreIndex index;
+    private final int maxPairs;
+    private final int fanIn;
+    private final Path spillDirectory;
+    private final LongIntHashMap counts;
+    private final int[] likeCounts;
+    private final List<Path> runs = new ArrayList<>();
+    private int[] liked = new int[16];
+
+    public CoLikeCounter(GenreIndex index, long memoryBudget, Path spillDirectory) {
+        this(index, memoryBudget, spillDirectory, MAX_FAN_IN);
+    }
+
+    CoLikeCounter(GenreIndex index, long memoryBudget, Path spillDirectory, int fanIn) {
+        if (memoryBudget < 4 * BYTES_PER_PAIR) throw new IllegalArgumentException("Memory budget too small: " + memoryBudget);
+        if (fanIn < 2) throw new IllegalArgumentException("Merge fan-in must be at least 2: " + fanIn);
+        this.index = index;
+        // the largest power-of-two pair count whose table fits the budget
+        this.maxPairs = (int) Long.highestOneBit(Math.min(memoryBudget / BYTES_PER_PAIR, 1 << 29));
+        this.fanIn = fanIn;
+        this.spillDirectory = spillDirectory;
+        this.counts = new LongIntHashMap(maxPairs);
+        this.likeCounts = new int[index.movieCount()];
+    }
+
+    public void add(List<String> likedIds) throws IOException {
+        if (likedIds == null) return;
+        int n = 0;
+        for (String id : likedIds) {
+            int movie = index.movieOf(id);
+            if (movie < 0) continue;
+            if (n == liked.length) liked = Arrays.copyOf(liked, n * 2);
+            liked[n++] = movie;
+        }
+        Arrays.sort(liked, 0, n);
+
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || liked[distinct - 1] != liked[i]) liked[distinct++] = liked[i];
+        }
+        for (int i = 0; i < distinct; i++) {
+            likeCounts[liked[i]]++;
+            for (int j = i + 1; j < distinct; j++) {
+                count(key(liked[i], liked[j]));
+                count(key(liked[j], liked[i]));
+            }
+        }
+    }
+
+    int spillCount() {
+        return runs.size();
+    }
+
+    // Keeps each movie's neighborsPerMovie most similar co-liked movies. Rows
+    // come out of the merge in order and go straight into the table's
+    // arrays, which are not part of the memory budget: they hold the result.
+    public NeighborTable finish(int neighborsPerMovie) throws IOException {
+        int movieCount = index.movieCount();
+        NeighborTable.Builder table = new NeighborTable.Builder(neighborsPerMovie, movieCount);
+        NeighborTable.TopN best = new NeighborTable.TopN(neighborsPerMovie);
+
+        Cursor pairs;
+        if (runs.isEmpty()) {
+            pairs = new MemoryCursor(counts);
+        } else {
+            spill();
+            mergeRuns();
+            pairs = open(runs);
+        }
+        try (pairs) {
+            int row = 0;
+            while (pairs.next()) {
+                int movie = (int) (pairs.key >>> 32);
+                int other = (int) pairs.key;
+                for (; row < movie; row++) table.addRow(best);
+                best.offer(other, (float) (pairs.count / Math.sqrt((double) likeCounts[movie] * likeCounts[other])));
+            }
+            for (; row < movieCount; row++) table.addRow(best);
+        }
+        return table.build();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Path run : runs) Files.deleteIfExists(run);
+        runs.clear();
+    }
+
+    // Spills before the next insert could take the map past half full, where
+    // it would grow.
+    private void count(long key) throws IOException {
+        if (counts.size() >= maxPairs) spill();
+        counts.addTo(key, 1);
+    }
+
+    private void spill() throws IOException {
+        if (counts.size() == 0) return;
+        writeRun(new MemoryCursor(counts));
+        counts.clear();
+    }
+
+    // Merges the oldest runs fanIn at a time until the rest can be read at once.
+    private void mergeRuns() throws IOException {
+        while (runs.size() > fanIn) {
+            List<Path> group = new ArrayList<>(runs.subList(0, fanIn));
+            try (Cursor merged = open(group)) {
+                writeRun(merged);
+            }
+            runs.subList(0, fanIn).clear();
+            for (Path run : group) Files.delete(run);
+        }
+    }
+
+    private void writeRun(Cursor pairs) throws IOException {
+        Path run = Files.createTempFile(spillDirectory, "colike", ".run");
+        runs.add(run);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+            while (pairs.next()) {
+                out.writeLong(pairs.key);
+                out.writeInt(pairs.count);
+            }
+        }
+    }
+
+    private static Cursor open(List<Path> runs) throws IOException {
+        List<Cursor> cursors = new ArrayList<>();
+        try {
+            for (Path run : runs) cursors.add(new RunCursor(run));
+        } catch (IOException e) {
+            for (Cursor cursor : cursors) cursor.close();
+            throw e;
+        }
+        return new MergeCursor(cursors);
+    }
+
+    private static long key(int movie, int other) {
+        return ((long) movie << 32) | other;
+    }
+
+    private abstract static class Cursor implements Closeable {
+        long key;
+        int count;
+
+        abstract boolean next() throws IOException;
+
+        @Override
+        public void close() throws IOException {
+        }
+    }
+
+    // Reads the map in key order; it must be cleared afterwards.
+    private static class MemoryCursor extends Cursor {
+        private final LongIntHashMap counts;
+        private final int size;
+        private int position;
+
+        MemoryCursor(LongIntHashMap counts) {
+            this.counts = counts;
+            this.size = counts.sortEntries();
+        }
+
+        @Override
+        boolean next() {
+            if (position == size) return false;
+            key = counts.keyAt(position);
+            count = counts.valueAt(position++);
+            return true;
+        }
+    }
+
+    // Sums the counts of equal keys across cursors that are each in key order.
+    private static class MergeCursor extends Cursor {
+        private final List<Cursor> cursors;
+        private final PriorityQueue<Cursor> queue = new PriorityQueue<>(Comparator.comparingLong(c -> c.key));
+        private boolean started;
+
+        MergeCursor(List<Cursor> cursors) {
+            this.cursors = cursors;
+        }
+
+        @Override
+        boolean next() throws IOException {
+            if (!started) {
+                started = true;
+                for (Cursor cursor : cursors) {
+                    if (cursor.next()) queue.add(cursor);
+                }
+            }
+            if (queue.isEmpty()) return false;
+            key = queue.peek().key;
+            count = 0;
+            while (!queue.isEmpty() && queue.peek().key == key) {
+                Cursor cursor = queue.poll();
+                count += cursor.count;
+                if (cursor.next()) queue.add(cursor);
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (Cursor cursor : cursors) cursor.close();
+        }
+    }
+
+    private static class RunCursor extends Cursor {
+        private final DataInputStream in;
+
+        RunCursor(Path run) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+        }
+
+        @Override
+        boolean next() throws IOException {
+            try {
+                key = in.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            count = in.readInt();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+// Collaborative filtering: movies are similar when the same users like
+// them. Co-like counts are gathered from all users in one pass within a
+// memory budget (see CoLikeCounter), then each user is recommended the
+// best co-liked neighbors of their liked movies, like NeighborRecommender.
+// The budget covers the counts; to keep the users out of memory as well,
+// recommend them from their file, which is then read twice.
+public class CoLikeRecommender implements Recommender {
+
+    private final int neighborsPerMovie;
+    private final int k;
+    private final long memoryBudget;
+    private final Path spillDirectory;
+
+    public CoLikeRecommender(int neighborsPerMovie, int k, long memoryBudget) {
+        this(neighborsPerMovie, k, memoryBudget, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    public CoLikeRecommender(int neighborsPerMovie, int k, long memoryBudget, Path spillDirectory) {
+        if (neighborsPerMovie < 1) throw new IllegalArgumentException("Neighbors must be at least 1: " + neighborsPerMovie);
+        if (k < 1) throw new IllegalArgumentException("k must be at least 1: " + k);
+        this.neighborsPerMovie = neighborsPerMovie;
+        this.k = k;
+        this.memoryBudget = memoryBudget;
+        this.spillDirectory = spillDirectory;
+    }
+
+    @Override
+    public Map<User, List<String>> recommend(List<User> users, List<Movie> movies) {
+        GenreIndex index = new GenreIndex(movies);
+        NeighborTable table;
+        try (CoLikeCounter counter = new CoLikeCounter(index, memoryBudget, spillDirectory)) {
+            for (User user : users) counter.add(user.getLikedMovieIds());
+            table = counter.finish(neighborsPerMovie);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        GenreIndex.Scratch scratch = index.newScratch();
+        Map<User, List<String>> output = new LinkedHashMap<>();
+        for (User user : users) {
+            output.put(user, index.recommendNeighbors(user.getLikedMovieIds(), table, k, scratch));
+        }
+        return output;
+    }
+
+    // Counts co-likes while streaming the users file into the counter, then
+    // streams it again to recommend and write each user, so no user is held
+    // in memory. Errors are written as by FileHandler.streamRecommendations.
+    public void recommend(FileHandler fileHandler, String usersFile, Set<String> validMovieIds, GenreIndex index,
+                          String outputFile, List<String> errors) throws IOException {
+        NeighborTable table;
+        try (CoLikeCounter counter = new CoLikeCounter(index, memoryBudget, spillDirectory)) {
+            try {
+                fileHandler.readUsers(usersFile, validMovieIds, errors, user -> {
+                    if (!errors.isEmpty()) return;
+                    try {
+                        counter.add(user.getLikedMovieIds());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (!errors.isEmpty()) {
+                fileHandler.writeRecommendations(outputFile, Collections.emptyMap(), errors);
+                return;
+            }
+            table = counter.finish(neighborsPerMovie);
+        }
+
+        NeighborTable neighbors = table;
+        GenreIndex.Scratch scratch = index.newScratch();
+        fileHandler.streamRecommendations(usersFile, validMovieIds,
+                likedIds -> index.recommendNeighbors(likedIds, neighbors, k, scratch), outputFile, errors);
+    }
+}
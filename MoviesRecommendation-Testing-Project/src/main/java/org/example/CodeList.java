@@ -0,0 +1,31 @@
+package org.example;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+// Read-only List<String> view of dictionary codes, so compact Movie and
+// User objects still hand out lists from their getters.
+final class CodeList extends AbstractList<String> implements RandomAccess {
+
+    private final int[] codes;
+    private final StringDictionary dictionary;
+
+    CodeList(int[] codes, StringDictionary dictionary) {
+        this.codes = codes;
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public String get(int index) {
+        return dictionary.get(codes[index]);
+    }
+
+    @Override
+    public int size() {
+        return codes.length;
+    }
+
+    int[] codes() {
+        return codes;
+    }
+}
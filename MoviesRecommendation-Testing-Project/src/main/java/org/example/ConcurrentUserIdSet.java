@@ -0,0 +1,192 @@
+package org.example;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Thread-safe set of user IDs for parallel loaders. A 9-character ID of
+// letters and digits is packed into a long, 6 bits per character, so it is
+// stored without a String or a map entry. The set is split into stripes,
+// each an open-addressing table behind its own lock, so inserts from
+// different threads rarely wait on each other. IDs that do not pack, which
+// only lenient validators let through, go to a ConcurrentHashMap instead.
+//
+// Each ID can also keep the smallest position it was claimed with, which
+// lets a loader working out of order still tell which record came first.
+// A stripe only allocates positions once claim() is used on it.
+public class ConcurrentUserIdSet extends AbstractSet<String> {
+
+    public static final long ABSENT = -1;
+    static final int ID_LENGTH = 9;
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int STRIPES = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final ConcurrentHashMap<String, Long> unpacked = new ConcurrentHashMap<>();
+
+    public ConcurrentUserIdSet() {
+        this(1024);
+    }
+
+    public ConcurrentUserIdSet(int expectedSize) {
+        for (int s = 0; s < STRIPES; s++) stripes[s] = new Stripe(Math.max(1, expectedSize / STRIPES));
+    }
+
+    // The ID as a 54-bit number, or -1 when it is not 9 letters and digits.
+    static long pack(String id) {
+        if (id.length() != ID_LENGTH) return -1;
+        long packed = 0;
+        for (int i = 0; i < ID_LENGTH; i++) {
+            int code = code(id.charAt(i));
+            if (code < 0) return -1;
+            packed = packed << 6 | code;
+        }
+        return packed;
+    }
+
+    static String unpack(long packed) {
+        char[] chars = new char[ID_LENGTH];
+        for (int i = ID_LENGTH - 1; i >= 0; i--) {
+            int code = (int) (packed & 63);
+            chars[i] = (char) (code < 10 ? '0' + code : code < 36 ? 'A' + code - 10 : 'a' + code - 36);
+            packed >>>= 6;
+        }
+        return new String(chars);
+    }
+
+    private static int code(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'A' && c <= 'Z') return c - 'A' + 10;
+        if (c >= 'a' && c <= 'z') return c - 'a' + 36;
+        return -1;
+    }
+
+    @Override
+    public boolean add(String id) {
+        return claim(id, Long.MAX_VALUE) == ABSENT;
+    }
+
+    // Adds the ID with this position, or lowers its position to this one.
+    // Returns the smallest position it had before, or ABSENT; an ID put in
+    // with add() has position Long.MAX_VALUE.
+    public long claim(String id, long position) {
+        if (position < 0) throw new IllegalArgumentException("Position must not be negative: " + position);
+        long packed = pack(id);
+        if (packed < 0) {
+            Long previous = unpacked.putIfAbsent(id, position);
+            while (previous != null) {
+                if (previous <= position || unpacked.replace(id, previous, position)) return previous;
+                previous = unpacked.get(id);
+            }
+            return ABSENT;
+        }
+        long hash = mix(packed);
+        Stripe stripe = stripes[(int) (hash >>> 58) & (STRIPES - 1)];
+        synchronized (stripe) {
+            return stripe.claim(packed, (int) hash, position);
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof String id)) return false;
+        long packed = pack(id);
+        if (packed < 0) return unpacked.containsKey(id);
+        long hash = mix(packed);
+        Stripe stripe = stripes[(int) (hash >>> 58) & (STRIPES - 1)];
+        synchronized (stripe) {
+            return stripe.indexOf(packed, (int) hash) >= 0;
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = unpacked.size();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    // Iterates over a copy taken one stripe at a time; IDs added meanwhile
+    // may or may not be seen. Removal is not supported.
+    @Override
+    public Iterator<String> iterator() {
+        List<String> ids = new ArrayList<>(unpacked.keySet());
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (long key : stripe.keys) {
+                    if (key != EMPTY) ids.add(unpack(key));
+                }
+            }
+        }
+        return Collections.unmodifiableList(ids).iterator();
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    // Linear probing up to a 3/4 load; positions stays null while only
+    // add() is used.
+    private static final class Stripe {
+        long[] keys;
+        long[] positions;
+        int size;
+
+        Stripe(int expectedSize) {
+            keys = new long[Integer.highestOneBit(Math.max(4, expectedSize * 4 / 3)) << 1];
+            Arrays.fill(keys, EMPTY);
+        }
+
+        int indexOf(long key, int hash) {
+            int mask = keys.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) return i;
+                if (keys[i] == EMPTY) return -1;
+            }
+        }
+
+        long claim(long key, int hash, long position) {
+            if ((size + 1) * 4 > keys.length * 3) resize();
+            if (positions == null && position != Long.MAX_VALUE) {
+                positions = new long[keys.length];
+                Arrays.fill(positions, Long.MAX_VALUE);
+            }
+            int mask = keys.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    if (positions == null) return Long.MAX_VALUE;
+                    long previous = positions[i];
+                    if (position < previous) positions[i] = position;
+                    return previous;
+                }
+                if (keys[i] == EMPTY) {
+                    keys[i] = key;
+                    if (positions != null) positions[i] = position;
+                    size++;
+                    return ABSENT;
+                }
+            }
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            long[] oldPositions = positions;
+            keys = new long[oldKeys.length * 2];
+            positions = oldPositions == null ? null : new long[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] == EMPTY) continue;
+                int i = (int) mix(oldKeys[j]) & mask;
+                while (keys[i] != EMPTY) i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                if (positions != null) positions[i] = oldPositions[j];
+            }
+        }
+    }
+}
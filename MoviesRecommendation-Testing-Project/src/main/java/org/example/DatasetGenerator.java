@@ -0,0 +1,226 @@
+package org.example;
+
+import java.io.*;
+import java.util.*;
+
+// Writes movies.txt / users.txt files that pass InputValidator, for
+// benchmarks and soak tests. Records are generated and written one at a
+// time; a movie's title and ID are a pure function of its index and the
+// seed, so users can reference movies without keeping the catalog around.
+//
+// Every movie gets exactly genresPerMovie distinct genres (all of them if
+// there are fewer), drawn by Zipf popularity; the number of likes per user
+// follows a Pareto (power-law) distribution. With the default 3-digit IDs a
+// catalog holds at most 1000 movies; idDigits > 3 switches to the extended
+// ID scheme, which needs a validator that accepts longer suffixes.
+//
+// java -cp target/classes org.example.DatasetGenerator --movies=1000 --users=100000 --out=data
+public class DatasetGenerator {
+
+    static final String[] WORDS = {
+            "Dark", "Night", "Lost", "River", "Silent", "Storm", "Golden", "City", "Last", "Kingdom",
+            "Broken", "Arrow", "Red", "Planet", "Hidden", "Garden", "Iron", "Winter", "Secret", "Empire",
+            "Wild", "Ocean", "Shadow", "Star", "Lonely", "Road", "Burning", "Sky", "Little", "Dream"
+    };
+    static final String[] GENRES = {
+            "Action", "Drama", "Comedy", "Crime", "Horror", "Romance", "Thriller", "Fantasy",
+            "Animation", "Documentary", "Mystery", "Western", "Musical", "War", "History", "Family",
+            "Adventure", "Biography", "Sport", "Music", "Noir", "Sci-Fi", "Superhero", "Short"
+    };
+    static final String ID_CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+    static final String[] NAMES = {
+            "Hassan", "Ali", "Mohamed", "Alice", "Bob", "Carol", "Issac", "Poula", "Andrew", "Joseph",
+            "Bavly", "Jonathan", "Mona", "Sara", "Omar", "Nour", "Karim", "Laila", "Youssef", "Hana"
+    };
+
+    public int movies = 1000;
+    public int users = 10000;
+    public int genres = 16;
+    public int genresPerMovie = 3;
+    public double genreSkew = 1.0;
+    public int minLikes = 1;
+    public int maxLikes = 50;
+    public double likesExponent = 2.0;
+    public int idDigits = 3;
+    public long seed = 42;
+
+    public static void main(String[] args) throws IOException {
+        List<String> files = new ArrayList<>();
+        Map<String, String> options = new HashMap<>();
+        Main.parseArgs(args, files, options);
+
+        DatasetGenerator generator = new DatasetGenerator();
+        generator.movies = intOption(options, "movies", generator.movies);
+        generator.users = intOption(options, "users", generator.users);
+        generator.genres = intOption(options, "genres", generator.genres);
+        generator.genresPerMovie = intOption(options, "genres-per-movie", generator.genresPerMovie);
+        generator.genreSkew = Double.parseDouble(options.getOrDefault("genre-skew", String.valueOf(generator.genreSkew)));
+        generator.minLikes = intOption(options, "min-likes", generator.minLikes);
+        generator.maxLikes = intOption(options, "max-likes", generator.maxLikes);
+        generator.likesExponent = Double.parseDouble(options.getOrDefault("likes-exponent", String.valueOf(generator.likesExponent)));
+        generator.idDigits = intOption(options, "id-digits", generator.idDigits);
+        generator.seed = Long.parseLong(options.getOrDefault("seed", String.valueOf(generator.seed)));
+
+        File dir = new File(options.getOrDefault("out", "."));
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        generator.writeMovies(new File(dir, "movies.txt"));
+        generator.writeUsers(new File(dir, "users.txt"));
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    public void writeMovies(File file) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            writeMovies(writer);
+        }
+    }
+
+    public void writeUsers(File file) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            writeUsers(writer);
+        }
+    }
+
+    public void writeMovies(BufferedWriter writer) throws IOException {
+        checkSettings();
+        Random random = new Random(seed);
+        double[] genreWeights = zipfCumulative(genres, genreSkew);
+        int perMovie = Math.min(genresPerMovie, genres);
+        int[] picked = new int[perMovie];
+
+        for (int i = 0; i < movies; i++) {
+            writer.write(movieTitle(i) + "," + movieId(i));
+            writer.newLine();
+
+            for (int g = 0; g < perMovie; g++) {
+                int genre;
+                do {
+                    genre = sample(genreWeights, random);
+                } while (contains(picked, g, genre));
+                picked[g] = genre;
+                if (g > 0) writer.write(", ");
+                writer.write(genreName(genre));
+            }
+            writer.newLine();
+        }
+    }
+
+    public void writeUsers(BufferedWriter writer) throws IOException {
+        checkSettings();
+        Random random = new Random(seed * 31 + 7);
+        int likeCap = Math.min(maxLikes, movies);
+        int[] picked = new int[likeCap];
+
+        for (int i = 0; i < users; i++) {
+            writer.write(userName(random) + "," + userId(i, random));
+            writer.newLine();
+
+            int count = Math.min(likeCap, paretoLikes(random));
+            for (int l = 0; l < count; l++) {
+                int movie;
+                do {
+                    movie = random.nextInt(movies);
+                } while (contains(picked, l, movie));
+                picked[l] = movie;
+                if (l > 0) writer.write(", ");
+                writer.write(movieId(movie));
+            }
+            writer.newLine();
+        }
+    }
+
+    // One to three words picked by a hash of the index, so the title can be
+    // rebuilt from the index alone.
+    public String movieTitle(int index) {
+        long h = mix(seed ^ (index * 0x9E3779B97F4A7C15L));
+        int words = 1 + (int) Long.remainderUnsigned(h, 3);
+        StringBuilder title = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) title.append(' ');
+            h = mix(h);
+            title.append(WORDS[(int) Long.remainderUnsigned(h, WORDS.length)]);
+        }
+        return title.toString();
+    }
+
+    // Capitals of the title followed by the index, zero padded to idDigits.
+    public String movieId(int index) {
+        String title = movieTitle(index);
+        StringBuilder id = new StringBuilder();
+        for (int i = 0; i < title.length(); i++) {
+            char c = title.charAt(i);
+            if (c >= 'A' && c <= 'Z') id.append(c);
+        }
+        String suffix = Integer.toString(index);
+        for (int i = suffix.length(); i < idDigits; i++) id.append('0');
+        return id.append(suffix).toString();
+    }
+
+    static String genreName(int genre) {
+        return genre < GENRES.length ? GENRES[genre] : GENRES[genre % GENRES.length] + " " + (genre / GENRES.length + 1);
+    }
+
+    private String userName(Random random) {
+        String first = NAMES[random.nextInt(NAMES.length)];
+        return random.nextBoolean() ? first : first + " " + NAMES[random.nextInt(NAMES.length)];
+    }
+
+    // Eight digits from the index and a random letter or digit: unique and
+    // of the \d{8}[A-Za-z0-9] shape.
+    private static String userId(int index, Random random) {
+        StringBuilder id = new StringBuilder(9);
+        String digits = Integer.toString(index);
+        for (int i = digits.length(); i < 8; i++) id.append('0');
+        return id.append(digits).append(ID_CHARACTERS.charAt(random.nextInt(ID_CHARACTERS.length()))).toString();
+    }
+
+    // Inverse-CDF sample of a Pareto distribution starting at minLikes.
+    private int paretoLikes(Random random) {
+        double u = 1.0 - random.nextDouble();
+        double likes = minLikes * Math.pow(u, -1.0 / (likesExponent - 1.0));
+        return (int) Math.min(likes, Integer.MAX_VALUE);
+    }
+
+    static double[] zipfCumulative(int size, double skew) {
+        double[] cumulative = new double[size];
+        double total = 0;
+        for (int rank = 0; rank < size; rank++) {
+            total += 1.0 / Math.pow(rank + 1, skew);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < size; rank++) cumulative[rank] /= total;
+        return cumulative;
+    }
+
+    static int sample(double[] cumulative, Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+    }
+
+    private void checkSettings() {
+        if (idDigits < 3 || idDigits > 9) throw new IllegalArgumentException("idDigits must be between 3 and 9: " + idDigits);
+        if (movies < 1 || movies > Math.pow(10, idDigits)) {
+            throw new IllegalArgumentException(movies + " movies do not fit in " + idDigits + "-digit IDs");
+        }
+        if (users < 0 || users > 100_000_000) throw new IllegalArgumentException("users must be between 0 and 100000000: " + users);
+        if (genres < 1 || genresPerMovie < 1) throw new IllegalArgumentException("genres and genresPerMovie must be positive");
+        if (minLikes < 1 || maxLikes < minLikes) throw new IllegalArgumentException("likes range is empty");
+        if (likesExponent <= 1.0) throw new IllegalArgumentException("likesExponent must be above 1: " + likesExponent);
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,52 @@
+package org.example;
+
+import java.util.Set;
+
+// Validator with a configurable movie ID policy for catalogs beyond the
+// 1000 IDs allowed by the 3-digit rule. IDs are letters followed by exactly
+// suffixDigits digits; uniqueness is checked either on that numeric suffix,
+// as InputValidator does, or on the full ID. All other rules are unchanged.
+public class ExtendedIdValidator extends ScanningValidator {
+
+    public enum Uniqueness { SUFFIX, FULL_ID }
+
+    private final int suffixDigits;
+    private final Uniqueness uniqueness;
+
+    public ExtendedIdValidator(int suffixDigits, Uniqueness uniqueness) {
+        if (suffixDigits < 1 || suffixDigits > 18) {
+            throw new IllegalArgumentException("Suffix digits must be between 1 and 18: " + suffixDigits);
+        }
+        this.suffixDigits = suffixDigits;
+        this.uniqueness = uniqueness;
+    }
+
+    public int getSuffixDigits() {
+        return suffixDigits;
+    }
+
+    public Uniqueness getUniqueness() {
+        return uniqueness;
+    }
+
+    @Override
+    public boolean isMovieIdSuffixValid(String movieId, Set<String> existingIds) {
+        if (MovieIdSuffixIndex.suffixOf(movieId, suffixDigits) < 0) return false;
+        if (uniqueness == Uniqueness.FULL_ID) return !existingIds.contains(movieId);
+
+        int suffixStart = movieId.length() - suffixDigits;
+        for (String id : existingIds) {
+            if (id.regionMatches(id.length() - suffixDigits, movieId, suffixStart, suffixDigits)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public MovieIdRegistry newMovieIdRegistry() {
+        // with FULL_ID the Set based check is already a single lookup
+        if (uniqueness == Uniqueness.FULL_ID) return new SetMovieIdRegistry(this);
+        return new MovieIdSuffixIndex(suffixDigits);
+    }
+}
@@ -0,0 +1,169 @@
+package org.example;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+// Structured concurrency in the manner of the JDK's StructuredTaskScope
+// .ShutdownOnFailure, which is still a preview API. Subtasks forked in the
+// scope run on the given executor. The first one to fail shuts the scope
+// down: subtasks not started yet are skipped, running ones are interrupted,
+// and join() rethrows the failure. close() shuts down whatever is left and
+// waits for every subtask to finish, so none outlives the scope. Forking
+// and joining may alternate; only the thread that opened the scope may
+// fork, join, shut down or close it.
+public class FailFastScope<T> implements AutoCloseable {
+
+    public enum State { UNAVAILABLE, SUCCESS, FAILED, CANCELLED }
+
+    public static final class Subtask<T> implements Supplier<T> {
+        private volatile State state = State.UNAVAILABLE;
+        private volatile T result;
+        private Thread thread;
+
+        public State state() {
+            return state;
+        }
+
+        // The result; only once the subtask succeeded, like Future.resultNow.
+        @Override
+        public T get() {
+            if (state != State.SUCCESS) throw new IllegalStateException("Subtask is " + state);
+            return result;
+        }
+    }
+
+    private final Executor executor;
+    private final Thread owner = Thread.currentThread();
+    private final Object lock = new Object();
+    // guarded by lock
+    private final Set<Subtask<T>> running = new HashSet<>();
+    private int unfinished;
+    private boolean shutdown;
+    private Throwable failure;
+    private boolean closed;
+
+    public FailFastScope(Executor executor) {
+        this.executor = executor;
+    }
+
+    public Subtask<T> fork(Callable<? extends T> task) {
+        checkOwner();
+        if (closed) throw new IllegalStateException("Scope is closed");
+        Subtask<T> subtask = new Subtask<>();
+        synchronized (lock) {
+            if (shutdown) {
+                subtask.state = State.CANCELLED;
+                return subtask;
+            }
+            unfinished++;
+        }
+        try {
+            executor.execute(() -> run(subtask, task));
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                unfinished--;
+            }
+            throw e;
+        }
+        return subtask;
+    }
+
+    // Waits until every forked subtask finished or the scope was shut down,
+    // then throws the first failure, if any.
+    public void join() throws InterruptedException, ExecutionException {
+        checkOwner();
+        synchronized (lock) {
+            while (unfinished > 0 && !shutdown) lock.wait();
+            if (failure != null) throw new ExecutionException(failure);
+        }
+    }
+
+    // Skips subtasks not yet started and interrupts running ones.
+    public void shutdown() {
+        checkOwner();
+        shutdownNow();
+    }
+
+    public boolean isShutdown() {
+        synchronized (lock) {
+            return shutdown;
+        }
+    }
+
+    @Override
+    public void close() {
+        checkOwner();
+        if (closed) return;
+        closed = true;
+        shutdownNow();
+        boolean interrupted = false;
+        synchronized (lock) {
+            while (unfinished > 0) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private void run(Subtask<T> subtask, Callable<? extends T> task) {
+        synchronized (lock) {
+            if (shutdown) {
+                subtask.state = State.CANCELLED;
+                finished();
+                return;
+            }
+            subtask.thread = Thread.currentThread();
+            running.add(subtask);
+        }
+        try {
+            subtask.result = task.call();
+            subtask.state = State.SUCCESS;
+        } catch (Throwable e) {
+            synchronized (lock) {
+                // failures caused by the shutdown itself are not reported
+                if (shutdown) {
+                    subtask.state = State.CANCELLED;
+                } else {
+                    subtask.state = State.FAILED;
+                    failure = e;
+                    shutdownNow();
+                }
+            }
+        } finally {
+            synchronized (lock) {
+                running.remove(subtask);
+                subtask.thread = null;
+                finished();
+            }
+            // a pool thread must not carry a cancelling interrupt into its next task
+            Thread.interrupted();
+        }
+    }
+
+    private void shutdownNow() {
+        synchronized (lock) {
+            if (shutdown) return;
+            shutdown = true;
+            for (Subtask<T> subtask : running) subtask.thread.interrupt();
+            lock.notifyAll();
+        }
+    }
+
+    // Called with lock held.
+    private void finished() {
+        unfinished--;
+        lock.notifyAll();
+    }
+
+    private void checkOwner() {
+        if (Thread.currentThread() != owner) throw new IllegalStateException("Scope is owned by " + owner);
+    }
+}
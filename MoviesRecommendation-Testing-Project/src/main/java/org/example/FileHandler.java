@@ -1,138 +1,440 @@
-package org.example;
-
-import java.io.*;
-import java.util.*;
-
-public class FileHandler {
-
-    private final Validator validator;
-
-    public FileHandler(Validator validator) {
-        this.validator = validator;
-    }
-
-    public List<Movie> readMovies(String filePath, List<String> errorList) throws IOException {
-        List<Movie> movies = new ArrayList<>();
-        Set<String> ids = new HashSet<>();
-
-        if (!filePath.toLowerCase().endsWith(".txt")) {
-            errorList.add("ERROR: Unsupported format");
-            return movies;
-        }
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String titleLine, genreLine;
-
-            while (true) {
-                titleLine = reader.readLine();
-                if (titleLine == null) break;
-                titleLine = titleLine.trim();
-                if (titleLine.isEmpty()) continue;
-
-                genreLine = reader.readLine();
-                if (genreLine == null) break;
-                genreLine = genreLine.trim();
-                if (genreLine.isEmpty()) continue;
-
-
-                String[] titleParts = titleLine.split(",", 2);
-                if (titleParts.length < 2) continue;
-
-                String title = titleParts[0].trim();
-                String id = titleParts[1].trim();
-
-                if (!validator.isValidMovieTitle(title)) {
-                    errorList.add("ERROR: Movie Title " + title + " is wrong");
-                    break;
-                }
-
-                if (!validator.isMovieIdLettersValid(title, id)) {
-                    errorList.add("ERROR: Movie Id letters " + id + " are wrong");
-                    break;
-                }
-
-                if (!validator.isMovieIdSuffixValid(id, ids)) {
-                    errorList.add("ERROR: Movie Id numbers " + id + " aren’t unique");
-                    break;
-                }
-
-                List<String> genres = Arrays.asList(genreLine.split("\\s*,\\s*"));
-                ids.add(id);
-                movies.add(new Movie(title, id, genres));
-            }
-        }
-
-        return movies;
-    }
-
-    public List<User> readUsers(String filePath, Set<String> validMovieIds, List<String> errorList) throws IOException {
-        List<User> users = new ArrayList<>();
-        Set<String> userIds = new HashSet<>();
-
-        if (!filePath.toLowerCase().endsWith(".txt")) {
-            errorList.add("ERROR: Unsupported format");
-            return users;
-        }
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String infoLine, likesLine;
-            while (true) {
-
-                infoLine = reader.readLine();
-                if (infoLine == null) break;
-                infoLine = infoLine.trim();
-                if (infoLine.isEmpty()) continue;
-
-                likesLine = reader.readLine();
-                if (likesLine == null) break;
-                likesLine = likesLine.trim();
-                if (likesLine.isEmpty()) continue;
-
-                String[] parts = infoLine.split(",", 2);
-                if (parts.length < 2) continue;
-
-                String name = parts[0].trim();
-                String id = parts[1].trim();
-
-                if (!validator.isValidUserName(name)) {
-                    errorList.add("ERROR: User Name " + name + " is wrong");
-                    break;
-                }
-                if (!validator.isValidUserId(id, userIds)) {
-                    errorList.add("ERROR: User Id " + id + " is wrong");
-                    break;
-                }
-
-                List<String> likedIds = Arrays.asList(likesLine.split("\\s*,\\s*"));
-                for (String movieId : likedIds) {
-                    if (!validMovieIds.contains(movieId)) {
-                        errorList.add("ERROR: User " + name + " has unknown movie ID " + movieId);
-                        break;
-                    }
-                }
-
-                userIds.add(id);
-                users.add(new User(name, id, likedIds));
-            }
-        }
-        return users;
-    }
-
-    public void writeRecommendations(String filePath, Map<User, List<String>> recommendations, List<String> errors) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            if (!errors.isEmpty()) {
-                writer.write("Error " + errors.get(0));
-                writer.newLine();
-                return;
-            }
-
-            for (Map.Entry<User, List<String>> entry : recommendations.entrySet()) {
-                User user = entry.getKey();
-                writer.write(user.getName() + "," + user.getId());
-                writer.newLine();
-                writer.write(String.join(", ", entry.getValue()));
-                writer.newLine();
-            }
-        }
-    }
-}
+package org.example;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+public class FileHandler {
+
+    // tasks in flight per concurrent streamRecommendations window
+    public static final int STREAM_WINDOW = 1024;
+
+    protected final Validator validator;
+    private final StringDictionary dictionary;
+
+    public FileHandler(Validator validator) {
+        this(validator, null);
+    }
+
+    // With a dictionary, genres and liked movie IDs are kept as codes into it
+    // and every distinct string is stored once across all records.
+    public FileHandler(Validator validator, StringDictionary dictionary) {
+        this.validator = validator;
+        this.dictionary = dictionary;
+    }
+
+    public interface MovieSink {
+        void accept(String title, String id, List<String> genres);
+    }
+
+    public List<Movie> readMovies(String filePath, List<String> errorList) throws IOException {
+        List<Movie> movies = new ArrayList<>();
+        readMovies(filePath, errorList, (title, id, genres) -> movies.add(newMovie(title, id, genres)));
+        return movies;
+    }
+
+    // Reads movies.txt straight into a columnar Catalog, without Movie objects.
+    public Catalog readCatalog(String filePath, List<String> errorList) throws IOException {
+        Catalog.Builder catalog = new Catalog.Builder();
+        readMovies(filePath, errorList, catalog::add);
+        return catalog.build();
+    }
+
+    // Hands each accepted movie to the sink as soon as its two lines are read.
+    public void readMovies(String filePath, List<String> errorList, MovieSink sink) throws IOException {
+        MovieIdRegistry ids = validator.newMovieIdRegistry();
+
+        if (!filePath.toLowerCase().endsWith(".txt")) {
+            errorList.add("ERROR: Unsupported format");
+            return;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+            String titleLine, genreLine;
+
+            while (true) {
+                titleLine = reader.readLine();
+                if (titleLine == null) break;
+                titleLine = titleLine.trim();
+                if (titleLine.isEmpty()) continue;
+
+                genreLine = reader.readLine();
+                if (genreLine == null) break;
+                genreLine = genreLine.trim();
+                if (genreLine.isEmpty()) continue;
+
+
+                String[] titleParts = titleLine.split(",", 2);
+                if (titleParts.length < 2) continue;
+
+                String title = titleParts[0].trim();
+                String id = titleParts[1].trim();
+
+                if (!acceptMovie(title, id, ids, errorList)) break;
+
+                List<String> genres = Arrays.asList(genreLine.split("\\s*,\\s*"));
+                ids.register(id);
+                sink.accept(title, id, genres);
+            }
+        }
+    }
+
+    // Like readMovies, but reuses the binary snapshot next to filePath when
+    // it matches the file and this validator, and refreshes it otherwise.
+    public List<Movie> readMoviesCached(String filePath, List<String> errorList) throws IOException {
+        Path source = Paths.get(filePath);
+        if (!filePath.toLowerCase().endsWith(".txt") || !Files.isRegularFile(source)) {
+            return readMovies(filePath, errorList);
+        }
+
+        Path snapshot = CatalogSnapshot.snapshotPath(filePath);
+        String validatorKey = CatalogSnapshot.validatorKey(validator);
+        List<Movie> cached = CatalogSnapshot.load(snapshot, source, validatorKey);
+        if (cached != null) {
+            if (dictionary == null) return cached;
+            List<Movie> movies = new ArrayList<>(cached.size());
+            for (Movie m : cached) movies.add(newMovie(m.getTitle(), m.getId(), m.getGenres()));
+            return movies;
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        int errorsBefore = errorList.size();
+        List<Movie> movies = readMovies(filePath, errorList);
+        if (errorList.size() == errorsBefore) {
+            try {
+                CatalogSnapshot.write(snapshot, source, validatorKey, attributes, movies);
+            } catch (IOException e) {
+                // the snapshot only speeds up the next run
+                System.err.println("Snapshot error: " + e.getMessage());
+            }
+        }
+        return movies;
+    }
+
+    public List<User> readUsers(String filePath, Set<String> validMovieIds, List<String> errorList) throws IOException {
+        List<User> users = new ArrayList<>();
+        readUsers(filePath, validMovieIds, errorList, users::add);
+        return users;
+    }
+
+    // Hands each parsed user to the sink as soon as its two lines are read.
+    public void readUsers(String filePath, Set<String> validMovieIds, List<String> errorList, Consumer<User> sink) throws IOException {
+        Set<String> userIds = new HashSet<>();
+
+        if (!filePath.toLowerCase().endsWith(".txt")) {
+            errorList.add("ERROR: Unsupported format");
+            return;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+            String infoLine, likesLine;
+            while (true) {
+
+                infoLine = reader.readLine();
+                if (infoLine == null) break;
+                infoLine = infoLine.trim();
+                if (infoLine.isEmpty()) continue;
+
+                likesLine = reader.readLine();
+                if (likesLine == null) break;
+                likesLine = likesLine.trim();
+                if (likesLine.isEmpty()) continue;
+
+                String[] parts = infoLine.split(",", 2);
+                if (parts.length < 2) continue;
+
+                String name = parts[0].trim();
+                String id = parts[1].trim();
+
+                if (!acceptUser(name, id, userIds, errorList)) break;
+
+                List<String> likedIds = Arrays.asList(likesLine.split("\\s*,\\s*"));
+                checkLikedIds(name, likedIds, validMovieIds, errorList);
+
+                userIds.add(id);
+                sink.accept(newUser(name, id, likedIds));
+            }
+        }
+    }
+
+    protected Movie newMovie(String title, String id, List<String> genres) {
+        if (dictionary == null) return new Movie(title, id, genres);
+        // IDs go through the dictionary too, so users' liked IDs share them
+        return new Movie(title, dictionary.get(dictionary.intern(id)), dictionary.internAll(genres), dictionary);
+    }
+
+    protected User newUser(String name, String id, List<String> likedIds) {
+        if (dictionary == null) return new User(name, id, likedIds);
+        return new User(name, id, dictionary.internAll(likedIds), dictionary);
+    }
+
+    // The checks below are shared by every reader so they report the same
+    // errors in the same order; false means the reader has to stop.
+    protected boolean acceptMovie(String title, String id, MovieIdRegistry ids, List<String> errorList) {
+        if (!validator.isValidMovieTitle(title)) {
+            errorList.add("ERROR: Movie Title " + title + " is wrong");
+            return false;
+        }
+
+        if (!validator.isMovieIdLettersValid(title, id)) {
+            errorList.add("ERROR: Movie Id letters " + id + " are wrong");
+            return false;
+        }
+
+        if (!ids.isSuffixValid(id)) {
+            errorList.add("ERROR: Movie Id numbers " + id + " aren’t unique");
+            return false;
+        }
+        return true;
+    }
+
+    protected boolean acceptUser(String name, String id, Set<String> userIds, List<String> errorList) {
+        if (!validator.isValidUserName(name)) {
+            errorList.add("ERROR: User Name " + name + " is wrong");
+            return false;
+        }
+        if (!validator.isValidUserId(id, userIds)) {
+            errorList.add("ERROR: User Id " + id + " is wrong");
+            return false;
+        }
+        return true;
+    }
+
+    // An unknown liked ID is reported but does not stop the reader.
+    protected void checkLikedIds(String name, List<String> likedIds, Set<String> validMovieIds, List<String> errorList) {
+        for (String movieId : likedIds) {
+            if (!validMovieIds.contains(movieId)) {
+                errorList.add("ERROR: User " + name + " has unknown movie ID " + movieId);
+                break;
+            }
+        }
+    }
+
+    public void writeRecommendations(String filePath, Map<User, List<String>> recommendations, List<String> errors) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
+            if (!errors.isEmpty()) {
+                writer.write("Error " + errors.get(0));
+                writer.newLine();
+                return;
+            }
+
+            for (Map.Entry<User, List<String>> entry : recommendations.entrySet()) {
+                writeRecommendation(writer, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    // Reads users one at a time and writes each user's recommendations right
+    // away, so only the catalog index stays in memory. Output goes to a temp
+    // file that replaces filePath only if no error was reported; otherwise
+    // the file holds just the first error, as with writeRecommendations.
+    public void streamRecommendations(String usersFile, Set<String> validMovieIds, GenreIndex index,
+                                      String filePath, List<String> errors) throws IOException {
+        GenreIndex.Scratch scratch = index.newScratch();
+        streamRecommendations(usersFile, validMovieIds, likedIds -> index.recommend(likedIds, scratch), filePath, errors);
+    }
+
+    // The same from an off-heap catalog, so neither the catalog nor the
+    // users are held on the heap.
+    public void streamRecommendations(String usersFile, Set<String> validMovieIds, OffHeapCatalog catalog,
+                                      String filePath, List<String> errors) throws IOException {
+        OffHeapCatalog.Scratch scratch = catalog.newScratch();
+        streamRecommendations(usersFile, validMovieIds, likedIds -> catalog.recommend(likedIds, scratch), filePath, errors);
+    }
+
+    // The same with any recommender of one user's liked IDs, called on this
+    // thread in file order.
+    public void streamRecommendations(String usersFile, Set<String> validMovieIds, UnaryOperator<List<String>> recommender,
+                                      String filePath, List<String> errors) throws IOException {
+        Path output = Paths.get(filePath).toAbsolutePath();
+        Path temp = Files.createTempFile(output.getParent(), output.getFileName() + ".", ".tmp");
+        try {
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(temp.toFile()))) {
+                readUsers(usersFile, validMovieIds, errors, user -> {
+                    if (!errors.isEmpty()) return;
+                    try {
+                        writeRecommendation(writer, user, recommender.apply(user.getLikedMovieIds()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            if (!errors.isEmpty()) {
+                writeRecommendations(filePath, Collections.emptyMap(), errors);
+                return;
+            }
+            try {
+                Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, output, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Like streamRecommendations, but each user's recommendations are computed
+    // by a task of their own on the executor, forked in a FailFastScope as the
+    // user is read. Every window users the scope is joined and the results
+    // are written in input order. The first error the reader reports shuts
+    // the scope down, cancelling the tasks not finished yet, and a failing
+    // task stops the run; either way no output is left half written.
+    public void streamRecommendations(String usersFile, Set<String> validMovieIds, GenreIndex index,
+                                      String filePath, List<String> errors, Executor executor, int window) throws IOException {
+        if (window < 1) throw new IllegalArgumentException("Window must be positive: " + window);
+        Path output = Paths.get(filePath).toAbsolutePath();
+        Path temp = Files.createTempFile(output.getParent(), output.getFileName() + ".", ".tmp");
+        // scratch space is sized by the catalog, so it is pooled across tasks
+        Queue<GenreIndex.Scratch> scratches = new ConcurrentLinkedQueue<>();
+        try {
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(temp.toFile()));
+                 FailFastScope<String> scope = new FailFastScope<>(executor)) {
+                List<FailFastScope.Subtask<String>> pending = new ArrayList<>(window);
+                readUsers(usersFile, validMovieIds, errors, user -> {
+                    if (!errors.isEmpty()) {
+                        scope.shutdown();
+                        return;
+                    }
+                    pending.add(scope.fork(() -> {
+                        GenreIndex.Scratch scratch = scratches.poll();
+                        if (scratch == null) scratch = index.newScratch();
+                        try {
+                            return formatRecommendation(user, index.recommend(user.getLikedMovieIds(), scratch));
+                        } finally {
+                            scratches.offer(scratch);
+                        }
+                    }));
+                    if (pending.size() == window) writeJoined(scope, pending, writer);
+                });
+                if (errors.isEmpty()) writeJoined(scope, pending, writer);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            if (!errors.isEmpty()) {
+                writeRecommendations(filePath, Collections.emptyMap(), errors);
+                return;
+            }
+            replace(temp, output);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeJoined(FailFastScope<String> scope, List<FailFastScope.Subtask<String>> pending,
+                                    BufferedWriter writer) {
+        try {
+            scope.join();
+            for (FailFastScope.Subtask<String> subtask : pending) writer.write(subtask.get());
+            pending.clear();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while streaming recommendations"));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Like streamRecommendations, but reuses the previous output wherever
+    // RecommendationState shows a user's recommendations cannot have changed.
+    // Users are matched to the previous output in one forward pass over it;
+    // a user who moved before the read position is simply recomputed.
+    // Returns how many users were recomputed.
+    public int updateRecommendations(String usersFile, Set<String> validMovieIds, GenreIndex index,
+                                     String filePath, List<String> errors) throws IOException {
+        Path output = Paths.get(filePath).toAbsolutePath();
+        Path statePath = RecommendationState.statePath(output.toString());
+        RecommendationState previous = RecommendationState.load(statePath, output);
+        BitSet changedMovies = previous == null ? null : previous.changedMovies(index);
+
+        Path temp = Files.createTempFile(output.getParent(), output.getFileName() + ".", ".tmp");
+        Path tempState = Files.createTempFile(output.getParent(), statePath.getFileName() + ".", ".tmp");
+        int[] recomputed = {0};
+        try {
+            try (BufferedReader old = previous == null ? null : new BufferedReader(new FileReader(output.toFile()));
+                 BufferedWriter writer = new BufferedWriter(new FileWriter(temp.toFile()));
+                 RecommendationState.Writer state = new RecommendationState.Writer(tempState, index)) {
+                GenreIndex.Scratch scratch = index.newScratch();
+                int[] position = {0};
+                readUsers(usersFile, validMovieIds, errors, user -> {
+                    if (!errors.isEmpty()) return;
+                    try {
+                        long hash = RecommendationState.userHash(user);
+                        state.add(user.getId(), hash);
+
+                        int ordinal = previous == null ? -1 : previous.ordinalOf(user.getId(), hash);
+                        if (ordinal >= position[0]
+                                && !RecommendationState.likesChanged(user.getLikedMovieIds(), index, changedMovies)) {
+                            for (; position[0] < ordinal; position[0]++) {
+                                old.readLine();
+                                old.readLine();
+                            }
+                            String infoLine = old.readLine();
+                            String titlesLine = old.readLine();
+                            position[0]++;
+                            if (titlesLine != null && infoLine.equals(user.getName() + "," + user.getId())) {
+                                writer.write(infoLine);
+                                writer.newLine();
+                                writer.write(titlesLine);
+                                writer.newLine();
+                                return;
+                            }
+                        }
+                        recomputed[0]++;
+                        writeRecommendation(writer, user, index.recommend(user.getLikedMovieIds(), scratch));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.flush();
+                if (errors.isEmpty()) state.finish(temp);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            if (!errors.isEmpty()) {
+                Files.deleteIfExists(statePath);
+                writeRecommendations(filePath, Collections.emptyMap(), errors);
+                return recomputed[0];
+            }
+            // the state goes last, so it never describes an output that is not there
+            replace(temp, output);
+            replace(tempState, statePath);
+            return recomputed[0];
+        } finally {
+            Files.deleteIfExists(temp);
+            Files.deleteIfExists(tempState);
+        }
+    }
+
+    private static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeRecommendation(BufferedWriter writer, User user, List<String> titles) throws IOException {
+        writer.write(formatRecommendation(user, titles));
+    }
+
+    // The user's two output lines, each ended as BufferedWriter.newLine would.
+    private static String formatRecommendation(User user, List<String> titles) {
+        return user.getName() + "," + user.getId() + System.lineSeparator()
+                + String.join(", ", titles) + System.lineSeparator();
+    }
+}
@@ -0,0 +1,527 @@
+package org.example;
+
+import java.util.*;
+import java.util.function.IntFunction;
+
+// Read-only view of a catalog with titles, movie IDs and genres interned to
+// dense ints. Genres per movie and movies per genre are kept in CSR form,
+// an offsets array into one flat array each. Genre postings list movie
+// positions in catalog order, which is the order RecommendationSystem
+// emits titles in.
+//
+// Built from a Catalog, the codes come from its byte arrays: only distinct
+// titles and genre names are decoded, and IDs are looked up in the
+// catalog's own table rather than copied into a map.
+public class GenreIndex {
+
+    private final String[] titles;
+    private final int[] movieTitle;
+    private final int[] movieIdCode;
+    private final int[] genreOffsets;
+    private final int[] movieGenres;
+    private final int[] postingOffsets;
+    private final int[] postings;
+    private final String[] genreNames;
+    private final int idCodeCount;
+    // set when built from a Catalog, with the first movie of every ID code
+    private final Catalog catalog;
+    private final int[] idCodeMovie;
+    // set otherwise
+    private final String[] ids;
+    private final Map<String, Integer> movieById;
+
+    public GenreIndex(List<Movie> movies) {
+        int count = movies.size();
+        movieTitle = new int[count];
+        movieIdCode = new int[count];
+        catalog = null;
+        idCodeMovie = null;
+        movieById = new HashMap<>();
+
+        Map<String, Integer> titleCodes = new HashMap<>();
+        List<String> titleList = new ArrayList<>();
+        Map<String, Integer> idCodes = new HashMap<>();
+        Map<String, Integer> genreCodes = new HashMap<>();
+        Genres genres = new Genres(count);
+        for (int m = 0; m < count; m++) {
+            Movie movie = movies.get(m);
+            Integer title = titleCodes.get(movie.getTitle());
+            if (title == null) {
+                title = titleList.size();
+                titleCodes.put(movie.getTitle(), title);
+                titleList.add(movie.getTitle());
+            }
+            movieTitle[m] = title;
+
+            String id = movie.getId();
+            Integer idCode = idCodes.get(id);
+            if (idCode == null) {
+                idCode = idCodes.size();
+                idCodes.put(id, idCode);
+            }
+            movieIdCode[m] = idCode;
+            // later duplicates win, as in RecommendationSystem's id lookup
+            movieById.put(id, m);
+
+            for (String genre : movie.getGenres()) {
+                String key = genre.toLowerCase();
+                Integer code = genreCodes.get(key);
+                if (code == null) {
+                    code = genreCodes.size();
+                    genreCodes.put(key, code);
+                }
+                genres.add(code);
+            }
+            genres.endMovie();
+        }
+
+        titles = titleList.toArray(new String[0]);
+        ids = new String[idCodes.size()];
+        for (Map.Entry<String, Integer> id : idCodes.entrySet()) ids[id.getValue()] = id.getKey();
+        idCodeCount = ids.length;
+        genreNames = new String[genreCodes.size()];
+        for (Map.Entry<String, Integer> genre : genreCodes.entrySet()) genreNames[genre.getValue()] = genre.getKey();
+        genreOffsets = genres.offsets;
+        movieGenres = Arrays.copyOf(genres.codes, genres.offsets[count]);
+        postingOffsets = new int[genreNames.length + 1];
+        postings = genres.postings(genreNames.length, postingOffsets);
+    }
+
+    public GenreIndex(Catalog catalog) {
+        int count = catalog.size();
+        this.catalog = catalog;
+        ids = null;
+        movieById = null;
+
+        movieTitle = new int[count];
+        int[] firstOfTitle = catalog.titleCodes(movieTitle);
+        titles = new String[firstOfTitle.length];
+        for (int t = 0; t < titles.length; t++) titles[t] = catalog.title(firstOfTitle[t]);
+        movieIdCode = new int[count];
+        idCodeMovie = catalog.idCodes(movieIdCode);
+        idCodeCount = idCodeMovie.length;
+
+        // the catalog's genres are matched case-insensitively, so its
+        // genre codes map onto codes of their lower-cased names; codes are
+        // given out in order of first appearance, as catalog codes are
+        int[] lowered = new int[catalog.genreCount()];
+        Map<String, Integer> genreCodes = new HashMap<>();
+        for (int g = 0; g < lowered.length; g++) {
+            String key = catalog.genreName(g).toLowerCase();
+            Integer code = genreCodes.get(key);
+            if (code == null) {
+                code = genreCodes.size();
+                genreCodes.put(key, code);
+            }
+            lowered[g] = code;
+        }
+        genreNames = new String[genreCodes.size()];
+        for (Map.Entry<String, Integer> genre : genreCodes.entrySet()) genreNames[genre.getValue()] = genre.getKey();
+
+        Genres genres = new Genres(count);
+        for (int m = 0; m < count; m++) {
+            for (int entry = catalog.genresFrom(m); entry < catalog.genresTo(m); entry++) {
+                genres.add(lowered[catalog.genre(entry)]);
+            }
+            genres.endMovie();
+        }
+        genreOffsets = genres.offsets;
+        movieGenres = Arrays.copyOf(genres.codes, genres.offsets[count]);
+        postingOffsets = new int[genreNames.length + 1];
+        postings = genres.postings(genreNames.length, postingOffsets);
+    }
+
+    // Collects each movie's distinct genre codes in CSR form while the
+    // movies are read in order, then turns them around into postings.
+    private static final class Genres {
+        final int[] offsets;
+        int[] codes = new int[16];
+        int size;
+        int movies;
+
+        Genres(int count) {
+            offsets = new int[count + 1];
+        }
+
+        void add(int code) {
+            for (int i = offsets[movies]; i < size; i++) {
+                if (codes[i] == code) return;
+            }
+            if (size == codes.length) codes = Arrays.copyOf(codes, size * 2);
+            codes[size++] = code;
+        }
+
+        void endMovie() {
+            offsets[++movies] = size;
+        }
+
+        int[] postings(int genreCount, int[] postingOffsets) {
+            for (int i = 0; i < size; i++) postingOffsets[codes[i] + 1]++;
+            for (int g = 0; g < genreCount; g++) postingOffsets[g + 1] += postingOffsets[g];
+            int[] filled = Arrays.copyOf(postingOffsets, genreCount);
+            int[] postings = new int[size];
+            for (int m = 0; m < movies; m++) {
+                for (int i = offsets[m]; i < offsets[m + 1]; i++) postings[filled[codes[i]]++] = m;
+            }
+            return postings;
+        }
+    }
+
+    public int movieCount() {
+        return movieTitle.length;
+    }
+
+    public int genreCount() {
+        return genreNames.length;
+    }
+
+    // Number of movies listing the genre, for weighting rare genres higher.
+    public int genreFrequency(int genre) {
+        return postingOffsets[genre + 1] - postingOffsets[genre];
+    }
+
+    // Position of the movie with this ID (the last one for duplicates), or -1.
+    int movieOf(String id) {
+        if (catalog != null) return catalog.movieOf(id);
+        Integer movie = movieById.get(id);
+        return movie == null ? -1 : movie;
+    }
+
+    // Code of a catalog movie ID, or -1.
+    int idCodeOf(String id) {
+        int movie = movieOf(id);
+        return movie < 0 ? -1 : movieIdCode[movie];
+    }
+
+    int titleCode(int movie) {
+        return movieTitle[movie];
+    }
+
+    int titleCount() {
+        return titles.length;
+    }
+
+    String titleOfCode(int title) {
+        return titles[title];
+    }
+
+    int idCode(int movie) {
+        return movieIdCode[movie];
+    }
+
+    String idOfCode(int code) {
+        return catalog != null ? catalog.id(idCodeMovie[code]) : ids[code];
+    }
+
+    int idCodeCount() {
+        return idCodeCount;
+    }
+
+    // A copy; the loops here walk the CSR arrays directly.
+    int[] genresOf(int movie) {
+        return Arrays.copyOfRange(movieGenres, genreOffsets[movie], genreOffsets[movie + 1]);
+    }
+
+    // Lower-cased, as genres are matched case-insensitively.
+    String genreName(int genre) {
+        return genreNames[genre];
+    }
+
+    // Movies with the genre are postedMovie(postingsFrom(genre)) until
+    // postedMovie(postingsTo(genre) - 1).
+    int postingsFrom(int genre) {
+        return postingOffsets[genre];
+    }
+
+    int postingsTo(int genre) {
+        return postingOffsets[genre + 1];
+    }
+
+    int postedMovie(int posting) {
+        return postings[posting];
+    }
+
+    // A copy, like genresOf.
+    int[] moviesWithGenre(int genre) {
+        return Arrays.copyOfRange(postings, postingOffsets[genre], postingOffsets[genre + 1]);
+    }
+
+    public Scratch newScratch() {
+        return new Scratch();
+    }
+
+    public List<String> recommend(List<String> likedIds, Scratch scratch) {
+        if (likedIds == null) return new ArrayList<>();
+        collect(likedIds, scratch);
+        List<String> result = new ArrayList<>(scratch.emittedTitles.size);
+        for (int i = 0; i < scratch.emittedTitles.size; i++) result.add(titles[scratch.emittedTitles.values[i]]);
+        scratch.reset(likedIds);
+        return result;
+    }
+
+    // Codes of the titles recommend() returns, in the same order.
+    int[] recommendTitleCodes(List<String> likedIds, Scratch scratch) {
+        if (likedIds == null) return new int[0];
+        collect(likedIds, scratch);
+        int[] codes = Arrays.copyOf(scratch.emittedTitles.values, scratch.emittedTitles.size);
+        scratch.reset(likedIds);
+        return codes;
+    }
+
+    List<String> titlesOfCodes(int[] codes) {
+        List<String> result = new ArrayList<>(codes.length);
+        for (int code : codes) result.add(titles[code]);
+        return result;
+    }
+
+    // Leaves the recommended title codes in scratch.emittedTitles.
+    private void collect(List<String> likedIds, Scratch scratch) {
+        markLiked(likedIds, scratch);
+
+        for (String likedId : likedIds) {
+            int likedMovie = movieOf(likedId);
+            if (likedMovie < 0) continue;
+            for (int g = genreOffsets[likedMovie]; g < genreOffsets[likedMovie + 1]; g++) {
+                int genre = movieGenres[g];
+                if (scratch.visitedGenres.get(genre)) continue;
+                scratch.visitedGenres.set(genre);
+                scratch.touchedGenres.add(genre);
+
+                for (int p = postingOffsets[genre]; p < postingOffsets[genre + 1]; p++) {
+                    int m = postings[p];
+                    if (scratch.liked.get(movieIdCode[m])) continue;
+                    int title = movieTitle[m];
+                    if (scratch.emitted.get(title)) continue;
+                    scratch.emitted.set(title);
+                    scratch.emittedTitles.add(title);
+                }
+            }
+        }
+    }
+
+    // The distinct genres recommend() walks for these likes, in the order it
+    // first reaches them. Users with the same sequence get the same
+    // candidates before their own liked movies are taken out.
+    int[] genreSignature(List<String> likedIds, Scratch scratch) {
+        for (String likedId : likedIds) {
+            int likedMovie = movieOf(likedId);
+            if (likedMovie < 0) continue;
+            for (int g = genreOffsets[likedMovie]; g < genreOffsets[likedMovie + 1]; g++) {
+                int genre = movieGenres[g];
+                if (scratch.visitedGenres.get(genre)) continue;
+                scratch.visitedGenres.set(genre);
+                scratch.touchedGenres.add(genre);
+            }
+        }
+        int[] signature = Arrays.copyOf(scratch.touchedGenres.values, scratch.touchedGenres.size);
+        for (int genre : signature) scratch.visitedGenres.clear(genre);
+        scratch.touchedGenres.size = 0;
+        return signature;
+    }
+
+    // Scores every candidate by the summed weight of the genres it shares
+    // with each liked movie and returns the k best titles, best first. Ties
+    // keep the order recommend() would list them in. Every candidate is
+    // scored in the scratch arrays; only the heap picking the best titles
+    // and the returned list are sized by k.
+    public List<String> recommendTop(List<String> likedIds, int k, float[] genreWeights, Scratch scratch) {
+        if (likedIds == null || k <= 0) return new ArrayList<>();
+        markRanked(likedIds, scratch);
+
+        // movie scores, in first-touched order
+        for (String likedId : likedIds) {
+            int likedMovie = movieOf(likedId);
+            if (likedMovie < 0 || scratch.scoredLikes.get(likedMovie)) continue;
+            scratch.scoredLikes.set(likedMovie);
+            scratch.scoredMovies.add(likedMovie);
+            for (int g = genreOffsets[likedMovie]; g < genreOffsets[likedMovie + 1]; g++) {
+                int genre = movieGenres[g];
+                float weight = genreWeights[genre];
+                for (int p = postingOffsets[genre]; p < postingOffsets[genre + 1]; p++) {
+                    int m = postings[p];
+                    if (scratch.liked.get(movieIdCode[m])) continue;
+                    if (scratch.movieScores[m] == 0) scratch.touchedMovies.add(m);
+                    scratch.movieScores[m] += weight;
+                }
+            }
+        }
+        return topTitles(likedIds, k, scratch);
+    }
+
+    // Same ranking as recommendTop, but candidates come from the liked
+    // movies' precomputed neighbor lists and score their summed similarity.
+    public List<String> recommendNeighbors(List<String> likedIds, NeighborTable table, int k, Scratch scratch) {
+        if (likedIds == null || k <= 0) return new ArrayList<>();
+        markRanked(likedIds, scratch);
+
+        for (String likedId : likedIds) {
+            int likedMovie = movieOf(likedId);
+            if (likedMovie < 0 || scratch.scoredLikes.get(likedMovie)) continue;
+            scratch.scoredLikes.set(likedMovie);
+            scratch.scoredMovies.add(likedMovie);
+            for (int i = table.from(likedMovie); i < table.to(likedMovie); i++) {
+                int m = table.neighbor(i);
+                if (scratch.liked.get(movieIdCode[m])) continue;
+                if (scratch.movieScores[m] == 0) scratch.touchedMovies.add(m);
+                scratch.movieScores[m] += table.score(i);
+            }
+        }
+        return topTitles(likedIds, k, scratch);
+    }
+
+    // Ranks caller-supplied candidates, movies[i] scoring scores[i] and
+    // repeats adding up, with the same exclusions and order as recommendTop.
+    public List<String> recommendScored(List<String> likedIds, int[] movies, float[] scores, int count, int k, Scratch scratch) {
+        if (likedIds == null || k <= 0) return new ArrayList<>();
+        markRanked(likedIds, scratch);
+
+        for (int i = 0; i < count; i++) {
+            int m = movies[i];
+            if (scratch.liked.get(movieIdCode[m])) continue;
+            if (scratch.movieScores[m] == 0) scratch.touchedMovies.add(m);
+            scratch.movieScores[m] += scores[i];
+        }
+        return topTitles(likedIds, k, scratch);
+    }
+
+    // Starts a ranked recommendation.
+    private void markRanked(List<String> likedIds, Scratch scratch) {
+        scratch.allocateScores();
+        markLiked(likedIds, scratch);
+    }
+
+    private void markLiked(List<String> likedIds, Scratch scratch) {
+        for (String likedId : likedIds) {
+            int code = idCodeOf(likedId);
+            if (code >= 0) scratch.liked.set(code);
+        }
+    }
+
+    // Picks the k best titles from the scores in scratch and resets it.
+    private List<String> topTitles(List<String> likedIds, int k, Scratch scratch) {
+        // a title scores as its best movie; the heap holds the k best titles
+        int[] heap = new int[Math.min(k, scratch.touchedMovies.size)];
+        int heapSize = 0;
+        for (int i = 0; i < scratch.touchedMovies.size; i++) {
+            int m = scratch.touchedMovies.values[i];
+            int title = movieTitle[m];
+            float score = scratch.movieScores[m];
+            if (!scratch.emitted.get(title)) {
+                scratch.emitted.set(title);
+                scratch.emittedTitles.add(title);
+                scratch.titleOrder[title] = i;
+                scratch.titleScores[title] = score;
+            } else if (score > scratch.titleScores[title]) {
+                scratch.titleScores[title] = score;
+            }
+        }
+        for (int i = 0; i < scratch.emittedTitles.size; i++) {
+            int title = scratch.emittedTitles.values[i];
+            if (heapSize < heap.length) {
+                heap[heapSize] = title;
+                siftUp(heap, heapSize++, scratch);
+            } else if (heap.length > 0 && ranksBelow(heap[0], title, scratch)) {
+                heap[0] = title;
+                siftDown(heap, heapSize, scratch);
+            }
+        }
+
+        String[] best = new String[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            best[i] = titles[heap[0]];
+            heap[0] = heap[i];
+            siftDown(heap, i, scratch);
+        }
+
+        for (int i = 0; i < scratch.touchedMovies.size; i++) scratch.movieScores[scratch.touchedMovies.values[i]] = 0;
+        for (int i = 0; i < scratch.scoredMovies.size; i++) scratch.scoredLikes.clear(scratch.scoredMovies.values[i]);
+        scratch.touchedMovies.size = 0;
+        scratch.scoredMovies.size = 0;
+        scratch.reset(likedIds);
+        return new ArrayList<>(Arrays.asList(best));
+    }
+
+    // True when title a is a worse pick than title b.
+    private static boolean ranksBelow(int a, int b, Scratch scratch) {
+        float scoreA = scratch.titleScores[a];
+        float scoreB = scratch.titleScores[b];
+        if (scoreA != scoreB) return scoreA < scoreB;
+        return scratch.titleOrder[a] > scratch.titleOrder[b];
+    }
+
+    private static void siftUp(int[] heap, int index, Scratch scratch) {
+        int value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksBelow(value, heap[parent], scratch)) break;
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private static void siftDown(int[] heap, int size, Scratch scratch) {
+        if (size == 0) return;
+        int value = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) break;
+            if (child + 1 < size && ranksBelow(heap[child + 1], heap[child], scratch)) child++;
+            if (!ranksBelow(heap[child], value, scratch)) break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+
+    // Per-thread working state; cleared bit by bit after each user so its
+    // cost follows the size of the result, not of the catalog.
+    public class Scratch {
+        private final BitSet liked = new BitSet(idCodeCount);
+        private final BitSet visitedGenres = new BitSet(genreNames.length);
+        private final BitSet emitted = new BitSet(titles.length);
+        private final IntList touchedGenres = new IntList();
+        private final IntList emittedTitles = new IntList();
+
+        // only used by the ranked recommendations, so they are allocated by
+        // the first one rather than by every scratch
+        private BitSet scoredLikes;
+        private IntList scoredMovies;
+        private IntList touchedMovies;
+        private float[] movieScores;
+        private float[] titleScores;
+        private int[] titleOrder;
+
+        private void allocateScores() {
+            if (movieScores != null) return;
+            scoredLikes = new BitSet(movieTitle.length);
+            scoredMovies = new IntList();
+            touchedMovies = new IntList();
+            movieScores = new float[movieTitle.length];
+            titleScores = new float[titles.length];
+            titleOrder = new int[titles.length];
+        }
+
+        private void reset(List<String> likedIds) {
+            for (String likedId : likedIds) {
+                int code = idCodeOf(likedId);
+                if (code >= 0) liked.clear(code);
+            }
+            for (int i = 0; i < touchedGenres.size; i++) visitedGenres.clear(touchedGenres.values[i]);
+            for (int i = 0; i < emittedTitles.size; i++) emitted.clear(emittedTitles.values[i]);
+            touchedGenres.size = 0;
+            emittedTitles.size = 0;
+        }
+    }
+
+    private static class IntList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package org.example;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded, thread-safe memo of genre candidates over one GenreIndex. A
+// user's recommendations are the titles of the genres their liked movies
+// lead to, walked in the order recommend() first reaches them, minus the
+// liked movies. Users reaching the same genres in the same order share one
+// cached title list and only take their own liked movies out of it. The
+// order is part of the key because it decides the order titles come out in.
+//
+// Taking a liked movie out is a removal from the list unless another
+// candidate with a different ID has the same title; that title would move
+// to the other movie's place, so such users are computed by recommend().
+//
+// A list is only built the second time its key is seen, so the many keys
+// seen once cost no more than an uncached recommend(). Entries are weighed
+// by their title count and evicted least recently used first. The cache is
+// split into segments by key, each behind its own lock.
+public class GenreSignatureCache {
+
+    private static final int SEGMENTS = 16;
+    private static final int SEEN_BITS = 1 << 22;
+
+    private final GenreIndex index;
+    private final Segment[] segments;
+    // keys seen at least once, by hash; cleared when a quarter full
+    private final AtomicLongArray seen = new AtomicLongArray(SEEN_BITS / 64);
+    private final LongAdder seenCount = new LongAdder();
+    private final ThreadLocal<Builder> builders;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public record Stats(long hits, long misses, long evictions, long fallbacks, int entries, long titles) {
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    public GenreSignatureCache(GenreIndex index, long maxTitles) {
+        if (maxTitles < 0) throw new IllegalArgumentException("Cache size must not be negative: " + maxTitles);
+        this.index = index;
+        // small caches stay in one segment so their budget is not split up
+        int count = maxTitles >= SEGMENTS * 1024L ? SEGMENTS : 1;
+        segments = new Segment[count];
+        for (int s = 0; s < count; s++) segments[s] = new Segment(maxTitles / count);
+        builders = ThreadLocal.withInitial(() -> new Builder(index.titleCount()));
+    }
+
+    // Same result as index.recommend(likedIds, scratch).
+    public List<String> recommend(List<String> likedIds, GenreIndex.Scratch scratch) {
+        if (likedIds == null) return new ArrayList<>();
+        int[] genres = index.genreSignature(likedIds, scratch);
+        if (genres.length == 0) return new ArrayList<>();
+
+        Signature key = new Signature(genres);
+        Segment segment = segments[key.hash & (segments.length - 1)];
+        Candidates candidates = segment.get(key);
+        if (candidates != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            if (!seenBefore(key.hash)) return index.recommend(likedIds, scratch);
+            candidates = builders.get().build(index, genres);
+            segment.put(key, candidates);
+        }
+
+        List<String> result = candidates.without(likedIds, index);
+        if (result != null) return result;
+        fallbacks.increment();
+        return index.recommend(likedIds, scratch);
+    }
+
+    public Stats stats() {
+        int entries = 0;
+        long titles = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                entries += segment.entries.size();
+                titles += segment.weight;
+            }
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), fallbacks.sum(), entries, titles);
+    }
+
+    // Marks the hash as seen and tells whether it already was. Two keys may
+    // share a bit, which only caches the second one early.
+    private boolean seenBefore(int hash) {
+        int bit = hash & (SEEN_BITS - 1);
+        long mask = 1L << bit;
+        if ((seen.get(bit >>> 6) & mask) != 0) return true;
+        seen.getAndAccumulate(bit >>> 6, mask, (a, b) -> a | b);
+        seenCount.increment();
+        if (seenCount.sum() > SEEN_BITS / 4) {
+            seenCount.reset();
+            for (int i = 0; i < seen.length(); i++) seen.set(i, 0);
+        }
+        return false;
+    }
+
+    // Per-thread working arrays for building candidate lists.
+    private static final class Builder {
+        final int[] positions;
+        int[] titles = new int[64];
+        int[] firstIds = new int[64];
+
+        Builder(int titleCount) {
+            positions = new int[titleCount];
+            Arrays.fill(positions, -1);
+        }
+
+        Candidates build(GenreIndex index, int[] genres) {
+            int count = 0;
+            BitSet shared = new BitSet();
+            for (int genre : genres) {
+                for (int p = index.postingsFrom(genre); p < index.postingsTo(genre); p++) {
+                    int m = index.postedMovie(p);
+                    int title = index.titleCode(m);
+                    int position = positions[title];
+                    if (position < 0) {
+                        if (count == titles.length) {
+                            titles = Arrays.copyOf(titles, count * 2);
+                            firstIds = Arrays.copyOf(firstIds, count * 2);
+                        }
+                        positions[title] = count;
+                        titles[count] = title;
+                        firstIds[count++] = index.idCode(m);
+                    } else if (firstIds[position] != index.idCode(m)) {
+                        shared.set(position);
+                    }
+                }
+            }
+
+            String[] texts = new String[count];
+            // ID code in the high half, list position in the low half
+            long[] byId = new long[count];
+            for (int i = 0; i < count; i++) {
+                positions[titles[i]] = -1;
+                texts[i] = index.titleOfCode(titles[i]);
+                byId[i] = (long) firstIds[i] << 32 | i;
+            }
+            Arrays.sort(byId);
+            return new Candidates(texts, byId, shared);
+        }
+    }
+
+    // A genre sequence, compared by value.
+    private static final class Signature {
+        final int[] genres;
+        final int hash;
+
+        Signature(int[] genres) {
+            this.genres = genres;
+            // spread, as the low bits pick the segment
+            int h = Arrays.hashCode(genres) * 0x9E3779B9;
+            this.hash = h ^ (h >>> 16);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Signature other && other.hash == hash && Arrays.equals(other.genres, genres);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // Titles in the order the genres yield them with no movie taken out,
+    // the IDs they first come from, and the titles shared with another ID.
+    private record Candidates(String[] titles, long[] byId, BitSet shared) {
+
+        // The titles minus those coming from a liked movie, or null when one
+        // of them is shared.
+        List<String> without(List<String> likedIds, GenreIndex index) {
+            int[] removed = new int[4];
+            int count = 0;
+            for (String likedId : likedIds) {
+                int code = index.idCodeOf(likedId);
+                if (code < 0) continue;
+                for (int i = firstWithId(code); i < byId.length && (int) (byId[i] >>> 32) == code; i++) {
+                    int position = (int) byId[i];
+                    if (shared.get(position)) return null;
+                    if (count == removed.length) removed = Arrays.copyOf(removed, count * 2);
+                    removed[count++] = position;
+                }
+            }
+            Arrays.sort(removed, 0, count);
+
+            List<String> result = new ArrayList<>(titles.length - count);
+            int from = 0;
+            for (int i = 0; i < count; i++) {
+                // a liked ID listed twice removes the same title twice
+                if (removed[i] < from) continue;
+                for (int t = from; t < removed[i]; t++) result.add(titles[t]);
+                from = removed[i] + 1;
+            }
+            for (int t = from; t < titles.length; t++) result.add(titles[t]);
+            return result;
+        }
+
+        private int firstWithId(int code) {
+            int low = 0;
+            int high = byId.length;
+            long key = (long) code << 32;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (byId[middle] < key) low = middle + 1;
+                else high = middle;
+            }
+            return low;
+        }
+    }
+
+    private final class Segment {
+        final LinkedHashMap<Signature, Candidates> entries = new LinkedHashMap<>(16, 0.75f, true);
+        final long budget;
+        long weight;
+
+        Segment(long budget) {
+            this.budget = budget;
+        }
+
+        synchronized Candidates get(Signature key) {
+            return entries.get(key);
+        }
+
+        // Another thread may have added the same key meanwhile; the newer
+        // list replaces it.
+        synchronized void put(Signature key, Candidates candidates) {
+            if (candidates.titles().length > budget) return;
+            Candidates previous = entries.put(key, candidates);
+            if (previous != null) weight -= previous.titles().length;
+            weight += candidates.titles().length;
+
+            Iterator<Candidates> eldest = entries.values().iterator();
+            while (weight > budget) {
+                weight -= eldest.next().titles().length;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.example;
+
+import java.util.*;
+
+// Produces the same recommendations as RecommendationSystem from a GenreIndex,
+// so the per-candidate liked check is a bit lookup instead of List.contains.
+public class IndexedRecommendationSystem implements Recommender {
+
+    @Override
+    public Map<User, List<String>> recommend(List<User> users, List<Movie> movies) {
+        return recommend(users, new GenreIndex(movies));
+    }
+
+    @Override
+    public Map<User, List<String>> recommend(List<User> users, Catalog catalog) {
+        return recommend(users, new GenreIndex(catalog));
+    }
+
+    private Map<User, List<String>> recommend(List<User> users, GenreIndex index) {
+        GenreIndex.Scratch scratch = index.newScratch();
+
+        Map<User, List<String>> output = new LinkedHashMap<>();
+        for (User user : users) {
+            output.put(user, index.recommend(user.getLikedMovieIds(), scratch));
+        }
+        return output;
+    }
+}
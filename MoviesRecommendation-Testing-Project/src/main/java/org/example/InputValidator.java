@@ -34,5 +34,9 @@ public class InputValidator implements Validator{
         return true;
     }
 
+    @Override
+    public MovieIdRegistry newMovieIdRegistry() {
+        return new MovieIdSuffixIndex();
+    }
 
 }
@@ -0,0 +1,49 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+// Request latencies for percentile reporting. The last WINDOW samples are
+// kept in a ring, next to a running count and maximum. Recording is a few
+// atomic operations, so request threads never wait on each other; a
+// snapshot taken while requests finish may miss the newest samples.
+public class LatencyRecorder {
+
+    static final int WINDOW = 1 << 16;
+
+    private final AtomicLongArray samples = new AtomicLongArray(WINDOW);
+    private final AtomicLong count = new AtomicLong();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    // Percentiles are over the recent window, in nanoseconds.
+    public record Snapshot(long count, long p50, long p99, long p999, long max) {
+        @Override
+        public String toString() {
+            return String.format("requests %d, p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms",
+                    count, p50 / 1e6, p99 / 1e6, p999 / 1e6, max / 1e6);
+        }
+    }
+
+    public void record(long nanos) {
+        long index = count.getAndIncrement();
+        samples.set((int) (index & (WINDOW - 1)), nanos);
+        max.accumulate(nanos);
+    }
+
+    public Snapshot snapshot() {
+        long total = count.get();
+        long[] sorted = new long[(int) Math.min(total, WINDOW)];
+        for (int i = 0; i < sorted.length; i++) sorted[i] = samples.get(i);
+        Arrays.sort(sorted);
+        return new Snapshot(total, percentile(sorted, 50), percentile(sorted, 99), percentile(sorted, 99.9), max.get());
+    }
+
+    // Nearest-rank percentile of sorted samples, 0 when there are none.
+    static long percentile(long[] sorted, double percent) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(percent * sorted.length / 100);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
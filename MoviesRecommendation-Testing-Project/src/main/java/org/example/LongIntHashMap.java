@@ -0,0 +1,190 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Open-addressing map from long to int counts, without boxing; the
+// counterpart of LongHashSet for tallies.
+public class LongIntHashMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private boolean containsEmptyKey;
+    private int emptyKeyValue;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    // Returns 0 for a missing key.
+    public int get(long key) {
+        if (key == EMPTY) return emptyKeyValue;
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            long slot = keys[i];
+            if (slot == key) return values[i];
+            if (slot == EMPTY) return 0;
+        }
+    }
+
+    public boolean containsKey(long key) {
+        if (key == EMPTY) return containsEmptyKey;
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            long slot = keys[i];
+            if (slot == key) return true;
+            if (slot == EMPTY) return false;
+        }
+    }
+
+    // Adds delta to the key's value, inserting it at 0 first if missing.
+    public int addTo(long key, int delta) {
+        if (key == EMPTY) {
+            if (!containsEmptyKey) {
+                containsEmptyKey = true;
+                size++;
+            }
+            return emptyKeyValue += delta;
+        }
+        if ((size + 1) * 2 > keys.length) resize();
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            long slot = keys[i];
+            if (slot == key) return values[i] += delta;
+            if (slot == EMPTY) {
+                keys[i] = key;
+                size++;
+                return values[i] = delta;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Keys in ascending order.
+    public long[] sortedKeys() {
+        long[] result = new long[size];
+        int n = 0;
+        if (containsEmptyKey) result[n++] = EMPTY;
+        for (long key : keys) {
+            if (key != EMPTY) result[n++] = key;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    // Moves the entries to the front of the table in ascending key order,
+    // without copying them out, and returns how many there are; read them
+    // with keyAt and valueAt. The table is no hash table after that, so
+    // nothing but clear() may follow.
+    public int sortEntries() {
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == EMPTY) continue;
+            if (n != i) {
+                keys[n] = keys[i];
+                values[n] = values[i];
+                keys[i] = EMPTY;
+            }
+            n++;
+        }
+        sort(0, n);
+        if (containsEmptyKey) {
+            // the smallest key; the table has room since it is at most half full
+            System.arraycopy(keys, 0, keys, 1, n);
+            System.arraycopy(values, 0, values, 1, n);
+            keys[0] = EMPTY;
+            values[0] = emptyKeyValue;
+            n++;
+        }
+        return n;
+    }
+
+    public long keyAt(int i) {
+        return keys[i];
+    }
+
+    public int valueAt(int i) {
+        return values[i];
+    }
+
+    // Keeps the table at its size; values need no reset since an insert
+    // overwrites them.
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        containsEmptyKey = false;
+        emptyKeyValue = 0;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            long key = oldKeys[j];
+            if (key == EMPTY) continue;
+            int i = hash(key) & mask;
+            while (keys[i] != EMPTY) i = (i + 1) & mask;
+            keys[i] = key;
+            values[i] = oldValues[j];
+        }
+    }
+
+    // Quicksort of keys[from, to) carrying the values along; it recurses
+    // into the smaller side only, so the stack stays logarithmic.
+    private void sort(int from, int to) {
+        while (to - from > 16) {
+            int middle = (from + to) >>> 1;
+            if (keys[middle] < keys[from]) swap(middle, from);
+            if (keys[to - 1] < keys[from]) swap(to - 1, from);
+            if (keys[to - 1] < keys[middle]) swap(to - 1, middle);
+            long pivot = keys[middle];
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (keys[i] < pivot) i++;
+                while (keys[j] > pivot) j--;
+                if (i <= j) swap(i++, j--);
+            }
+            if (j - from < to - i) {
+                sort(from, j + 1);
+                from = i;
+            } else {
+                sort(i, to);
+                to = j + 1;
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            for (int j = i; j > from && keys[j] < keys[j - 1]; j--) swap(j, j - 1);
+        }
+    }
+
+    private void swap(int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        int value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+
+    private static int hash(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -1,36 +1,325 @@
 package org.example;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class Main {
+
+    private static final Set<String> ENGINES =
+            Set.of("genre", "indexed", "offheap", "cached", "parallel", "neighbors", "colike", "minhash");
+    private static final Set<String> TOP_K_ENGINES = Set.of("genre", "neighbors", "colike", "minhash");
+
     public static void main(String[] args) {
-        // Accept input/output filenames from command-line if provided
-        String moviesFile = (args.length > 0) ? args[0] : "movies.txt";
-        String usersFile = (args.length > 1) ? args[1] : "users.txt";
-        String outputFile = (args.length > 2) ? args[2] : "recommendations.txt";
+        // Accept input/output filenames from command-line if provided,
+        // options are given as --name=value anywhere in the argument list
+        List<String> files = new ArrayList<>();
+        Map<String, String> options = new HashMap<>();
+        parseArgs(args, files, options);
+
+        String moviesFile = (files.size() > 0) ? files.get(0) : "movies.txt";
+        String usersFile = (files.size() > 1) ? files.get(1) : "users.txt";
+        String outputFile = (files.size() > 2) ? files.get(2) : "recommendations.txt";
 
 
         List<String> errors = new ArrayList<>();
         List<Movie> movies = new ArrayList<>();
         List<User> users = new ArrayList<>();
-        FileHandler fileHandler = new FileHandler(new InputValidator());
         try {
-            movies = fileHandler.readMovies(moviesFile, errors);
+            checkOptions(options);
+            FileHandler fileHandler = createFileHandler(options.get("reader"), createValidator(options),
+                    options.containsKey("compact") ? new StringDictionary() : null, options.get("threads"));
+            if ("offheap".equals(options.get("engine"))) {
+                recommendOffHeap(options, fileHandler, moviesFile, usersFile, outputFile, errors);
+                return;
+            }
+
+            // with --columnar the catalog stays in a Catalog's flat arrays
+            Catalog catalog = null;
+            if (options.containsKey("columnar")) catalog = fileHandler.readCatalog(moviesFile, errors);
+            else if (options.containsKey("snapshot")) movies = fileHandler.readMoviesCached(moviesFile, errors);
+            else movies = fileHandler.readMovies(moviesFile, errors);
+
+            if (options.containsKey("serve")) {
+                serve(options, fileHandler, moviesFile, usersFile, catalog != null ? new GenreIndex(catalog) : new GenreIndex(movies), errors);
+                return;
+            }
+
             if (errors.isEmpty()) {
                 Set<String> movieIds = new HashSet<>();
-                for (Movie m : movies) movieIds.add(m.getId());
+                if (catalog != null) {
+                    for (int m = 0; m < catalog.size(); m++) movieIds.add(catalog.id(m));
+                } else {
+                    for (Movie m : movies) movieIds.add(m.getId());
+                }
+
+                if ("colike".equals(options.get("engine"))) {
+                    // users are streamed twice rather than held: to count co-likes, then to recommend
+                    new CoLikeRecommender(Integer.parseInt(options.getOrDefault("neighbors", "20")),
+                            Integer.parseInt(options.getOrDefault("top-k", String.valueOf(Integer.MAX_VALUE))),
+                            Long.parseLong(options.getOrDefault("memory-mb", "256")) << 20)
+                            .recommend(fileHandler, usersFile, movieIds, catalog != null ? new GenreIndex(catalog) : new GenreIndex(movies),
+                                    outputFile, errors);
+                    return;
+                }
 
+                if (options.containsKey("streaming") || options.containsKey("incremental")) {
+                    // users are read, recommended and written one at a time; with
+                    // --incremental unchanged users are copied from the last output
+                    GenreIndex index = catalog != null ? new GenreIndex(catalog) : new GenreIndex(movies);
+                    if (options.containsKey("incremental")) {
+                        fileHandler.updateRecommendations(usersFile, movieIds, index, outputFile, errors);
+                    } else if (options.containsKey("executor")) {
+                        // --executor=virtual|platform gives every user a task of their own
+                        try (ExecutorService executor = createExecutor(options.get("executor"), options.get("threads"))) {
+                            fileHandler.streamRecommendations(usersFile, movieIds, index, outputFile, errors, executor,
+                                    Integer.parseInt(options.getOrDefault("window", String.valueOf(FileHandler.STREAM_WINDOW))));
+                        }
+                    } else {
+                        fileHandler.streamRecommendations(usersFile, movieIds, index, outputFile, errors);
+                    }
+                    return;
+                }
                 users = fileHandler.readUsers(usersFile, movieIds, errors);
             }
 
-            Map<User, List<String>> recommendations = errors.isEmpty()
-                    ? RecommendationSystem.generateRecommendations(users, movies)
-                    : new HashMap<>();
+            Map<User, List<String>> recommendations = new HashMap<>();
+            if (errors.isEmpty()) {
+                Recommender recommender = createRecommender(options, moviesFile);
+                recommendations = catalog != null
+                        ? recommender.recommend(users, catalog)
+                        : recommender.recommend(users, movies);
+            }
 
             fileHandler.writeRecommendations(outputFile, recommendations, errors);
 
         } catch (IOException e) {
             System.err.println("File error: " + e.getMessage());
+        } catch (UncheckedIOException e) {
+            System.err.println("File error: " + e.getCause().getMessage());
+        } catch (NumberFormatException e) {
+            System.err.println("Option error: not a number: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Option error: " + e.getMessage());
+        }
+    }
+
+    // --engine=offheap moves the catalog out of the heap and streams the
+    // users through it. Likes are not stored off-heap as OffHeapLikes
+    // would: each user is read, recommended and written, then dropped.
+    // With --offheap-catalog=<file> the catalog is mapped from that file
+    // when it was written from the movies file as it is now under the same
+    // validator, and written there otherwise.
+    static void recommendOffHeap(Map<String, String> options, FileHandler fileHandler, String moviesFile,
+                                 String usersFile, String outputFile, List<String> errors) throws IOException {
+        String file = options.get("offheap-catalog");
+        // a catalog accepted by another validator must be read and checked again
+        String validatorKey = CatalogSnapshot.validatorKey(fileHandler.validator);
+        try (Arena arena = Arena.ofConfined()) {
+            OffHeapCatalog catalog = file == null ? null : OffHeapCatalog.mapIfCurrent(Paths.get(file), Paths.get(moviesFile), validatorKey, arena);
+            if (catalog == null) {
+                Catalog read = fileHandler.readCatalog(moviesFile, errors);
+                if (!errors.isEmpty()) {
+                    fileHandler.writeRecommendations(outputFile, Collections.emptyMap(), errors);
+                    return;
+                }
+                catalog = OffHeapCatalog.build(read, arena);
+                if (file != null) catalog.write(Paths.get(file), Paths.get(moviesFile), validatorKey);
+            }
+            fileHandler.streamRecommendations(usersFile, catalog.movieIds(), catalog, outputFile, errors);
+        }
+    }
+
+    // --serve[=port] keeps the catalog loaded and answers queries on the
+    // loopback address until the process is stopped. Users are loaded when
+    // their file exists; errors are printed instead of written. With
+    // --watch[=ms] the catalog file is polled and reloaded when it changes.
+    static void serve(Map<String, String> options, FileHandler fileHandler, String moviesFile, String usersFile,
+                      GenreIndex index, List<String> errors) throws IOException {
+        List<User> users = new ArrayList<>();
+        if (errors.isEmpty() && Files.isRegularFile(Paths.get(usersFile))) {
+            Set<String> movieIds = new HashSet<>();
+            for (int code = 0; code < index.idCodeCount(); code++) movieIds.add(index.idOfCode(code));
+            users = fileHandler.readUsers(usersFile, movieIds, errors);
+        }
+        if (!errors.isEmpty()) {
+            System.err.println("Error " + errors.get(0));
+            return;
+        }
+
+        String port = options.get("serve");
+        RecommendationServer server = new RecommendationServer(index, users);
+        server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port.equals("true") ? 8080 : Integer.parseInt(port)));
+        CatalogWatcher watcher = null;
+        if (options.containsKey("watch")) {
+            String interval = options.get("watch");
+            // every reload gets a reader of its own, so with --compact the
+            // titles of replaced catalogs are not kept in a shared dictionary
+            watcher = new CatalogWatcher(Paths.get(moviesFile), reloadErrors -> readIndex(options,
+                    createFileHandler(options.get("reader"), createValidator(options),
+                            options.containsKey("compact") ? new StringDictionary() : null, options.get("threads")),
+                    moviesFile, reloadErrors), server::setIndex,
+                    error -> System.err.println("Catalog not reloaded: " + error));
+            watcher.start(interval.equals("true") ? 1000 : Long.parseLong(interval));
+        }
+        CatalogWatcher started = watcher;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (started != null) started.close();
+            server.stop();
+            System.err.println(server.latency());
+        }));
+        System.out.println("Serving recommendations on port " + server.getPort());
+    }
+
+    // Reads the catalog into an index the way main reads it at startup.
+    static GenreIndex readIndex(Map<String, String> options, FileHandler fileHandler, String moviesFile,
+                                List<String> errors) throws IOException {
+        if (options.containsKey("columnar")) return new GenreIndex(fileHandler.readCatalog(moviesFile, errors));
+        if (options.containsKey("snapshot")) return new GenreIndex(fileHandler.readMoviesCached(moviesFile, errors));
+        return new GenreIndex(fileHandler.readMovies(moviesFile, errors));
+    }
+
+    static void parseArgs(String[] args, List<String> files, Map<String, String> options) {
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                int eq = arg.indexOf('=');
+                if (eq < 0) options.put(arg.substring(2), "true");
+                else options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else {
+                files.add(arg);
+            }
+        }
+    }
+
+    // Rejects option combinations in which one of them would be ignored.
+    // --top-k picks the ranked form of the genre, neighbors, colike and
+    // minhash engines; --streaming, --incremental and --serve recommend
+    // straight from a GenreIndex, which is the genre engine, except that
+    // the offheap engine streams on its own. Options tuning one engine,
+    // reader or mode need that engine, reader or mode.
+    static void checkOptions(Map<String, String> options) {
+        String engine = options.getOrDefault("engine", "genre");
+        if (!ENGINES.contains(engine)) throw new IllegalArgumentException("Unknown engine: " + engine);
+        if (options.containsKey("top-k") && !TOP_K_ENGINES.contains(engine)) {
+            throw new IllegalArgumentException("Option --top-k does not apply to engine: " + engine);
+        }
+        boolean batch = true;
+        for (String mode : List.of("streaming", "incremental", "serve")) {
+            if (!options.containsKey(mode)) continue;
+            batch = false;
+            if (options.containsKey("top-k")) throw new IllegalArgumentException("Option --top-k does not apply to --" + mode);
+            if (!engine.equals("genre") && !(engine.equals("offheap") && mode.equals("streaming"))) {
+                throw new IllegalArgumentException("Option --" + mode + " does not apply to engine: " + engine);
+            }
+        }
+
+        boolean genreBatch = batch && engine.equals("genre") && !options.containsKey("top-k");
+        requireFor(options, "result-cache", genreBatch, "the genre engine without --top-k, --streaming, --incremental or --serve");
+        requireFor(options, "result-cache-mb", options.containsKey("result-cache"), "--result-cache");
+        boolean genreStreaming = options.containsKey("streaming") && !options.containsKey("incremental") && engine.equals("genre");
+        requireFor(options, "executor", genreStreaming, "--streaming with the genre engine");
+        requireFor(options, "window", options.containsKey("executor"), "--executor");
+        requireFor(options, "watch", options.containsKey("serve"), "--serve");
+        requireFor(options, "offheap-catalog", engine.equals("offheap"), "--engine=offheap");
+        requireFor(options, "scoring", options.containsKey("top-k") && engine.equals("genre"), "--top-k with the genre engine");
+        requireFor(options, "neighbors", Set.of("neighbors", "colike", "minhash").contains(engine),
+                "the neighbors, colike and minhash engines");
+        requireFor(options, "memory-mb", engine.equals("colike"), "--engine=colike");
+        for (String option : List.of("minhash-mode", "bands", "rows")) requireFor(options, option, engine.equals("minhash"), "--engine=minhash");
+        requireFor(options, "cache-titles", engine.equals("cached"), "--engine=cached");
+        for (String option : List.of("id-digits", "id-unique")) {
+            requireFor(options, option, "extended".equals(options.get("validator")), "--validator=extended");
+        }
+    }
+
+    private static void requireFor(Map<String, String> options, String option, boolean applies, String what) {
+        if (options.containsKey(option) && !applies) throw new IllegalArgumentException("Option --" + option + " only applies to " + what);
+    }
+
+    static Validator createValidator(Map<String, String> options) {
+        String name = options.get("validator");
+        if (name == null || name.equals("regex")) return new InputValidator();
+        if (name.equals("scanning")) return new ScanningValidator();
+        if (name.equals("extended")) {
+            int digits = Integer.parseInt(options.getOrDefault("id-digits", "3"));
+            String unique = options.getOrDefault("id-unique", "suffix");
+            if (!unique.equals("suffix") && !unique.equals("id")) throw new IllegalArgumentException("Unknown id-unique: " + unique);
+            return new ExtendedIdValidator(digits, unique.equals("id")
+                    ? ExtendedIdValidator.Uniqueness.FULL_ID
+                    : ExtendedIdValidator.Uniqueness.SUFFIX);
+        }
+        throw new IllegalArgumentException("Unknown validator: " + name);
+    }
+
+    static FileHandler createFileHandler(String name, Validator validator, StringDictionary dictionary, String threads) {
+        if (name == null || name.equals("buffered")) return new FileHandler(validator, dictionary);
+        if (name.equals("mapped")) return new MappedFileHandler(validator, dictionary);
+        if (name.equals("parallel")) {
+            return new ParallelFileHandler(validator, dictionary, threads == null
+                    ? Runtime.getRuntime().availableProcessors()
+                    : Integer.parseInt(threads));
+        }
+        throw new IllegalArgumentException("Unknown reader: " + name);
+    }
+
+    static ExecutorService createExecutor(String name, String threads) {
+        if (name.equals("virtual")) return Executors.newVirtualThreadPerTaskExecutor();
+        if (name.equals("platform")) {
+            return Executors.newFixedThreadPool(threads == null
+                    ? Runtime.getRuntime().availableProcessors()
+                    : Integer.parseInt(threads));
+        }
+        throw new IllegalArgumentException("Unknown executor: " + name);
+    }
+
+    static Recommender createRecommender(Map<String, String> options, String moviesFile) {
+        if ("neighbors".equals(options.get("engine"))) {
+            // the similarity table is kept next to the catalog with --snapshot
+            return new NeighborRecommender(Integer.parseInt(options.getOrDefault("neighbors", "20")),
+                    Integer.parseInt(options.getOrDefault("top-k", String.valueOf(Integer.MAX_VALUE))),
+                    options.containsKey("snapshot") ? moviesFile : null);
+        }
+        if ("minhash".equals(options.get("engine"))) {
+            String mode = options.getOrDefault("minhash-mode", "item");
+            if (!mode.equals("item") && !mode.equals("user")) throw new IllegalArgumentException("Unknown minhash-mode: " + mode);
+            return new MinHashRecommender(mode.equals("user") ? MinHashRecommender.Mode.USER : MinHashRecommender.Mode.ITEM,
+                    Integer.parseInt(options.getOrDefault("bands", "32")),
+                    Integer.parseInt(options.getOrDefault("rows", "2")),
+                    Integer.parseInt(options.getOrDefault("neighbors", "20")),
+                    Integer.parseInt(options.getOrDefault("top-k", String.valueOf(Integer.MAX_VALUE))));
+        }
+        if (options.containsKey("top-k")) {
+            String scoring = options.getOrDefault("scoring", "overlap");
+            if (!scoring.equals("overlap") && !scoring.equals("weighted")) throw new IllegalArgumentException("Unknown scoring: " + scoring);
+            return new TopKRecommender(Integer.parseInt(options.get("top-k")), scoring.equals("weighted")
+                    ? TopKRecommender.Scoring.WEIGHTED
+                    : TopKRecommender.Scoring.OVERLAP);
+        }
+        String name = options.get("engine");
+        String threads = options.get("threads");
+        if (name == null || name.equals("genre")) {
+            // --result-cache=<file> keeps results for the next run
+            if (!options.containsKey("result-cache")) return new RecommendationSystem();
+            return new RecommendationSystem(Paths.get(options.get("result-cache")),
+                    Long.parseLong(options.getOrDefault("result-cache-mb", "256")) << 20);
+        }
+        if (name.equals("indexed")) return new IndexedRecommendationSystem();
+        if (name.equals("cached")) {
+            return new CachedRecommendationSystem(
+                    Long.parseLong(options.getOrDefault("cache-titles", String.valueOf(CachedRecommendationSystem.DEFAULT_MAX_TITLES))),
+                    threads == null ? 1 : Integer.parseInt(threads));
+        }
+        if (name.equals("parallel")) {
+            return threads == null
+                    ? new ParallelRecommendationSystem()
+                    : new ParallelRecommendationSystem(Integer.parseInt(threads));
         }
+        throw new IllegalArgumentException("Unknown engine: " + name);
     }
 }
@@ -0,0 +1,124 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.Consumer;
+
+// FileHandler that parses movies.txt and users.txt from a memory mapping.
+// Records are split on the mapped bytes, so the only Strings created are the
+// titles, IDs, names and genres that end up in Movie and User objects.
+public class MappedFileHandler extends FileHandler {
+
+    private final long window;
+
+    public MappedFileHandler(Validator validator) {
+        this(validator, null, MappedLineReader.DEFAULT_WINDOW);
+    }
+
+    public MappedFileHandler(Validator validator, StringDictionary dictionary) {
+        this(validator, dictionary, MappedLineReader.DEFAULT_WINDOW);
+    }
+
+    MappedFileHandler(Validator validator, long window) {
+        this(validator, null, window);
+    }
+
+    MappedFileHandler(Validator validator, StringDictionary dictionary, long window) {
+        super(validator, dictionary);
+        this.window = window;
+    }
+
+    @Override
+    public void readMovies(String filePath, List<String> errorList, MovieSink sink) throws IOException {
+        MovieIdRegistry ids = validator.newMovieIdRegistry();
+
+        if (!filePath.toLowerCase().endsWith(".txt")) {
+            errorList.add("ERROR: Unsupported format");
+            return;
+        }
+
+        try (MappedLineReader reader = new MappedLineReader(Paths.get(filePath), window)) {
+            while (true) {
+                if (!reader.nextLine()) break;
+                if (reader.isEmpty()) continue;
+                int titleStart = reader.start();
+                int titleEnd = reader.end();
+                int comma = reader.indexOf((byte) ',', titleStart, titleEnd);
+                String title = comma < 0 ? null : reader.trimmedString(titleStart, comma);
+                String id = comma < 0 ? null : reader.trimmedString(comma + 1, titleEnd);
+
+                if (!reader.nextLine()) break;
+                if (reader.isEmpty()) continue;
+                if (comma < 0) continue;
+
+                if (!acceptMovie(title, id, ids, errorList)) break;
+
+                List<String> genres = splitList(reader);
+                ids.register(id);
+                sink.accept(title, id, genres);
+            }
+        }
+    }
+
+    @Override
+    public void readUsers(String filePath, Set<String> validMovieIds, List<String> errorList, Consumer<User> sink) throws IOException {
+        Set<String> userIds = new HashSet<>();
+
+        if (!filePath.toLowerCase().endsWith(".txt")) {
+            errorList.add("ERROR: Unsupported format");
+            return;
+        }
+
+        try (MappedLineReader reader = new MappedLineReader(Paths.get(filePath), window)) {
+            while (true) {
+                if (!reader.nextLine()) break;
+                if (reader.isEmpty()) continue;
+                int infoStart = reader.start();
+                int infoEnd = reader.end();
+                int comma = reader.indexOf((byte) ',', infoStart, infoEnd);
+                String name = comma < 0 ? null : reader.trimmedString(infoStart, comma);
+                String id = comma < 0 ? null : reader.trimmedString(comma + 1, infoEnd);
+
+                if (!reader.nextLine()) break;
+                if (reader.isEmpty()) continue;
+                if (comma < 0) continue;
+
+                if (!acceptUser(name, id, userIds, errorList)) break;
+
+                List<String> likedIds = splitList(reader);
+                checkLikedIds(name, likedIds, validMovieIds, errorList);
+
+                userIds.add(id);
+                sink.accept(newUser(name, id, likedIds));
+            }
+        }
+    }
+
+    // Equivalent of line.split("\\s*,\\s*") on the current, trimmed line:
+    // whitespace around commas is dropped and trailing empty items removed.
+    static List<String> splitList(MappedLineReader reader) {
+        List<String> items = new ArrayList<>();
+        int end = reader.end();
+        int from = reader.start();
+        int kept = 0;
+        while (true) {
+            int comma = reader.indexOf((byte) ',', from, end);
+            int to = comma < 0 ? end : comma;
+            int itemStart = from;
+            int itemEnd = to;
+            while (itemStart < itemEnd && isSpace(reader.byteAt(itemStart))) itemStart++;
+            while (itemEnd > itemStart && isSpace(reader.byteAt(itemEnd - 1))) itemEnd--;
+            items.add(reader.string(itemStart, itemEnd));
+            if (itemEnd > itemStart) kept = items.size();
+            if (comma < 0) break;
+            from = comma + 1;
+        }
+        return Arrays.asList(items.subList(0, kept).toArray(new String[0]));
+    }
+
+    // The regex \s class: [ \t\n\x0B\f\r]
+    private static boolean isSpace(byte b) {
+        return b == ' ' || (b >= '\t' && b <= '\r');
+    }
+}
@@ -0,0 +1,146 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Reads a UTF-8 text file line by line straight from a memory mapping.
+// Lines end at \n, \r or \r\n like BufferedReader.readLine, and each line is
+// exposed as a trimmed byte range so callers only build the Strings they
+// keep. Files larger than one window are mapped window by window, each new
+// window starting at the line that did not fit in the previous one.
+public class MappedLineReader implements Closeable {
+
+    static final long DEFAULT_WINDOW = 1L << 30;
+
+    private final FileChannel channel;
+    private final long rangeEnd;
+    private final long window;
+
+    private MappedByteBuffer buffer;
+    private long base;
+    private int position;
+    private int limit;
+    private byte[] chars = new byte[256];
+
+    private int lineStart;
+    private int lineEnd;
+
+    public MappedLineReader(Path file) throws IOException {
+        this(file, DEFAULT_WINDOW);
+    }
+
+    public MappedLineReader(Path file, long window) throws IOException {
+        this(file, 0, -1, window);
+    }
+
+    // Reads only the lines starting in [from, to), for parsers that split a
+    // file into ranges; from must be a line start and to a line start or the
+    // file size. A negative to means the end of the file.
+    MappedLineReader(Path file, long from, long to, long window) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.rangeEnd = to < 0 ? channel.size() : to;
+        this.window = Math.min(window, Integer.MAX_VALUE);
+        map(from);
+    }
+
+    // Moves to the next line; false at end of file.
+    public boolean nextLine() throws IOException {
+        if (base + position >= rangeEnd) return false;
+
+        int end = findLineEnd(position);
+        if (end < 0) {
+            if (position == 0) throw new IOException("Line longer than " + window + " bytes at offset " + base);
+            map(base + position);
+            end = findLineEnd(0);
+            if (end < 0) throw new IOException("Line longer than " + window + " bytes at offset " + base);
+        }
+
+        int start = position;
+        position = end;
+        if (position < limit) {
+            if (buffer.get(position) == '\r' && position + 1 < limit && buffer.get(position + 1) == '\n') position++;
+            position++;
+        }
+
+        while (start < end && isTrimmed(buffer.get(start))) start++;
+        while (end > start && isTrimmed(buffer.get(end - 1))) end--;
+        lineStart = start;
+        lineEnd = end;
+        return true;
+    }
+
+    // Index of the terminator, or limit when the file ends first; -1 when
+    // the line, or the \n that may follow its \r, runs past this window.
+    private int findLineEnd(int from) {
+        boolean lastWindow = base + limit >= rangeEnd;
+        for (int i = from; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n') return i;
+            if (b == '\r') return i + 1 < limit || lastWindow ? i : -1;
+        }
+        return lastWindow ? limit : -1;
+    }
+
+    private void map(long offset) throws IOException {
+        base = offset;
+        limit = (int) Math.min(window, rangeEnd - offset);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, limit);
+        position = 0;
+    }
+
+    // File offset the next line starts at.
+    long nextLineOffset() {
+        return base + position;
+    }
+
+    public int start() {
+        return lineStart;
+    }
+
+    public int end() {
+        return lineEnd;
+    }
+
+    public boolean isEmpty() {
+        return lineStart == lineEnd;
+    }
+
+    public byte byteAt(int index) {
+        return buffer.get(index);
+    }
+
+    public int indexOf(byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == b) return i;
+        }
+        return -1;
+    }
+
+    // Same as String.trim on the decoded range.
+    public String trimmedString(int from, int to) {
+        while (from < to && isTrimmed(buffer.get(from))) from++;
+        while (to > from && isTrimmed(buffer.get(to - 1))) to--;
+        return string(from, to);
+    }
+
+    public String string(int from, int to) {
+        int length = to - from;
+        if (length > chars.length) chars = new byte[Math.max(length, chars.length * 2)];
+        buffer.get(from, chars, 0, length);
+        return new String(chars, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static boolean isTrimmed(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+}
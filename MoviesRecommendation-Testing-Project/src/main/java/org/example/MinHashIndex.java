@@ -0,0 +1,126 @@
+package org.example;
+
+import java.util.*;
+
+// MinHash signatures of integer sets with LSH banding. Each set gets
+// bands * rows min-hashes; two sets land in the same bucket of a band with
+// probability J^rows (J their Jaccard similarity), so looking up an item's
+// buckets finds its likely neighbors without comparing against every item.
+// Similarity is then estimated as the fraction of equal min-hashes.
+public class MinHashIndex {
+
+    private final int bands;
+    private final int rows;
+    private final int bucketLimit;
+    private final int[] signatures;
+    // per band, (bucket hash << 32 | item) sorted, so a bucket is a run
+    private final long[][] buckets;
+
+    // Items with empty sets get no buckets and no neighbors. At most
+    // bucketLimit members of a bucket are looked at per band.
+    public MinHashIndex(int[][] sets, int bands, int rows, int bucketLimit, long seed) {
+        if (bands < 1 || rows < 1) throw new IllegalArgumentException("bands and rows must be at least 1");
+        this.bands = bands;
+        this.rows = rows;
+        this.bucketLimit = bucketLimit;
+        int hashes = bands * rows;
+        signatures = new int[sets.length * hashes];
+
+        for (int item = 0; item < sets.length; item++) {
+            int base = item * hashes;
+            Arrays.fill(signatures, base, base + hashes, Integer.MAX_VALUE);
+            for (int token : sets[item]) {
+                // hashes derived from two 32-bit halves: h1 + i * h2
+                long h = mix(seed + (token + 1L) * 0x9E3779B97F4A7C15L);
+                int h1 = (int) h;
+                int h2 = (int) (h >>> 32) | 1;
+                for (int i = 0; i < hashes; i++) {
+                    int value = (h1 + i * h2) & Integer.MAX_VALUE;
+                    if (value < signatures[base + i]) signatures[base + i] = value;
+                }
+            }
+        }
+
+        buckets = new long[bands][];
+        for (int band = 0; band < bands; band++) {
+            long[] entries = new long[sets.length];
+            int n = 0;
+            for (int item = 0; item < sets.length; item++) {
+                if (sets[item].length == 0) continue;
+                entries[n++] = ((long) bandHash(item, band) << 32) | item;
+            }
+            entries = Arrays.copyOf(entries, n);
+            Arrays.sort(entries);
+            buckets[band] = entries;
+        }
+    }
+
+    public int itemCount() {
+        return signatures.length / (bands * rows);
+    }
+
+    // Fraction of equal min-hashes, an unbiased estimate of Jaccard similarity.
+    public float similarity(int a, int b) {
+        int hashes = bands * rows;
+        int equal = 0;
+        for (int i = 0; i < hashes; i++) {
+            if (signatures[a * hashes + i] == signatures[b * hashes + i]) equal++;
+        }
+        return (float) equal / hashes;
+    }
+
+    // Keeps, for every item, the best of the items sharing one of its
+    // buckets by estimated similarity.
+    public NeighborTable neighbors(int neighborsPerItem) {
+        if (neighborsPerItem < 1) throw new IllegalArgumentException("Neighbors must be at least 1: " + neighborsPerItem);
+        int count = itemCount();
+        int[][] rowNeighbors = new int[count][];
+        float[][] rowScores = new float[count][];
+        NeighborTable.TopN best = new NeighborTable.TopN(neighborsPerItem);
+        // seen[other] == item + 1 marks candidates already scored for item
+        int[] seen = new int[count];
+
+        for (int item = 0; item < count; item++) {
+            for (int band = 0; band < bands; band++) {
+                long[] entries = buckets[band];
+                long bucket = (long) bandHash(item, band) << 32;
+                int start = lowerBound(entries, bucket);
+                for (int i = start; i < entries.length && i - start < bucketLimit && (entries[i] & 0xFFFFFFFF00000000L) == bucket; i++) {
+                    int other = (int) entries[i];
+                    if (other == item || seen[other] == item + 1) continue;
+                    seen[other] = item + 1;
+                    float score = similarity(item, other);
+                    if (score > 0) best.offer(other, score);
+                }
+            }
+            rowNeighbors[item] = new int[best.size()];
+            rowScores[item] = new float[best.size()];
+            best.drain(rowNeighbors[item], rowScores[item]);
+        }
+        return NeighborTable.fromRows(neighborsPerItem, rowNeighbors, rowScores);
+    }
+
+    private int bandHash(int item, int band) {
+        int base = item * bands * rows + band * rows;
+        long h = band;
+        for (int r = 0; r < rows; r++) h = mix(h * 31 + signatures[base + r]);
+        return (int) h;
+    }
+
+    private static int lowerBound(long[] entries, long key) {
+        int low = 0;
+        int high = entries.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (entries[middle] < key) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,130 @@
+package org.example;
+
+import java.util.*;
+
+// Approximate collaborative recommendations using MinHash/LSH to find
+// neighbors instead of comparing every pair:
+//
+//   ITEM  each movie is the set of its genres and the users who like it;
+//         a user gets the LSH neighbors of their liked movies.
+//   USER  each user is the set of movies they like; a user gets the movies
+//         liked by their LSH neighbor users, weighted by similarity.
+//
+// exact() builds the same engine with exact Jaccard neighbors, as the
+// reference for recall.
+public class MinHashRecommender implements Recommender {
+
+    public enum Mode { ITEM, USER }
+
+    private static final int BUCKET_LIMIT = 256;
+    private static final long SEED = 0x5EEDL;
+
+    private final Mode mode;
+    private final int bands;
+    private final int rows;
+    private final int neighbors;
+    private final int k;
+    private final boolean exact;
+
+    public MinHashRecommender(Mode mode, int bands, int rows, int neighbors, int k) {
+        this(mode, bands, rows, neighbors, k, false);
+    }
+
+    private MinHashRecommender(Mode mode, int bands, int rows, int neighbors, int k, boolean exact) {
+        if (bands < 1 || rows < 1) throw new IllegalArgumentException("bands and rows must be at least 1");
+        if (neighbors < 1) throw new IllegalArgumentException("Neighbors must be at least 1: " + neighbors);
+        if (k < 1) throw new IllegalArgumentException("k must be at least 1: " + k);
+        this.mode = mode;
+        this.bands = bands;
+        this.rows = rows;
+        this.neighbors = neighbors;
+        this.k = k;
+        this.exact = exact;
+    }
+
+    public static MinHashRecommender exact(Mode mode, int neighbors, int k) {
+        return new MinHashRecommender(mode, 1, 1, neighbors, k, true);
+    }
+
+    @Override
+    public Map<User, List<String>> recommend(List<User> users, List<Movie> movies) {
+        GenreIndex index = new GenreIndex(movies);
+        int[][] userSets = userSets(index, users);
+        GenreIndex.Scratch scratch = index.newScratch();
+        Map<User, List<String>> output = new LinkedHashMap<>();
+
+        if (mode == Mode.ITEM) {
+            NeighborTable table = neighborTable(movieSets(index, userSets), index.genreCount() + users.size());
+            for (User user : users) {
+                output.put(user, index.recommendNeighbors(user.getLikedMovieIds(), table, k, scratch));
+            }
+            return output;
+        }
+
+        NeighborTable table = neighborTable(userSets, index.movieCount());
+        int[] candidates = new int[16];
+        float[] scores = new float[16];
+        for (int u = 0; u < users.size(); u++) {
+            int count = 0;
+            for (int i = table.from(u); i < table.to(u); i++) {
+                for (int movie : userSets[table.neighbor(i)]) {
+                    if (count == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, count * 2);
+                        scores = Arrays.copyOf(scores, count * 2);
+                    }
+                    candidates[count] = movie;
+                    scores[count++] = table.score(i);
+                }
+            }
+            output.put(users.get(u), index.recommendScored(users.get(u).getLikedMovieIds(), candidates, scores, count, k, scratch));
+        }
+        return output;
+    }
+
+    private NeighborTable neighborTable(int[][] sets, int tokenCount) {
+        if (exact) return NeighborTable.build(sets, tokenCount, neighbors, Runtime.getRuntime().availableProcessors());
+        return new MinHashIndex(sets, bands, rows, BUCKET_LIMIT, SEED).neighbors(neighbors);
+    }
+
+    // Distinct liked movie positions of each user.
+    static int[][] userSets(GenreIndex index, List<User> users) {
+        int[][] sets = new int[users.size()][];
+        for (int u = 0; u < sets.length; u++) {
+            List<String> liked = users.get(u).getLikedMovieIds();
+            int[] movies = new int[liked == null ? 0 : liked.size()];
+            int n = 0;
+            if (liked != null) {
+                for (String id : liked) {
+                    int movie = index.movieOf(id);
+                    if (movie >= 0) movies[n++] = movie;
+                }
+            }
+            Arrays.sort(movies, 0, n);
+            int distinct = 0;
+            for (int i = 0; i < n; i++) {
+                if (distinct == 0 || movies[distinct - 1] != movies[i]) movies[distinct++] = movies[i];
+            }
+            sets[u] = Arrays.copyOf(movies, distinct);
+        }
+        return sets;
+    }
+
+    // Genre codes followed by genreCount + position of each liking user.
+    static int[][] movieSets(GenreIndex index, int[][] userSets) {
+        int[] likers = new int[index.movieCount()];
+        for (int[] set : userSets) {
+            for (int movie : set) likers[movie]++;
+        }
+        int[][] sets = new int[index.movieCount()][];
+        int[] filled = new int[sets.length];
+        for (int m = 0; m < sets.length; m++) {
+            int[] genres = index.genresOf(m);
+            sets[m] = Arrays.copyOf(genres, genres.length + likers[m]);
+            filled[m] = genres.length;
+        }
+        for (int u = 0; u < userSets.length; u++) {
+            for (int movie : userSets[u]) sets[movie][filled[movie]++] = index.genreCount() + u;
+        }
+        return sets;
+    }
+}
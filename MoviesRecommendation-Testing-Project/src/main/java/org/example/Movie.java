@@ -13,6 +13,11 @@ public class Movie {
         this.genres = genres;
     }
 
+    // Compact form: genres are codes into a dictionary shared by the catalog.
+    public Movie(String title, String id, int[] genreCodes, StringDictionary dictionary) {
+        this(title, id, new CodeList(genreCodes, dictionary));
+    }
+
     public String getTitle() {
         return title;
     }
@@ -0,0 +1,8 @@
+package org.example;
+
+// Tracks the movie IDs accepted so far while a catalog is loaded, so the
+// suffix-uniqueness rule can be checked per movie without rescanning them.
+public interface MovieIdRegistry {
+    boolean isSuffixValid(String id);
+    void register(String id);
+}
@@ -0,0 +1,70 @@
+package org.example;
+
+import java.util.BitSet;
+
+// Registry keyed by the numeric ID suffix, so checking and registering an ID
+// costs the same however many movies were already accepted. Suffixes of up
+// to 7 digits get one bit each; longer ones go into a hashed set.
+public class MovieIdSuffixIndex implements MovieIdRegistry {
+
+    static final int BITMAP_MAX_DIGITS = 7;
+
+    private final int digits;
+    private final BitSet usedSuffixes;
+    private final LongHashSet hashedSuffixes;
+
+    public MovieIdSuffixIndex() {
+        this(3);
+    }
+
+    public MovieIdSuffixIndex(int digits) {
+        if (digits < 1 || digits > 18) throw new IllegalArgumentException("Suffix digits must be between 1 and 18: " + digits);
+        this.digits = digits;
+        if (digits <= BITMAP_MAX_DIGITS) {
+            usedSuffixes = new BitSet((int) Math.pow(10, digits));
+            hashedSuffixes = null;
+        } else {
+            usedSuffixes = null;
+            hashedSuffixes = new LongHashSet();
+        }
+    }
+
+    @Override
+    public boolean isSuffixValid(String id) {
+        long suffix = suffixOf(id, digits);
+        if (suffix < 0) return false;
+        return usedSuffixes != null ? !usedSuffixes.get((int) suffix) : !hashedSuffixes.contains(suffix);
+    }
+
+    @Override
+    public void register(String id) {
+        long suffix = suffixOf(id, digits);
+        if (suffix < 0) return;
+        if (usedSuffixes != null) usedSuffixes.set((int) suffix);
+        else hashedSuffixes.add(suffix);
+    }
+
+    // Returns the numeric suffix of an ID shaped like [A-Za-z]+\d{3}, or -1.
+    static int suffixOf(String id) {
+        return (int) suffixOf(id, 3);
+    }
+
+    // Same for [A-Za-z]+\d{digits}.
+    static long suffixOf(String id, int digits) {
+        int length = id.length();
+        if (length <= digits) return -1;
+
+        for (int i = 0; i < length - digits; i++) {
+            char c = id.charAt(i);
+            if (!((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z'))) return -1;
+        }
+
+        long suffix = 0;
+        for (int i = length - digits; i < length; i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            suffix = suffix * 10 + (c - '0');
+        }
+        return suffix;
+    }
+}
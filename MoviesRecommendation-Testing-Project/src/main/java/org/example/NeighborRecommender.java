@@ -0,0 +1,64 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+// Recommends from a precomputed NeighborTable: a user's candidates are the
+// neighbors of the movies they like, ranked by summed similarity, so each
+// user costs a merge of a few short lists instead of walking whole genres.
+// When given the movies file, the table is loaded from / saved next to it.
+public class NeighborRecommender implements Recommender {
+
+    private final int neighborsPerMovie;
+    private final int k;
+    private final String moviesFile;
+
+    public NeighborRecommender(int neighborsPerMovie) {
+        this(neighborsPerMovie, Integer.MAX_VALUE, null);
+    }
+
+    public NeighborRecommender(int neighborsPerMovie, int k, String moviesFile) {
+        if (neighborsPerMovie < 1) throw new IllegalArgumentException("Neighbors must be at least 1: " + neighborsPerMovie);
+        if (k < 1) throw new IllegalArgumentException("k must be at least 1: " + k);
+        this.neighborsPerMovie = neighborsPerMovie;
+        this.k = k;
+        this.moviesFile = moviesFile;
+    }
+
+    @Override
+    public Map<User, List<String>> recommend(List<User> users, List<Movie> movies) {
+        GenreIndex index = new GenreIndex(movies);
+        NeighborTable table = table(index);
+        GenreIndex.Scratch scratch = index.newScratch();
+
+        Map<User, List<String>> output = new LinkedHashMap<>();
+        for (User user : users) {
+            output.put(user, index.recommendNeighbors(user.getLikedMovieIds(), table, k, scratch));
+        }
+        return output;
+    }
+
+    NeighborTable table(GenreIndex index) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (moviesFile == null) return NeighborTable.build(index, neighborsPerMovie, threads);
+
+        Path source = Paths.get(moviesFile);
+        Path stored = NeighborTable.tablePath(moviesFile);
+        try {
+            NeighborTable table = NeighborTable.load(stored, source, neighborsPerMovie, index.movieCount());
+            if (table != null) return table;
+        } catch (IOException e) {
+            System.err.println("Neighbor table error: " + e.getMessage());
+        }
+
+        NeighborTable table = NeighborTable.build(index, neighborsPerMovie, threads);
+        try {
+            table.write(stored, source);
+        } catch (IOException e) {
+            System.err.println("Neighbor table error: " + e.getMessage());
+        }
+        return table;
+    }
+}
@@ -0,0 +1,476 @@
+package org.example;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Item-item similarity for a catalog: for every movie, its most similar
+// other movies by Jaccard similarity of their genre sets, best first. Rows
+// are stored CSR style in primitive arrays, indexed by GenreIndex movie
+// position. Depends only on the catalog, so it can be built once and kept
+// next to movies.txt:
+//
+//   magic, version                          int, int
+//   source size, mtime, CRC32C              long, long, long
+//   neighbors per movie, movie count        int, int
+//   row offsets                             int[count + 1]
+//   neighbor positions, similarities        int[], float[]
+public class NeighborTable {
+
+    static final int MAGIC = 0x4D524E31;
+    static final int VERSION = 1;
+    private static final int CLASSES_PER_TASK = 256;
+
+    private final int neighborsPerMovie;
+    private final int[] offsets;
+    private final int[] neighbors;
+    private final float[] scores;
+
+    private NeighborTable(int neighborsPerMovie, int[] offsets, int[] neighbors, float[] scores) {
+        this.neighborsPerMovie = neighborsPerMovie;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.scores = scores;
+    }
+
+    public static Path tablePath(String moviesFile) {
+        return Paths.get(moviesFile + ".nbr");
+    }
+
+    // Keeps the top neighborsPerMovie movies sharing a genre with each movie.
+    // Rows are computed concurrently on the given number of threads.
+    public static NeighborTable build(GenreIndex index, int neighborsPerMovie, int parallelism) {
+        int[][] sets = new int[index.movieCount()][];
+        for (int m = 0; m < sets.length; m++) sets[m] = index.genresOf(m);
+        return build(sets, index.genreCount(), neighborsPerMovie, parallelism);
+    }
+
+    // Exact Jaccard neighbors of arbitrary sets of distinct int tokens in
+    // [0, tokenCount), e.g. users' liked movie positions.
+    //
+    // Items with equal sets are grouped into one class first: similarity
+    // only depends on the sets, so rows are computed once per class against
+    // the other classes, then handed to every member. A catalog with a few
+    // dozen genres has a few thousand classes at most, however many movies
+    // it has, so this is no longer quadratic in the movie count.
+    public static NeighborTable build(int[][] sets, int tokenCount, int neighborsPerMovie, int parallelism) {
+        if (neighborsPerMovie < 1) throw new IllegalArgumentException("Neighbors must be at least 1: " + neighborsPerMovie);
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+
+        SetClasses classes = new SetClasses(sets, tokenCount);
+        int classCount = classes.sets.length;
+        int[][] rowNeighbors = new int[classCount][];
+        float[][] rowScores = new float[classCount][];
+        // one more than asked, as a movie's own class row may hold the movie
+        int limit = neighborsPerMovie + 1;
+        // each thread allocates its row buffers once, not once per task
+        ThreadLocal<RowBuffers> buffers = ThreadLocal.withInitial(() -> new RowBuffers(classCount, limit));
+        Rows all = new Rows(classes, buffers, limit, rowNeighbors, rowScores, 0, classCount);
+        try {
+            if (parallelism == 1 || classCount <= CLASSES_PER_TASK) {
+                all.compute();
+            } else {
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                try {
+                    pool.invoke(all);
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        } finally {
+            // the pool's threads end with it; the caller's may have run tasks too
+            buffers.remove();
+        }
+
+        return expand(neighborsPerMovie, classes.classOf, rowNeighbors, rowScores);
+    }
+
+    // Gives every item its class row without the item itself, cut to
+    // neighborsPerMovie entries.
+    private static NeighborTable expand(int neighborsPerMovie, int[] classOf, int[][] rowNeighbors, float[][] rowScores) {
+        int count = classOf.length;
+        int[] offsets = new int[count + 1];
+        for (int m = 0; m < count; m++) {
+            int[] row = rowNeighbors[classOf[m]];
+            int size = row.length;
+            for (int neighbor : row) {
+                if (neighbor == m) size--;
+            }
+            offsets[m + 1] = offsets[m] + Math.min(neighborsPerMovie, size);
+        }
+
+        int[] neighbors = new int[offsets[count]];
+        float[] scores = new float[offsets[count]];
+        for (int m = 0; m < count; m++) {
+            int[] row = rowNeighbors[classOf[m]];
+            float[] rowScore = rowScores[classOf[m]];
+            int entry = offsets[m];
+            for (int i = 0; i < row.length && entry < offsets[m + 1]; i++) {
+                if (row[i] == m) continue;
+                neighbors[entry] = row[i];
+                scores[entry++] = rowScore[i];
+            }
+        }
+        return new NeighborTable(neighborsPerMovie, offsets, neighbors, scores);
+    }
+
+    public int movieCount() {
+        return offsets.length - 1;
+    }
+
+    public int neighborsPerMovie() {
+        return neighborsPerMovie;
+    }
+
+    // Row of a movie is the entries from(movie) until to(movie).
+    public int from(int movie) {
+        return offsets[movie];
+    }
+
+    public int to(int movie) {
+        return offsets[movie + 1];
+    }
+
+    public int neighbor(int entry) {
+        return neighbors[entry];
+    }
+
+    public float score(int entry) {
+        return scores[entry];
+    }
+
+    // Returns the stored table, or null when it is missing, stale, built
+    // with another neighbor count or unreadable.
+    public static NeighborTable load(Path table, Path source, int neighborsPerMovie, int movieCount) throws IOException {
+        if (!Files.isRegularFile(table) || !Files.isRegularFile(source)) return null;
+
+        try (FileChannel channel = FileChannel.open(table, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) return null;
+
+            BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+            long size = buffer.getLong();
+            long modified = buffer.getLong();
+            long checksum = buffer.getLong();
+            if (size != attributes.size() || modified != attributes.lastModifiedTime().toMillis()) return null;
+            if (buffer.getInt() != neighborsPerMovie || buffer.getInt() != movieCount) return null;
+            if (checksum != CatalogSnapshot.checksum(source)) return null;
+
+            int[] offsets = new int[movieCount + 1];
+            buffer.asIntBuffer().get(offsets);
+            buffer.position(buffer.position() + offsets.length * Integer.BYTES);
+            int[] neighbors = new int[offsets[movieCount]];
+            buffer.asIntBuffer().get(neighbors);
+            buffer.position(buffer.position() + neighbors.length * Integer.BYTES);
+            float[] scores = new float[neighbors.length];
+            buffer.asFloatBuffer().get(scores);
+            return new NeighborTable(neighborsPerMovie, offsets, neighbors, scores);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+
+    // Writes to a temp file first so readers never see a half written table.
+    public void write(Path table, Path source) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        Path temp = Files.createTempFile(table.toAbsolutePath().getParent(), table.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(attributes.size());
+                out.writeLong(attributes.lastModifiedTime().toMillis());
+                out.writeLong(CatalogSnapshot.checksum(source));
+                out.writeInt(neighborsPerMovie);
+                out.writeInt(movieCount());
+                for (int offset : offsets) out.writeInt(offset);
+                for (int neighbor : neighbors) out.writeInt(neighbor);
+                for (float score : scores) out.writeFloat(score);
+            }
+            try {
+                Files.move(temp, table, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, table, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Builds a table from per-movie rows already sorted best first.
+    static NeighborTable fromRows(int neighborsPerMovie, int[][] rowNeighbors, float[][] rowScores) {
+        int count = rowNeighbors.length;
+        int[] offsets = new int[count + 1];
+        for (int m = 0; m < count; m++) offsets[m + 1] = offsets[m] + rowNeighbors[m].length;
+        int[] neighbors = new int[offsets[count]];
+        float[] scores = new float[offsets[count]];
+        for (int m = 0; m < count; m++) {
+            System.arraycopy(rowNeighbors[m], 0, neighbors, offsets[m], rowNeighbors[m].length);
+            System.arraycopy(rowScores[m], 0, scores, offsets[m], rowScores[m].length);
+        }
+        return new NeighborTable(neighborsPerMovie, offsets, neighbors, scores);
+    }
+
+    // Appends rows in movie order straight into the CSR arrays, for callers
+    // that produce rows one at a time; no per-row arrays are made.
+    static final class Builder {
+        private final int neighborsPerMovie;
+        private final int[] offsets;
+        private int rows;
+        private int[] neighbors;
+        private float[] scores;
+
+        Builder(int neighborsPerMovie, int movieCount) {
+            this.neighborsPerMovie = neighborsPerMovie;
+            this.offsets = new int[movieCount + 1];
+            this.neighbors = new int[Math.max(16, movieCount)];
+            this.scores = new float[neighbors.length];
+        }
+
+        // Drains best into the next movie's row.
+        void addRow(TopN best) {
+            int from = offsets[rows];
+            int needed = from + best.size();
+            if (needed > neighbors.length) {
+                int capacity = (int) Math.min(Math.max(needed, neighbors.length + (long) (neighbors.length >> 1)),
+                        Integer.MAX_VALUE - 8);
+                neighbors = Arrays.copyOf(neighbors, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+            }
+            best.drain(neighbors, scores, from);
+            offsets[++rows] = needed;
+        }
+
+        NeighborTable build() {
+            if (rows != offsets.length - 1) throw new IllegalStateException(rows + " of " + (offsets.length - 1) + " rows added");
+            int size = offsets[rows];
+            return new NeighborTable(neighborsPerMovie, offsets,
+                    size == neighbors.length ? neighbors : Arrays.copyOf(neighbors, size),
+                    size == scores.length ? scores : Arrays.copyOf(scores, size));
+        }
+    }
+
+    // Items grouped by equal sets. Members of a class are listed in item
+    // order and postings list, per token, the classes whose set has it.
+    private static final class SetClasses {
+        final int[] classOf;
+        final int[][] sets;
+        final int[] memberOffsets;
+        final int[] members;
+        final int[][] postings;
+
+        SetClasses(int[][] items, int tokenCount) {
+            classOf = new int[items.length];
+            Map<SetKey, Integer> codes = new HashMap<>();
+            List<int[]> distinct = new ArrayList<>();
+            for (int item = 0; item < items.length; item++) {
+                int[] sorted = items[item].clone();
+                Arrays.sort(sorted);
+                Integer code = codes.putIfAbsent(new SetKey(sorted), distinct.size());
+                if (code == null) {
+                    code = distinct.size();
+                    distinct.add(sorted);
+                }
+                classOf[item] = code;
+            }
+            sets = distinct.toArray(new int[0][]);
+
+            memberOffsets = new int[sets.length + 1];
+            for (int code : classOf) memberOffsets[code + 1]++;
+            for (int c = 0; c < sets.length; c++) memberOffsets[c + 1] += memberOffsets[c];
+            members = new int[items.length];
+            int[] filled = Arrays.copyOf(memberOffsets, sets.length);
+            for (int item = 0; item < items.length; item++) members[filled[classOf[item]]++] = item;
+
+            int[] sizes = new int[tokenCount];
+            for (int[] set : sets) {
+                for (int token : set) sizes[token]++;
+            }
+            postings = new int[tokenCount][];
+            for (int t = 0; t < tokenCount; t++) postings[t] = new int[sizes[t]];
+            int[] posted = new int[tokenCount];
+            for (int c = 0; c < sets.length; c++) {
+                for (int token : sets[c]) postings[token][posted[token]++] = c;
+            }
+        }
+    }
+
+    private record SetKey(int[] tokens) {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof SetKey key && Arrays.equals(tokens, key.tokens);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(tokens);
+        }
+    }
+
+    // Shared token counts for one row at a time, cleared via touched, so
+    // they are all zero again when the next row starts.
+    private static class RowBuffers {
+        final int[] shared;
+        final int[] touched;
+        final TopN best;
+
+        RowBuffers(int count, int limit) {
+            shared = new int[count];
+            touched = new int[count];
+            best = new TopN(limit);
+        }
+    }
+
+    // Rows of classes from until to: the best limit members of classes
+    // sharing a token, the class itself included.
+    // never serialized
+    @SuppressWarnings("serial")
+    private static class Rows extends RecursiveAction {
+        private final SetClasses classes;
+        private final ThreadLocal<RowBuffers> buffers;
+        private final int limit;
+        private final int[][] rowNeighbors;
+        private final float[][] rowScores;
+        private final int from;
+        private final int to;
+
+        Rows(SetClasses classes, ThreadLocal<RowBuffers> buffers, int limit, int[][] rowNeighbors, float[][] rowScores,
+             int from, int to) {
+            this.classes = classes;
+            this.buffers = buffers;
+            this.limit = limit;
+            this.rowNeighbors = rowNeighbors;
+            this.rowScores = rowScores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CLASSES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Rows(classes, buffers, limit, rowNeighbors, rowScores, from, middle),
+                        new Rows(classes, buffers, limit, rowNeighbors, rowScores, middle, to));
+                return;
+            }
+
+            RowBuffers row = buffers.get();
+            int[] shared = row.shared;
+            int[] touched = row.touched;
+            TopN best = row.best;
+            int[] memberOffsets = classes.memberOffsets;
+            for (int c = from; c < to; c++) {
+                int touchedCount = 0;
+                int[] tokens = classes.sets[c];
+                for (int token : tokens) {
+                    for (int other : classes.postings[token]) {
+                        if (shared[other]++ == 0) touched[touchedCount++] = other;
+                    }
+                }
+
+                for (int i = 0; i < touchedCount; i++) {
+                    int other = touched[i];
+                    int both = shared[other];
+                    shared[other] = 0;
+                    float score = (float) both / (tokens.length + classes.sets[other].length - both);
+                    // members share the score, so later ones only lose ties
+                    int end = Math.min(memberOffsets[other + 1], memberOffsets[other] + limit);
+                    for (int j = memberOffsets[other]; j < end; j++) best.offer(classes.members[j], score);
+                }
+                rowNeighbors[c] = new int[best.size()];
+                rowScores[c] = new float[best.size()];
+                best.drain(rowNeighbors[c], rowScores[c]);
+            }
+        }
+    }
+
+    // Bounded min-heap keeping the best neighbors offered for one row:
+    // higher similarity first, then earlier catalog position.
+    static class TopN {
+        private final int[] heap;
+        private final float[] heapScores;
+        private int size;
+
+        TopN(int limit) {
+            heap = new int[limit];
+            heapScores = new float[limit];
+        }
+
+        void offer(int movie, float score) {
+            if (size < heap.length) {
+                heap[size] = movie;
+                heapScores[size] = score;
+                siftUp(size++);
+            } else if (better(score, movie, heapScores[0], heap[0])) {
+                heap[0] = movie;
+                heapScores[0] = score;
+                siftDown(size);
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        // Moves the kept entries into the arrays, best first, and empties
+        // the heap for the next row.
+        void drain(int[] movies, float[] scores) {
+            drain(movies, scores, 0);
+        }
+
+        // The same into the arrays from position offset on.
+        void drain(int[] movies, float[] scores, int offset) {
+            for (int i = size - 1; i >= 0; i--) {
+                movies[offset + i] = heap[0];
+                scores[offset + i] = heapScores[0];
+                heap[0] = heap[i];
+                heapScores[0] = heapScores[i];
+                siftDown(i);
+            }
+            size = 0;
+        }
+
+        private static boolean better(float score, int movie, float otherScore, int otherMovie) {
+            if (score != otherScore) return score > otherScore;
+            return movie < otherMovie;
+        }
+
+        private void siftUp(int index) {
+            int movie = heap[index];
+            float score = heapScores[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!better(heapScores[parent], heap[parent], score, movie)) break;
+                heap[index] = heap[parent];
+                heapScores[index] = heapScores[parent];
+                index = parent;
+            }
+            heap[index] = movie;
+            heapScores[index] = score;
+        }
+
+        private void siftDown(int size) {
+            if (size == 0) return;
+            int movie = heap[0];
+            float score = heapScores[0];
+            int index = 0;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) break;
+                if (child + 1 < size && better(heapScores[child], heap[child], heapScores[child + 1], heap[child + 1])) child++;
+                if (!better(score, movie, heapScores[child], heap[child])) break;
+                heap[index] = heap[child];
+                heapScores[index] = heapScores[child];
+                index = child;
+            }
+            heap[index] = movie;
+            heapScores[index] = score;
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package org.example;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+// The recommendation index of a catalog kept outside the Java heap in one
+// MemorySegment, either allocated in an Arena or mapped from a file written
+// by write(). The heap only holds this small wrapper, so multi-GB catalogs
+// add nothing to GC work. Little-endian, sections 8-byte aligned:
+//
+//   header                     long magic, version, counts, source stamp and section offsets
+//   movie title codes          int[movies]
+//   movie ID codes             int[movies]
+//   genre CSR per movie        int[movies + 1] offsets, int[] lowercased genre codes
+//   postings CSR per genre     int[genres + 1] offsets, int[] movie positions
+//   last movie per ID code     int[idCodes]
+//   ID table                   int[tableSize] of movie + 1, open addressing
+//   movie ID bytes             long[movies + 1] offsets, UTF-8 bytes
+//   distinct titles            long[titles + 1] offsets, UTF-8 bytes
+//   validator key              UTF-8 bytes, only in files written from a movies file
+//
+// Byte sections have long offsets so they may pass 2 GB; genre entries
+// are counted in ints, as they are in the Catalog the index is built from.
+public class OffHeapCatalog {
+
+    static final long MAGIC = 0x4D524F4843415431L;
+    static final long VERSION = 3;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    // bytes per write call, well below the 2 GB a ByteBuffer can span
+    private static final long WRITE_CHUNK = 1 << 26;
+
+    // header slots
+    private static final int MOVIES = 2, GENRES = 3, TITLES = 4, ID_CODES = 5, TABLE_SIZE = 6;
+    private static final int MOVIE_TITLE = 7, MOVIE_ID_CODE = 8, GENRE_OFFSETS = 9, GENRES_SECTION = 10,
+            POSTING_OFFSETS = 11, POSTINGS = 12, ID_CODE_MOVIE = 13, ID_TABLE = 14,
+            ID_OFFSETS = 15, ID_BYTES = 16, TITLE_OFFSETS = 17, TITLE_BYTES = 18;
+    // size and modification time of the movies file a written catalog came
+    // from, and where the key of the validator that accepted it is stored
+    private static final int SOURCE_SIZE = 19, SOURCE_MODIFIED = 20, VALIDATOR_KEY = 21, VALIDATOR_KEY_LENGTH = 22;
+    private static final int HEADER_LONGS = 23;
+
+    private final MemorySegment segment;
+    private final int movies;
+    private final int genres;
+    private final int idCodes;
+    private final int tableSize;
+    private final long[] sections = new long[HEADER_LONGS];
+
+    private OffHeapCatalog(MemorySegment segment) {
+        if (segment.byteSize() < HEADER_LONGS * 8L || segment.get(LONG, 0) != MAGIC || segment.get(LONG, 8) != VERSION) {
+            throw new IllegalArgumentException("Not an off-heap catalog");
+        }
+        this.segment = segment;
+        for (int i = 0; i < HEADER_LONGS; i++) sections[i] = segment.get(LONG, i * 8L);
+        movies = (int) sections[MOVIES];
+        genres = (int) sections[GENRES];
+        idCodes = (int) sections[ID_CODES];
+        tableSize = (int) sections[TABLE_SIZE];
+    }
+
+    // Copies the catalog into a segment owned by the arena, straight from
+    // its arrays: besides the segment only a few ints per movie are
+    // allocated, and nothing is decoded but the genre names.
+    public static OffHeapCatalog build(Catalog catalog, Arena arena) {
+        int movies = catalog.size();
+        int[] movieTitles = new int[movies];
+        int[] firstOfTitle = catalog.titleCodes(movieTitles);
+        int[] movieIds = new int[movies];
+        int idCodes = catalog.idCodes(movieIds).length;
+        int titles = firstOfTitle.length;
+        int tableSize = Integer.highestOneBit(Math.max(4, movies * 2 - 1)) << 1;
+
+        // genres match case-insensitively, as in GenreIndex
+        int[] lowered = new int[catalog.genreCount()];
+        Map<String, Integer> genreCodes = new HashMap<>();
+        for (int g = 0; g < lowered.length; g++) {
+            lowered[g] = genreCodes.computeIfAbsent(catalog.genreName(g).toLowerCase(), name -> genreCodes.size());
+        }
+        int genres = genreCodes.size();
+        long genreEntries = 0;
+        for (int m = 0; m < movies; m++) {
+            for (int entry = catalog.genresFrom(m); entry < catalog.genresTo(m); entry++) {
+                if (firstOfGenre(catalog, lowered, m, entry)) genreEntries++;
+            }
+        }
+        long idBytes = 0;
+        for (int m = 0; m < movies; m++) idBytes += catalog.idLength(m);
+        long titleByteCount = 0;
+        for (int t = 0; t < titles; t++) titleByteCount += catalog.titleLength(firstOfTitle[t]);
+
+        long[] sections = new long[HEADER_LONGS];
+        long position = HEADER_LONGS * 8L;
+        long[] sizes = new long[HEADER_LONGS];
+        sizes[MOVIE_TITLE] = 4L * movies;
+        sizes[MOVIE_ID_CODE] = 4L * movies;
+        sizes[GENRE_OFFSETS] = 4L * (movies + 1);
+        sizes[GENRES_SECTION] = 4L * genreEntries;
+        sizes[POSTING_OFFSETS] = 4L * (genres + 1);
+        sizes[POSTINGS] = 4L * genreEntries;
+        sizes[ID_CODE_MOVIE] = 4L * idCodes;
+        sizes[ID_TABLE] = 4L * tableSize;
+        sizes[ID_OFFSETS] = 8L * (movies + 1);
+        sizes[ID_BYTES] = idBytes;
+        sizes[TITLE_OFFSETS] = 8L * (titles + 1);
+        sizes[TITLE_BYTES] = titleByteCount;
+        for (int s = MOVIE_TITLE; s <= TITLE_BYTES; s++) {
+            sections[s] = position;
+            position = (position + sizes[s] + 7) & ~7L;
+        }
+
+        MemorySegment segment = arena.allocate(position, 8);
+        sections[0] = MAGIC;
+        sections[1] = VERSION;
+        sections[MOVIES] = movies;
+        sections[GENRES] = genres;
+        sections[TITLES] = titles;
+        sections[ID_CODES] = idCodes;
+        sections[TABLE_SIZE] = tableSize;
+        sections[SOURCE_SIZE] = -1;
+        sections[SOURCE_MODIFIED] = -1;
+        sections[VALIDATOR_KEY] = -1;
+        sections[VALIDATOR_KEY_LENGTH] = 0;
+        for (int i = 0; i < HEADER_LONGS; i++) segment.set(LONG, i * 8L, sections[i]);
+
+        int genreOffset = 0;
+        long idOffset = 0;
+        int[] postingSizes = new int[genres];
+        for (int m = 0; m < movies; m++) {
+            segment.set(INT, sections[MOVIE_TITLE] + 4L * m, movieTitles[m]);
+            segment.set(INT, sections[MOVIE_ID_CODE] + 4L * m, movieIds[m]);
+            segment.set(INT, sections[GENRE_OFFSETS] + 4L * m, genreOffset);
+            for (int entry = catalog.genresFrom(m); entry < catalog.genresTo(m); entry++) {
+                if (!firstOfGenre(catalog, lowered, m, entry)) continue;
+                int genre = lowered[catalog.genre(entry)];
+                segment.set(INT, sections[GENRES_SECTION] + 4L * genreOffset++, genre);
+                postingSizes[genre]++;
+            }
+            segment.set(INT, sections[ID_CODE_MOVIE] + 4L * movieIds[m], m);
+            segment.set(LONG, sections[ID_OFFSETS] + 8L * m, idOffset);
+            catalog.copyId(m, segment, sections[ID_BYTES] + idOffset);
+            idOffset += catalog.idLength(m);
+        }
+        segment.set(INT, sections[GENRE_OFFSETS] + 4L * movies, genreOffset);
+        segment.set(LONG, sections[ID_OFFSETS] + 8L * movies, idOffset);
+
+        // postings in catalog order, filled from the per-movie genres
+        int[] filled = new int[genres];
+        int postingOffset = 0;
+        for (int g = 0; g < genres; g++) {
+            segment.set(INT, sections[POSTING_OFFSETS] + 4L * g, postingOffset);
+            filled[g] = postingOffset;
+            postingOffset += postingSizes[g];
+        }
+        segment.set(INT, sections[POSTING_OFFSETS] + 4L * genres, postingOffset);
+        for (int m = 0; m < movies; m++) {
+            int genresEnd = segment.get(INT, sections[GENRE_OFFSETS] + 4L * (m + 1));
+            for (int g = segment.get(INT, sections[GENRE_OFFSETS] + 4L * m); g < genresEnd; g++) {
+                int genre = segment.get(INT, sections[GENRES_SECTION] + 4L * g);
+                segment.set(INT, sections[POSTINGS] + 4L * filled[genre]++, m);
+            }
+        }
+
+        long titleOffset = 0;
+        for (int t = 0; t < titles; t++) {
+            segment.set(LONG, sections[TITLE_OFFSETS] + 8L * t, titleOffset);
+            catalog.copyTitle(firstOfTitle[t], segment, sections[TITLE_BYTES] + titleOffset);
+            titleOffset += catalog.titleLength(firstOfTitle[t]);
+        }
+        segment.set(LONG, sections[TITLE_OFFSETS] + 8L * titles, titleOffset);
+
+        OffHeapCatalog offHeap = new OffHeapCatalog(segment);
+        for (int m = 0; m < movies; m++) {
+            // later duplicates overwrite the slot, as in RecommendationSystem
+            int slot = offHeap.findSlot(offHeap.idSlice(m));
+            segment.set(INT, sections[ID_TABLE] + 4L * slot, m + 1);
+        }
+        return offHeap;
+    }
+
+    // False for a genre the movie already listed under another case.
+    private static boolean firstOfGenre(Catalog catalog, int[] lowered, int movie, int entry) {
+        int genre = lowered[catalog.genre(entry)];
+        for (int earlier = catalog.genresFrom(movie); earlier < entry; earlier++) {
+            if (lowered[catalog.genre(earlier)] == genre) return false;
+        }
+        return true;
+    }
+
+    // Maps a file written by write(); the mapping lives as long as the arena.
+    public static OffHeapCatalog map(Path file, Arena arena) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new OffHeapCatalog(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+        }
+    }
+
+    // Maps the file if it was written from the movies file as it is now and
+    // accepted by the same validator (see CatalogSnapshot.validatorKey);
+    // null when it is missing, stale or not a catalog of this version.
+    public static OffHeapCatalog mapIfCurrent(Path file, Path source, String validatorKey, Arena arena) throws IOException {
+        if (!Files.isRegularFile(file)) return null;
+        OffHeapCatalog catalog;
+        try {
+            catalog = map(file, arena);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        if (catalog.sections[SOURCE_SIZE] != attributes.size()
+                || catalog.sections[SOURCE_MODIFIED] != attributes.lastModifiedTime().toMillis()
+                || !validatorKey.equals(catalog.validatorKey())) {
+            return null;
+        }
+        return catalog;
+    }
+
+    public void write(Path file) throws IOException {
+        write(file, -1, -1, null);
+    }
+
+    // Writes the catalog stamped with its movies file and the key of the
+    // validator that accepted it, for mapIfCurrent.
+    public void write(Path file, Path source, String validatorKey) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        write(file, attributes.size(), attributes.lastModifiedTime().toMillis(), validatorKey);
+    }
+
+    // null unless the catalog was written from a movies file
+    private String validatorKey() {
+        if (sections[VALIDATOR_KEY] < 0) return null;
+        return new String(segment.asSlice(sections[VALIDATOR_KEY], sections[VALIDATOR_KEY_LENGTH])
+                .toArray(ValueLayout.JAVA_BYTE), StandardCharsets.UTF_8);
+    }
+
+    private void write(Path file, long sourceSize, long sourceModified, String validatorKey) throws IOException {
+        // the key goes after the sections, in place of the key of a mapped file
+        long end = sections[VALIDATOR_KEY] < 0 ? segment.byteSize() : sections[VALIDATOR_KEY];
+        byte[] key = validatorKey == null ? new byte[0] : validatorKey.getBytes(StandardCharsets.UTF_8);
+        Path target = file.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                // the header is written from a copy, as the segment may be mapped read-only
+                ByteBuffer header = ByteBuffer.allocate(HEADER_LONGS * 8).order(ByteOrder.LITTLE_ENDIAN);
+                for (int i = 0; i < HEADER_LONGS; i++) header.putLong(sections[i]);
+                header.putLong(SOURCE_SIZE * 8, sourceSize).putLong(SOURCE_MODIFIED * 8, sourceModified)
+                        .putLong(VALIDATOR_KEY * 8, validatorKey == null ? -1 : end)
+                        .putLong(VALIDATOR_KEY_LENGTH * 8, key.length).flip();
+                while (header.hasRemaining()) channel.write(header);
+                for (long offset = HEADER_LONGS * 8L; offset < end; offset += WRITE_CHUNK) {
+                    ByteBuffer chunk = segment.asSlice(offset, Math.min(WRITE_CHUNK, end - offset)).asByteBuffer();
+                    while (chunk.hasRemaining()) channel.write(chunk);
+                }
+                ByteBuffer keyBytes = ByteBuffer.wrap(key);
+                while (keyBytes.hasRemaining()) channel.write(keyBytes);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public int movieCount() {
+        return movies;
+    }
+
+    public long byteSize() {
+        return segment.byteSize();
+    }
+
+    // Position of the movie with this ID (the last one for duplicates), or -1.
+    public int movieOf(String id) {
+        int entry = segment.get(INT, sections[ID_TABLE] + 4L * findSlot(MemorySegment.ofArray(id.getBytes(StandardCharsets.UTF_8))));
+        return entry - 1;
+    }
+
+    // The catalog's distinct movie IDs, for validating users' likes; each
+    // is decoded from the segment when iterated.
+    public Set<String> movieIds() {
+        return new AbstractSet<>() {
+            @Override
+            public boolean contains(Object id) {
+                return id instanceof String value && movieOf(value) >= 0;
+            }
+
+            @Override
+            public int size() {
+                return idCodes;
+            }
+
+            @Override
+            public Iterator<String> iterator() {
+                return new Iterator<>() {
+                    private int code;
+
+                    @Override
+                    public boolean hasNext() {
+                        return code < idCodes;
+                    }
+
+                    @Override
+                    public String next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        byte[] bytes = idSlice(movieOfIdCode(code++)).toArray(ValueLayout.JAVA_BYTE);
+                        return new String(bytes, StandardCharsets.UTF_8);
+                    }
+                };
+            }
+        };
+    }
+
+    int idCode(int movie) {
+        return segment.get(INT, sections[MOVIE_ID_CODE] + 4L * movie);
+    }
+
+    int idCodeCount() {
+        return idCodes;
+    }
+
+    int movieOfIdCode(int code) {
+        return segment.get(INT, sections[ID_CODE_MOVIE] + 4L * code);
+    }
+
+    public Scratch newScratch() {
+        return new Scratch();
+    }
+
+    // Same result as RecommendationSystem for one user's liked IDs, reading
+    // genres and postings from the segment.
+    public List<String> recommend(List<String> likedIds, Scratch scratch) {
+        List<String> result = new ArrayList<>();
+        if (likedIds == null) return result;
+
+        int n = 0;
+        for (String likedId : likedIds) {
+            int movie = movieOf(likedId);
+            if (movie < 0) continue;
+            if (n == scratch.likedCodes.length) scratch.likedCodes = Arrays.copyOf(scratch.likedCodes, n * 2);
+            scratch.likedCodes[n++] = idCode(movie);
+        }
+        return recommendCodes(scratch.likedCodes, n, scratch, result);
+    }
+
+    // Liked movies given as ID codes, as stored by OffHeapLikes.
+    List<String> recommendCodes(int[] likedCodes, int count, Scratch scratch, List<String> result) {
+        for (int i = 0; i < count; i++) scratch.liked.set(likedCodes[i]);
+
+        for (int i = 0; i < count; i++) {
+            int likedMovie = movieOfIdCode(likedCodes[i]);
+            int genresEnd = segment.get(INT, sections[GENRE_OFFSETS] + 4L * (likedMovie + 1));
+            for (int g = segment.get(INT, sections[GENRE_OFFSETS] + 4L * likedMovie); g < genresEnd; g++) {
+                int genre = segment.get(INT, sections[GENRES_SECTION] + 4L * g);
+                if (scratch.visitedGenres.get(genre)) continue;
+                scratch.visitedGenres.set(genre);
+                scratch.touchedGenres = push(scratch.touchedGenres, scratch.touchedGenreCount++, genre);
+
+                int postingsEnd = segment.get(INT, sections[POSTING_OFFSETS] + 4L * (genre + 1));
+                for (int p = segment.get(INT, sections[POSTING_OFFSETS] + 4L * genre); p < postingsEnd; p++) {
+                    int m = segment.get(INT, sections[POSTINGS] + 4L * p);
+                    if (scratch.liked.get(idCode(m))) continue;
+                    int title = segment.get(INT, sections[MOVIE_TITLE] + 4L * m);
+                    if (scratch.emitted.get(title)) continue;
+                    scratch.emitted.set(title);
+                    scratch.emittedTitles = push(scratch.emittedTitles, scratch.emittedTitleCount++, title);
+                    result.add(title(title));
+                }
+            }
+        }
+
+        for (int i = 0; i < count; i++) scratch.liked.clear(likedCodes[i]);
+        for (int i = 0; i < scratch.touchedGenreCount; i++) scratch.visitedGenres.clear(scratch.touchedGenres[i]);
+        for (int i = 0; i < scratch.emittedTitleCount; i++) scratch.emitted.clear(scratch.emittedTitles[i]);
+        scratch.touchedGenreCount = 0;
+        scratch.emittedTitleCount = 0;
+        return result;
+    }
+
+    private static int[] push(int[] values, int size, int value) {
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size] = value;
+        return values;
+    }
+
+    private String title(int title) {
+        long from = segment.get(LONG, sections[TITLE_OFFSETS] + 8L * title);
+        long to = segment.get(LONG, sections[TITLE_OFFSETS] + 8L * (title + 1));
+        byte[] bytes = segment.asSlice(sections[TITLE_BYTES] + from, to - from).toArray(ValueLayout.JAVA_BYTE);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private MemorySegment idSlice(int movie) {
+        long from = segment.get(LONG, sections[ID_OFFSETS] + 8L * movie);
+        long to = segment.get(LONG, sections[ID_OFFSETS] + 8L * (movie + 1));
+        return segment.asSlice(sections[ID_BYTES] + from, to - from);
+    }
+
+    // The slot holding this ID, or the empty slot where it would go.
+    private int findSlot(MemorySegment id) {
+        int h = 0;
+        for (long i = 0; i < id.byteSize(); i++) h = 31 * h + id.get(ValueLayout.JAVA_BYTE, i);
+        h ^= h >>> 16;
+        int mask = tableSize - 1;
+        for (int slot = h & mask; ; slot = (slot + 1) & mask) {
+            int entry = segment.get(INT, sections[ID_TABLE] + 4L * slot);
+            if (entry == 0) return slot;
+            if (idSlice(entry - 1).mismatch(id) == -1) return slot;
+        }
+    }
+
+    // Per-thread working sets for recommend(), on the heap but sized by the
+    // catalog's code ranges rather than its contents. Only the bits a user
+    // set are cleared afterwards.
+    public class Scratch {
+        private final BitSet liked = new BitSet(idCodes);
+        private final BitSet visitedGenres = new BitSet(genres);
+        private final BitSet emitted = new BitSet((int) sections[TITLES]);
+        private int[] likedCodes = new int[16];
+        private int[] touchedGenres = new int[16];
+        private int touchedGenreCount;
+        private int[] emittedTitles = new int[16];
+        private int emittedTitleCount;
+    }
+}
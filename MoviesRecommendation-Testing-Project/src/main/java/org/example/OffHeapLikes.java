@@ -0,0 +1,106 @@
+package org.example;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+// Users' liked movies stored off-heap as OffHeapCatalog ID codes in CSR form
+// (long offsets per user, int codes), so millions of users' likes cost no
+// heap objects. IDs missing from the catalog are dropped, as they can never
+// match a movie.
+public class OffHeapLikes implements AutoCloseable {
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private final Arena offsetsArena;
+    private final Arena codesArena;
+    private final MemorySegment offsets;
+    private final MemorySegment codes;
+    private final int users;
+
+    private OffHeapLikes(Builder builder) {
+        offsetsArena = builder.offsetsArena;
+        codesArena = builder.codesArena;
+        offsets = builder.offsets;
+        codes = builder.codes;
+        users = builder.users;
+    }
+
+    public int userCount() {
+        return users;
+    }
+
+    public long likeCount() {
+        return offsets.get(LONG, 8L * users);
+    }
+
+    public List<String> recommend(OffHeapCatalog catalog, int user, OffHeapCatalog.Scratch scratch, int[] buffer) {
+        long from = offsets.get(LONG, 8L * user);
+        int count = (int) (offsets.get(LONG, 8L * (user + 1)) - from);
+        int[] liked = count <= buffer.length ? buffer : new int[count];
+        for (int i = 0; i < count; i++) liked[i] = codes.get(INT, 4L * (from + i));
+        return catalog.recommendCodes(liked, count, scratch, new ArrayList<>());
+    }
+
+    @Override
+    public void close() {
+        offsetsArena.close();
+        codesArena.close();
+    }
+
+    // Appends users in order. Buffers double as they fill, each generation
+    // in its own arena so the previous one can be freed right away.
+    public static class Builder {
+        private final OffHeapCatalog catalog;
+        private Arena offsetsArena = Arena.ofShared();
+        private Arena codesArena = Arena.ofShared();
+        private MemorySegment offsets = offsetsArena.allocate(8L * 1024, 8);
+        private MemorySegment codes = codesArena.allocate(4L * 4096, 8);
+        private long used;
+        private int users;
+
+        public Builder(OffHeapCatalog catalog) {
+            this.catalog = catalog;
+        }
+
+        public Builder add(List<String> likedIds) {
+            if (likedIds != null) {
+                for (String id : likedIds) {
+                    int movie = catalog.movieOf(id);
+                    if (movie < 0) continue;
+                    if (4L * (used + 1) > codes.byteSize()) growCodes();
+                    codes.set(INT, 4L * used++, catalog.idCode(movie));
+                }
+            }
+            if (8L * (users + 2) > offsets.byteSize()) growOffsets();
+            offsets.set(LONG, 8L * ++users, used);
+            return this;
+        }
+
+        public OffHeapLikes build() {
+            return new OffHeapLikes(this);
+        }
+
+        private void growCodes() {
+            Arena next = Arena.ofShared();
+            MemorySegment bigger = next.allocate(codes.byteSize() * 2, 8);
+            MemorySegment.copy(codes, 0, bigger, 0, 4L * used);
+            codesArena.close();
+            codesArena = next;
+            codes = bigger;
+        }
+
+        private void growOffsets() {
+            Arena next = Arena.ofShared();
+            MemorySegment bigger = next.allocate(offsets.byteSize() * 2, 8);
+            MemorySegment.copy(offsets, 0, bigger, 0, 8L * (users + 1));
+            offsetsArena.close();
+            offsetsArena = next;
+            offsets = bigger;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.example;
+
+import java.lang.foreign.Arena;
+import java.util.*;
+
+// Same recommendations as RecommendationSystem, computed from an
+// OffHeapCatalog that lives outside the heap for the duration of the call.
+public class OffHeapRecommendationSystem implements Recommender {
+
+    @Override
+    public Map<User, List<String>> recommend(List<User> users, List<Movie> movies) {
+        return recommend(users, Catalog.of(movies));
+    }
+
+    @Override
+    public Map<User, List<String>> recommend(List<User> users, Catalog catalog) {
+        try (Arena arena = Arena.ofConfined()) {
+            return RecommendationSystem.generateRecommendations(users, OffHeapCatalog.build(catalog, arena));
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+// MappedFileHandler that parses and validates users.txt on several threads.
+// The file is cut into byte ranges starting at line starts. A first pass
+// works out from each range's blank lines whether the range begins on the
+// likes line of a record started in the range before; such ranges are moved
+// to the next line so every record lies in one range. A second pass parses
+// the ranges concurrently, a bounded number ahead of the caller, and their
+// users are handed to the sink in file order. The sink and errorList see
+// the same users and errors, first error included, as with the sequential
+// readers.
+//
+// A user ID's first record is found through a ConcurrentUserIdSet holding
+// each ID's smallest record position: a record that finds an earlier
+// position is a repeat, and one that replaces a later position marks that
+// record as the repeat. Repeats are passed to the validator with their ID
+// already taken when their turn comes in file order.
+public class ParallelFileHandler extends MappedFileHandler {
+
+    static final long DEFAULT_CHUNK = 8L << 20;
+
+    private final int threads;
+    private final long chunkBytes;
+
+    public ParallelFileHandler(Validator validator, int threads) {
+        this(validator, null, threads);
+    }
+
+    public ParallelFileHandler(Validator validator, StringDictionary dictionary, int threads) {
+        this(validator, dictionary, threads, DEFAULT_CHUNK);
+    }
+
+    ParallelFileHandler(Validator validator, StringDictionary dictionary, int threads, long chunkBytes) {
+        super(validator, dictionary);
+        if (threads < 1) throw new IllegalArgumentException("Threads must be at least 1: " + threads);
+        if (chunkBytes < 1) throw new IllegalArgumentException("Chunk size must be at least 1: " + chunkBytes);
+        this.threads = threads;
+        this.chunkBytes = chunkBytes;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    @Override
+    public void readUsers(String filePath, Set<String> validMovieIds, List<String> errorList, Consumer<User> sink) throws IOException {
+        if (!filePath.toLowerCase().endsWith(".txt")) {
+            errorList.add("ERROR: Unsupported format");
+            return;
+        }
+
+        Path file = Paths.get(filePath);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            long[] bounds = recordBounds(file, pool);
+            int chunks = bounds.length - 1;
+            // about one user per 32 bytes of a typical users.txt
+            ConcurrentUserIdSet firsts = new ConcurrentUserIdSet((int) Math.min(1 << 24, bounds[chunks] / 32));
+            Set<Long> repeats = ConcurrentHashMap.newKeySet();
+
+            Deque<Future<Chunk>> pending = new ArrayDeque<>();
+            int submitted = 0;
+            for (int c = 0; c < chunks; c++) {
+                while (submitted < chunks && pending.size() < threads * 2) {
+                    int chunk = submitted++;
+                    pending.add(pool.submit(() -> parse(file, bounds[chunk], bounds[chunk + 1], chunk,
+                            validMovieIds, firsts, repeats)));
+                }
+                if (!merge(await(pending.poll()), repeats, errorList, sink)) break;
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Parsed users of one range, with what went wrong for each in isolation.
+    private static class Chunk {
+        final long firstPosition;
+        final List<User> users = new ArrayList<>();
+        final List<String> likedErrors = new ArrayList<>();
+        final BitSet repeats = new BitSet();
+        String stopError;
+
+        Chunk(int index) {
+            firstPosition = (long) index << 32;
+        }
+    }
+
+    private Chunk parse(Path file, long from, long to, int index, Set<String> validMovieIds,
+                        ConcurrentUserIdSet firsts, Set<Long> repeats) throws IOException {
+        Chunk chunk = new Chunk(index);
+        List<String> errors = new ArrayList<>(1);
+        try (MappedLineReader reader = new MappedLineReader(file, from, to, MappedLineReader.DEFAULT_WINDOW)) {
+            while (true) {
+                if (!reader.nextLine()) break;
+                if (reader.isEmpty()) continue;
+                int infoStart = reader.start();
+                int infoEnd = reader.end();
+                int comma = reader.indexOf((byte) ',', infoStart, infoEnd);
+                String name = comma < 0 ? null : reader.trimmedString(infoStart, comma);
+                String id = comma < 0 ? null : reader.trimmedString(comma + 1, infoEnd);
+
+                if (!reader.nextLine()) break;
+                if (reader.isEmpty()) continue;
+                if (comma < 0) continue;
+
+                // IDs taken by earlier records are checked when merging
+                if (!acceptUser(name, id, Collections.emptySet(), errors)) {
+                    chunk.stopError = errors.get(0);
+                    break;
+                }
+
+                List<String> likedIds = splitList(reader);
+                checkLikedIds(name, likedIds, validMovieIds, errors);
+
+                if (!claim(firsts, repeats, id, chunk.firstPosition + chunk.users.size())) chunk.repeats.set(chunk.users.size());
+                chunk.likedErrors.add(errors.isEmpty() ? null : errors.remove(0));
+                chunk.users.add(newUser(name, id, likedIds));
+            }
+        }
+        return chunk;
+    }
+
+    // Records position as the first one for id; false when an earlier record
+    // already has it. A later record that had it is added to repeats.
+    private static boolean claim(ConcurrentUserIdSet firsts, Set<Long> repeats, String id, long position) {
+        long previous = firsts.claim(id, position);
+        if (previous == ConcurrentUserIdSet.ABSENT) return true;
+        if (previous < position) return false;
+        repeats.add(previous);
+        return true;
+    }
+
+    // Runs on the caller's thread in file order; false when reading stops.
+    private boolean merge(Chunk chunk, Set<Long> repeats, List<String> errorList, Consumer<User> sink) {
+        for (int i = 0; i < chunk.users.size(); i++) {
+            User user = chunk.users.get(i);
+            boolean repeat = chunk.repeats.get(i) || (!repeats.isEmpty() && repeats.contains(chunk.firstPosition + i));
+            if (repeat && !acceptUser(user.getName(), user.getId(), Set.of(user.getId()), errorList)) return false;
+
+            String likedError = chunk.likedErrors.get(i);
+            if (likedError != null) errorList.add(likedError);
+            sink.accept(user);
+        }
+        if (chunk.stopError != null) {
+            errorList.add(chunk.stopError);
+            return false;
+        }
+        return true;
+    }
+
+    // Range starts plus the file size. A range is moved past its first line
+    // when the range before it ends between a record's two lines.
+    private long[] recordBounds(Path file, ExecutorService pool) throws IOException {
+        long[] bounds = lineBounds(file);
+        int chunks = bounds.length - 1;
+        List<Future<long[]>> scans = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            long from = bounds[c];
+            long to = bounds[c + 1];
+            scans.add(pool.submit(() -> scan(file, from, to)));
+        }
+
+        boolean onLikesLine = false;
+        for (int c = 0; c < chunks; c++) {
+            long[] scan = await(scans.get(c));
+            if (onLikesLine) bounds[c] = scan[2];
+            onLikesLine = (onLikesLine ? scan[1] : scan[0]) != 0;
+        }
+        return bounds;
+    }
+
+    // Follows the readers' record state over a range's lines: after a name
+    // line a likes line is expected, and after any line taken as a likes line
+    // (even a blank one) a name line. Returns whether the range ends
+    // expecting a likes line when entered expecting a name line, the same
+    // when entered expecting a likes line, and the end offset of its first
+    // line.
+    private static long[] scan(Path file, long from, long to) throws IOException {
+        boolean fromName = false;
+        boolean fromLikes = true;
+        long firstLineEnd = to;
+        try (MappedLineReader reader = new MappedLineReader(file, from, to, MappedLineReader.DEFAULT_WINDOW)) {
+            if (reader.nextLine()) {
+                firstLineEnd = reader.nextLineOffset();
+                do {
+                    boolean empty = reader.isEmpty();
+                    fromName = !fromName && !empty;
+                    fromLikes = !fromLikes && !empty;
+                } while (reader.nextLine());
+            }
+        }
+        return new long[]{fromName ? 1 : 0, fromLikes ? 1 : 0, firstLineEnd};
+    }
+
+    // Splits the file about every chunkBytes, each range starting just after
+    // a \n.
+    private long[] lineBounds(Path file) throws IOException {
+        List<Long> starts = new ArrayList<>();
+        starts.add(0L);
+        long size;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(64 << 10);
+            for (long target = chunkBytes; target < size; target += chunkBytes) {
+                long start = nextLineStart(channel, buffer, Math.max(target, starts.get(starts.size() - 1) + 1), size);
+                if (start >= size) break;
+                if (start > starts.get(starts.size() - 1)) starts.add(start);
+            }
+        }
+        long[] bounds = new long[starts.size() + 1];
+        for (int i = 0; i < starts.size(); i++) bounds[i] = starts.get(i);
+        bounds[starts.size()] = size;
+        return bounds;
+    }
+
+    private static long nextLineStart(FileChannel channel, ByteBuffer buffer, long from, long size) throws IOException {
+        long position = from - 1;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') return position + i + 1;
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading users");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof Error error) throw error;
+            throw new IOException(cause);
+        }
+    }
+}
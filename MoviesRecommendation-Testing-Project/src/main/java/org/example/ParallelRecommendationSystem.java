@@ -0,0 +1,106 @@
+package org.example;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Computes users' recommendations concurrently over one shared, read-only
+// GenreIndex. Each task works on a contiguous slice of the user list with
+// its own Scratch, and results are put into the map in input order.
+public class ParallelRecommendationSystem implements Recommender {
+
+    private static final int USERS_PER_TASK = 256;
+
+    private final int parallelism;
+
+    public ParallelRecommendationSystem() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelRecommendationSystem(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public Map<User, List<String>> recommend(List<User> users, List<Movie> movies) {
+        return recommend(users, new GenreIndex(movies));
+    }
+
+    @Override
+    public Map<User, List<String>> recommend(List<User> users, Catalog catalog) {
+        return recommend(users, new GenreIndex(catalog));
+    }
+
+    private Map<User, List<String>> recommend(List<User> users, GenreIndex index) {
+        List<List<String>> results = recommendAll(index, users);
+
+        Map<User, List<String>> output = new LinkedHashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            output.put(users.get(i), results.get(i));
+        }
+        return output;
+    }
+
+    List<List<String>> recommendAll(GenreIndex index, List<User> users) {
+        return recommendAll(index, users, null);
+    }
+
+    // With a cache, users are recommended through it instead of the index.
+    // Tasks set distinct positions of the result list, which never changes
+    // size.
+    List<List<String>> recommendAll(GenreIndex index, List<User> users, GenreSignatureCache cache) {
+        List<List<String>> results = new ArrayList<>(Collections.nCopies(users.size(), null));
+        if (parallelism == 1 || users.size() <= USERS_PER_TASK) {
+            new Slice(index, cache, users, results, 0, users.size()).compute();
+            return results;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new Slice(index, cache, users, results, 0, users.size()));
+        } finally {
+            pool.shutdown();
+        }
+        return results;
+    }
+
+    // never serialized
+    @SuppressWarnings("serial")
+    private static class Slice extends RecursiveAction {
+        private final GenreIndex index;
+        private final GenreSignatureCache cache;
+        private final List<User> users;
+        private final List<List<String>> results;
+        private final int from;
+        private final int to;
+
+        Slice(GenreIndex index, GenreSignatureCache cache, List<User> users, List<List<String>> results, int from, int to) {
+            this.index = index;
+            this.cache = cache;
+            this.users = users;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= USERS_PER_TASK) {
+                GenreIndex.Scratch scratch = index.newScratch();
+                for (int i = from; i < to; i++) {
+                    List<String> likedIds = users.get(i).getLikedMovieIds();
+                    results.set(i, cache == null ? index.recommend(likedIds, scratch) : cache.recommend(likedIds, scratch));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Slice(index, cache, users, results, from, middle),
+                    new Slice(index, cache, users, results, middle, to));
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Answers recommendation queries over HTTP from a catalog loaded once:
+//
+//   GET /recommendations?liked=ID1,ID2    the titles, as on a recommendations.txt line
+//   GET /recommendations?user=ID          the user's two recommendations.txt lines
+//   GET /stats                            request count and latency percentiles
+//
+// Each request runs on its own virtual thread over the shared, read-only
+// GenreIndex. Scratch objects are sized by the catalog, so they are pooled
+// rather than made per request or kept per thread.
+//
+// setIndex swaps in a new catalog, e.g. from a CatalogWatcher, without
+// stopping the server. A request reads the current catalog once and uses
+// it throughout, so it never sees half of each; requests still running on
+// the old one finish on it and nobody waits for the swap.
+public class RecommendationServer {
+
+    // an index with the scratch objects sized for it
+    private record Served(GenreIndex index, Queue<GenreIndex.Scratch> scratches) {
+        Served(GenreIndex index) {
+            this(index, new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    private final AtomicReference<Served> catalog;
+    private final Map<String, User> users = new HashMap<>();
+    private final LatencyRecorder latency = new LatencyRecorder();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public RecommendationServer(GenreIndex index, List<User> users) {
+        this.catalog = new AtomicReference<>(new Served(index));
+        // the first record of a repeated ID wins, as it does when validating
+        for (User user : users) this.users.putIfAbsent(user.getId(), user);
+    }
+
+    public synchronized void start(InetSocketAddress address) throws IOException {
+        if (server != null) throw new IllegalStateException("Server already started");
+        server = HttpServer.create(address, 0);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/recommendations", this::handleRecommendations);
+        server.createContext("/stats", this::handleStats);
+        server.start();
+    }
+
+    public synchronized int getPort() {
+        if (server == null) throw new IllegalStateException("Server not started");
+        return server.getAddress().getPort();
+    }
+
+    public synchronized void stop() {
+        if (server == null) return;
+        server.stop(0);
+        executor.shutdown();
+        server = null;
+    }
+
+    public void setIndex(GenreIndex index) {
+        catalog.set(new Served(index));
+    }
+
+    public GenreIndex getIndex() {
+        return catalog.get().index();
+    }
+
+    public LatencyRecorder.Snapshot latency() {
+        return latency.snapshot();
+    }
+
+    List<String> recommend(List<String> likedIds) {
+        return recommend(catalog.get(), likedIds);
+    }
+
+    private static List<String> recommend(Served catalog, List<String> likedIds) {
+        GenreIndex.Scratch scratch = catalog.scratches().poll();
+        if (scratch == null) scratch = catalog.index().newScratch();
+        try {
+            return catalog.index().recommend(likedIds, scratch);
+        } finally {
+            catalog.scratches().offer(scratch);
+        }
+    }
+
+    private void handleRecommendations(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                send(exchange, 405, "ERROR: Only GET is supported\n");
+                return;
+            }
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            Served current = catalog.get();
+            if (query.containsKey("user")) {
+                User user = users.get(query.get("user"));
+                if (user == null) {
+                    send(exchange, 404, "ERROR: Unknown user " + query.get("user") + "\n");
+                    return;
+                }
+                send(exchange, 200, user.getName() + "," + user.getId() + "\n"
+                        + String.join(", ", recommend(current, user.getLikedMovieIds())) + "\n");
+            } else if (query.containsKey("liked")) {
+                String liked = query.get("liked").trim();
+                List<String> likedIds = liked.isEmpty() ? List.of() : Arrays.asList(liked.split("\\s*,\\s*"));
+                for (String likedId : likedIds) {
+                    if (current.index().idCodeOf(likedId) < 0) {
+                        send(exchange, 400, "ERROR: Unknown movie ID " + likedId + "\n");
+                        return;
+                    }
+                }
+                send(exchange, 200, String.join(", ", recommend(current, likedIds)) + "\n");
+            } else {
+                send(exchange, 400, "ERROR: Expected a user or liked parameter\n");
+            }
+        } finally {
+            latency.record(System.nanoTime() - start);
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            send(exchange, 200, latency.snapshot() + "\n");
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) return query;
+        for (String pair : rawQuery.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            query.putIfAbsent(name, value);
+        }
+        return query;
+    }
+}
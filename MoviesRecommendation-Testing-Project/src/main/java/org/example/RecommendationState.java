@@ -0,0 +1,195 @@
+package org.example;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+// What an incremental run produced, kept next to its recommendations.txt so
+// the next run can tell which users' recommendations are still valid:
+//
+//   magic, version                          int, int
+//   genre count, then per genre             int; UTF name, long fingerprint
+//   movie ID count, then per ID             int; UTF id, long fingerprint
+//   per user in output order                UTF id, long hash; "" ends the list
+//   output size, mtime                      long, long
+//
+// A user's recommendations depend only on their liked IDs, the genres of the
+// liked movies and the ordered members of those genres. So a user is reused
+// only when their name and likes hash the same and none of those movie or
+// genre fingerprints changed. The state is used only while the output file
+// still has the size and mtime it was written with.
+public class RecommendationState {
+
+    static final int MAGIC = 0x4D525354;
+    static final int VERSION = 1;
+    static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    record Entry(long hash, int ordinal) {
+    }
+
+    private final Map<String, Long> genres;
+    private final Map<String, Long> movies;
+    private final Map<String, Entry> users;
+
+    private RecommendationState(Map<String, Long> genres, Map<String, Long> movies, Map<String, Entry> users) {
+        this.genres = genres;
+        this.movies = movies;
+        this.users = users;
+    }
+
+    public static Path statePath(String outputFile) {
+        return Paths.get(outputFile + ".state");
+    }
+
+    // Returns the previous run's state, or null when it is missing, unreadable
+    // or does not belong to the current output file.
+    public static RecommendationState load(Path state, Path output) throws IOException {
+        if (!Files.isRegularFile(state) || !Files.isRegularFile(output)) return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(state)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            Map<String, Long> genres = readFingerprints(in);
+            Map<String, Long> movies = readFingerprints(in);
+            Map<String, Entry> users = new HashMap<>();
+            for (String id = in.readUTF(); !id.isEmpty(); id = in.readUTF()) {
+                users.put(id, new Entry(in.readLong(), users.size()));
+            }
+
+            BasicFileAttributes attributes = Files.readAttributes(output, BasicFileAttributes.class);
+            if (in.readLong() != attributes.size() || in.readLong() != attributes.lastModifiedTime().toMillis()) return null;
+            return new RecommendationState(genres, movies, users);
+        } catch (EOFException | UTFDataFormatException e) {
+            return null;
+        }
+    }
+
+    // Position of the user's record in the previous output, or -1 when the
+    // user is new or their name or likes changed.
+    public int ordinalOf(String userId, long hash) {
+        Entry entry = users.get(userId);
+        return entry == null || entry.hash() != hash ? -1 : entry.ordinal();
+    }
+
+    // Catalog positions whose genres, or the members of any of whose genres,
+    // differ from the previous run. Users liking one of them are recomputed.
+    // Only the last movie listed with an ID matters, as in recommend().
+    public BitSet changedMovies(GenreIndex index) {
+        BitSet changedGenres = new BitSet(index.genreCount());
+        for (int g = 0; g < index.genreCount(); g++) {
+            Long previous = genres.get(index.genreName(g));
+            if (previous == null || previous != genreFingerprint(index, g)) changedGenres.set(g);
+        }
+
+        BitSet changed = new BitSet(index.movieCount());
+        for (int m = 0; m < index.movieCount(); m++) {
+            Long previous = movies.get(index.idOfCode(index.idCode(m)));
+            if (previous == null || previous != movieFingerprint(index, m)) {
+                changed.set(m);
+                continue;
+            }
+            for (int g : index.genresOf(m)) {
+                if (changedGenres.get(g)) {
+                    changed.set(m);
+                    break;
+                }
+            }
+        }
+        return changed;
+    }
+
+    public static boolean likesChanged(List<String> likedIds, GenreIndex index, BitSet changedMovies) {
+        if (likedIds == null) return false;
+        for (String likedId : likedIds) {
+            int movie = index.movieOf(likedId);
+            if (movie >= 0 && changedMovies.get(movie)) return true;
+        }
+        return false;
+    }
+
+    // 64-bit FNV-1a of the user's name and liked IDs in order.
+    public static long userHash(User user) {
+        long hash = hash(FNV_OFFSET, user.getName());
+        if (user.getLikedMovieIds() != null) {
+            for (String likedId : user.getLikedMovieIds()) hash = hash(hash, likedId);
+        }
+        return hash;
+    }
+
+    // The order of a genre's members decides the order titles are emitted in,
+    // so it is part of the fingerprint.
+    static long genreFingerprint(GenreIndex index, int genre) {
+        long hash = FNV_OFFSET;
+        for (int m : index.moviesWithGenre(genre)) {
+            hash = hash(hash, index.idOfCode(index.idCode(m)));
+            hash = hash(hash, index.titleOfCode(index.titleCode(m)));
+        }
+        return hash;
+    }
+
+    // Genres of the movie recommend() follows for this ID, i.e. the last
+    // one listed with it.
+    static long movieFingerprint(GenreIndex index, int movie) {
+        long hash = FNV_OFFSET;
+        for (int g : index.genresOf(movie)) hash = hash(hash, index.genreName(g));
+        return hash;
+    }
+
+    static long hash(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        // separator, so "ab","c" and "a","bc" differ
+        return (hash ^ 0xFFFF) * FNV_PRIME;
+    }
+
+    private static Map<String, Long> readFingerprints(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) throw new EOFException();
+        Map<String, Long> fingerprints = new HashMap<>();
+        for (int i = 0; i < count; i++) fingerprints.put(in.readUTF(), in.readLong());
+        return fingerprints;
+    }
+
+    // Streams a new state to a file while the matching output is written.
+    public static class Writer implements Closeable {
+
+        private final DataOutputStream out;
+
+        public Writer(Path file, GenreIndex index) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(index.genreCount());
+            for (int g = 0; g < index.genreCount(); g++) {
+                out.writeUTF(index.genreName(g));
+                out.writeLong(genreFingerprint(index, g));
+            }
+            out.writeInt(index.idCodeCount());
+            for (int code = 0; code < index.idCodeCount(); code++) {
+                String id = index.idOfCode(code);
+                out.writeUTF(id);
+                out.writeLong(movieFingerprint(index, index.movieOf(id)));
+            }
+        }
+
+        public void add(String userId, long hash) throws IOException {
+            out.writeUTF(userId);
+            out.writeLong(hash);
+        }
+
+        // Ties the state to the finished output file.
+        public void finish(Path output) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(output, BasicFileAttributes.class);
+            out.writeUTF("");
+            out.writeLong(attributes.size());
+            out.writeLong(attributes.lastModifiedTime().toMillis());
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
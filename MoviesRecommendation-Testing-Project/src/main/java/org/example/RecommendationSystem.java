@@ -1,8 +1,100 @@
 package org.example;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
 
-public class RecommendationSystem {
+public class RecommendationSystem implements Recommender {
+
+    private final Path cacheFile;
+    private final long cacheBytes;
+    private volatile ResultCache.Stats lastCacheStats;
+
+    public RecommendationSystem() {
+        this(null, 0);
+    }
+
+    // With a cache file, results of earlier runs are reused for users whose
+    // likes and catalog are unchanged; the file is kept within cacheBytes.
+    public RecommendationSystem(Path cacheFile, long cacheBytes) {
+        if (cacheBytes < 0) throw new IllegalArgumentException("Cache size must not be negative: " + cacheBytes);
+        this.cacheFile = cacheFile;
+        this.cacheBytes = cacheBytes;
+    }
+
+    // Result cache counters of the last call, or null without a cache.
+    public ResultCache.Stats getLastCacheStats() {
+        return lastCacheStats;
+    }
+
+    @Override
+    public Map<User, List<String>> recommend(List<User> users, List<Movie> movies) {
+        if (cacheFile != null) return recommendCached(users, new GenreIndex(movies));
+        return generateRecommendations(users, movies);
+    }
+
+    @Override
+    public Map<User, List<String>> recommend(List<User> users, Catalog catalog) {
+        if (cacheFile != null) return recommendCached(users, new GenreIndex(catalog));
+        return generateRecommendations(users, catalog);
+    }
+
+    private Map<User, List<String>> recommendCached(List<User> users, GenreIndex index) {
+        try {
+            ResultCache cache = ResultCache.open(cacheFile, ResultCache.catalogVersion(index), cacheBytes);
+            Map<User, List<String>> output;
+            try {
+                output = generateRecommendations(users, index, cache);
+            } finally {
+                cache.close();
+            }
+            // taken after close, which may compact
+            lastCacheStats = cache.stats();
+            return output;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Looks each user up in the cache before computing, and stores what had
+    // to be computed.
+    public static Map<User, List<String>> generateRecommendations(List<User> users, GenreIndex index, ResultCache cache) throws IOException {
+        GenreIndex.Scratch scratch = index.newScratch();
+        Map<User, List<String>> output = new LinkedHashMap<>();
+        for (User user : users) {
+            long likesHash = ResultCache.likesHash(user.getLikedMovieIds());
+            int[] titles = cache.get(user.getId(), likesHash);
+            if (titles == null) {
+                titles = index.recommendTitleCodes(user.getLikedMovieIds(), scratch);
+                cache.put(user.getId(), likesHash, titles);
+            }
+            output.put(user, index.titlesOfCodes(titles));
+        }
+        return output;
+    }
+
+    // Same recommendations straight from a columnar catalog, without
+    // building Movie objects.
+    public static Map<User, List<String>> generateRecommendations(List<User> users, Catalog catalog) {
+        GenreIndex index = new GenreIndex(catalog);
+        GenreIndex.Scratch scratch = index.newScratch();
+        Map<User, List<String>> output = new LinkedHashMap<>();
+        for (User user : users) {
+            output.put(user, index.recommend(user.getLikedMovieIds(), scratch));
+        }
+        return output;
+    }
+
+    // Same recommendations read from an off-heap catalog's segments.
+    public static Map<User, List<String>> generateRecommendations(List<User> users, OffHeapCatalog catalog) {
+        OffHeapCatalog.Scratch scratch = catalog.newScratch();
+        Map<User, List<String>> output = new LinkedHashMap<>();
+        for (User user : users) {
+            output.put(user, catalog.recommend(user.getLikedMovieIds(), scratch));
+        }
+        return output;
+    }
 
     public static Map<User, List<String>> generateRecommendations(List<User> users, List<Movie> movies) {
         Map<User, List<String>> output = new LinkedHashMap<>();
@@ -0,0 +1,13 @@
+package org.example;
+
+import java.util.List;
+import java.util.Map;
+
+public interface Recommender {
+    Map<User, List<String>> recommend(List<User> users, List<Movie> movies);
+
+    // Engines that can read the columnar catalog directly override this.
+    default Map<User, List<String>> recommend(List<User> users, Catalog catalog) {
+        return recommend(users, catalog.toMovies());
+    }
+}
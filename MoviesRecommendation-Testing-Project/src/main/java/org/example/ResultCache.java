@@ -0,0 +1,321 @@
+package org.example;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+// Recommendations of earlier runs, kept in an append-only log so users whose
+// likes and catalog did not change are not computed again. Layout, all
+// big-endian:
+//
+//   magic, version                          int, int
+//   per record                              int length, int CRC32C, payload
+//   payload                                 UTF-8 user ID as int length + bytes,
+//                                           long likes hash, long catalog version,
+//                                           int count, int[count] title codes
+//
+// Titles are stored as their GenreIndex codes, which the catalog version
+// pins down, so a hit costs no string decoding. The last record of a user
+// wins. Only records of the catalog version the cache is opened with are
+// indexed; the rest count as dead bytes, as do overwritten records. A torn
+// or corrupt tail is cut off when opening.
+//
+// Compaction rewrites the live records to a new file, least recently used
+// first, and drops the least recently used ones while they exceed maxBytes.
+// It runs when the file grows past twice the budget, and on close when more
+// than half of it is dead or the live records exceed the budget.
+public class ResultCache implements Closeable {
+
+    static final int MAGIC = 0x4D525243;
+    static final int VERSION = 1;
+    static final int HEADER = 8;
+    private static final int FLUSH_BYTES = 1 << 20;
+    // files below this size are not compacted while in use
+    private static final long MIN_COMPACT = 1 << 20;
+
+    public record Stats(long hits, long misses, long evictions, long compactions, int entries, long liveBytes, long fileBytes) {
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    private static final class Entry {
+        final long likesHash;
+        long offset;
+        final int size;
+        long used;
+
+        Entry(long likesHash, long offset, int size, long used) {
+            this.likesHash = likesHash;
+            this.offset = offset;
+            this.size = size;
+            this.used = used;
+        }
+    }
+
+    private final Path file;
+    private final long catalogVersion;
+    private final long maxBytes;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private FileChannel channel;
+    // length of the file, not counting pending records
+    private long fileEnd;
+    private long liveBytes;
+    private long clock;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long compactions;
+
+    private ResultCache(Path file, long catalogVersion, long maxBytes) {
+        this.file = file;
+        this.catalogVersion = catalogVersion;
+        this.maxBytes = maxBytes;
+    }
+
+    // Opens the log, creating it when missing; a log that is not a result
+    // cache of this version is started over.
+    public static ResultCache open(Path file, long catalogVersion, long maxBytes) throws IOException {
+        if (maxBytes < 0) throw new IllegalArgumentException("Cache size must not be negative: " + maxBytes);
+        ResultCache cache = new ResultCache(file, catalogVersion, maxBytes);
+        cache.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        try {
+            cache.load();
+        } catch (IOException | RuntimeException e) {
+            cache.channel.close();
+            throw e;
+        }
+        return cache;
+    }
+
+    // Identifies everything recommend() reads from a catalog: the title
+    // codes, every genre's members in order, and the genres each movie ID
+    // leads to.
+    public static long catalogVersion(GenreIndex index) {
+        long hash = RecommendationState.FNV_OFFSET;
+        for (int title = 0; title < index.titleCount(); title++) {
+            hash = RecommendationState.hash(hash, index.titleOfCode(title));
+        }
+        for (int g = 0; g < index.genreCount(); g++) {
+            hash = RecommendationState.hash(hash, index.genreName(g));
+            hash = RecommendationState.hash(hash, Long.toHexString(RecommendationState.genreFingerprint(index, g)));
+        }
+        for (int code = 0; code < index.idCodeCount(); code++) {
+            String id = index.idOfCode(code);
+            hash = RecommendationState.hash(hash, id);
+            hash = RecommendationState.hash(hash, Long.toHexString(RecommendationState.movieFingerprint(index, index.movieOf(id))));
+        }
+        return hash;
+    }
+
+    // 64-bit FNV-1a of the liked IDs in order; no likes hash alike.
+    public static long likesHash(List<String> likedIds) {
+        long hash = RecommendationState.FNV_OFFSET;
+        if (likedIds != null) {
+            for (String likedId : likedIds) hash = RecommendationState.hash(hash, likedId);
+        }
+        return hash;
+    }
+
+    // Title codes of the user's cached recommendations, or null when there
+    // are none for these likes.
+    public synchronized int[] get(String userId, long likesHash) throws IOException {
+        Entry entry = entries.get(userId);
+        if (entry == null || entry.likesHash != likesHash) {
+            misses++;
+            return null;
+        }
+        ByteBuffer record = read(entry.offset, entry.size);
+        record.position(8);
+        skipString(record);
+        record.position(record.position() + 2 * Long.BYTES);
+        int[] titles = new int[record.getInt()];
+        record.asIntBuffer().get(titles);
+
+        entry.used = ++clock;
+        hits++;
+        return titles;
+    }
+
+    public synchronized void put(String userId, long likesHash, int[] titles) throws IOException {
+        byte[] record = encode(userId, likesHash, titles);
+        Entry previous = entries.put(userId, new Entry(likesHash, fileEnd + pending.size(), record.length, ++clock));
+        if (previous != null) liveBytes -= previous.size;
+        liveBytes += record.length;
+        pending.write(record);
+
+        if (pending.size() >= FLUSH_BYTES) flush();
+        if (fileEnd + pending.size() > 2 * Math.max(maxBytes, MIN_COMPACT)) compact();
+    }
+
+    // Rewrites the live records, dropping the least recently used ones that
+    // do not fit in maxBytes, and swaps the new file in.
+    public synchronized void compact() throws IOException {
+        flush();
+        List<Map.Entry<String, Entry>> live = new ArrayList<>(entries.entrySet());
+        live.sort((a, b) -> Long.compare(b.getValue().used, a.getValue().used));
+        int keep = 0;
+        long kept = 0;
+        while (keep < live.size() && kept + live.get(keep).getValue().size <= maxBytes) {
+            kept += live.get(keep++).getValue().size;
+        }
+        List<Map.Entry<String, Entry>> survivors = new ArrayList<>(live.subList(0, keep));
+        Collections.reverse(survivors);
+
+        long[] offsets = new long[survivors.size()];
+        long end = HEADER;
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                writeHeader(out);
+                out.position(HEADER);
+                for (int i = 0; i < survivors.size(); i++) {
+                    Entry entry = survivors.get(i).getValue();
+                    offsets[i] = end;
+                    for (long done = 0; done < entry.size; ) {
+                        done += channel.transferTo(entry.offset + done, entry.size - done, out);
+                    }
+                    end += entry.size;
+                }
+            }
+            channel.close();
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+            if (!channel.isOpen()) channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        for (int i = keep; i < live.size(); i++) entries.remove(live.get(i).getKey());
+        for (int i = 0; i < survivors.size(); i++) survivors.get(i).getValue().offset = offsets[i];
+        evictions += live.size() - keep;
+        liveBytes = kept;
+        fileEnd = end;
+        compactions++;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, compactions, entries.size(), liveBytes, fileEnd + pending.size());
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) return;
+        try {
+            flush();
+            long dead = fileEnd - HEADER - liveBytes;
+            if (dead > liveBytes || liveBytes > maxBytes) compact();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void load() throws IOException {
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        if (size < HEADER || channel.read(header, 0) < HEADER || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            channel.truncate(0);
+            writeHeader(channel);
+            fileEnd = HEADER;
+            return;
+        }
+
+        long offset = HEADER;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            in.skipNBytes(HEADER);
+            while (size - offset >= 8) {
+                int length = in.readInt();
+                int crc = in.readInt();
+                if (length < 0 || length > size - offset - 8) break;
+                byte[] payload = in.readNBytes(length);
+                if (payload.length < length || checksum(payload) != crc) break;
+
+                ByteBuffer record = ByteBuffer.wrap(payload);
+                String userId = readString(record);
+                long likesHash = record.getLong();
+                long version = record.getLong();
+                int recordSize = 8 + length;
+                if (version == catalogVersion) {
+                    Entry previous = entries.put(userId, new Entry(likesHash, offset, recordSize, ++clock));
+                    if (previous != null) liveBytes -= previous.size;
+                    liveBytes += recordSize;
+                }
+                offset += recordSize;
+            }
+        } catch (RuntimeException e) {
+            // a payload that passed its checksum but does not parse ends the log
+        }
+        if (offset < size) channel.truncate(offset);
+        fileEnd = offset;
+    }
+
+    private byte[] encode(String userId, long likesHash, int[] titles) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(0);
+        writeString(out, userId);
+        out.writeLong(likesHash);
+        out.writeLong(catalogVersion);
+        out.writeInt(titles.length);
+        for (int title : titles) out.writeInt(title);
+
+        byte[] record = bytes.toByteArray();
+        ByteBuffer prefix = ByteBuffer.wrap(record);
+        prefix.putInt(record.length - 8);
+        prefix.putInt(checksum(Arrays.copyOfRange(record, 8, record.length)));
+        return record;
+    }
+
+    private ByteBuffer read(long offset, int size) throws IOException {
+        if (offset + size > fileEnd) flush();
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) throw new EOFException("Result cache truncated: " + file);
+        }
+        return buffer.flip();
+    }
+
+    private void flush() throws IOException {
+        if (pending.size() == 0) return;
+        ByteBuffer buffer = ByteBuffer.wrap(pending.toByteArray());
+        while (buffer.hasRemaining()) fileEnd += channel.write(buffer, fileEnd);
+        pending.reset();
+    }
+
+    private static void writeHeader(FileChannel out) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER).putInt(MAGIC).putInt(VERSION).flip();
+        while (header.hasRemaining()) out.write(header, header.position());
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        buffer.position(buffer.position() + length);
+    }
+}
@@ -0,0 +1,106 @@
+package org.example;
+
+import java.util.Set;
+
+// Same rules as InputValidator, checked by walking the characters once
+// instead of compiling a regex or building a prefix string on every call.
+public class ScanningValidator implements Validator {
+
+    // ([A-Z][a-z]*|\d+)(\s([A-Z][a-z]*|\d+))*
+    public boolean isValidMovieTitle(String title) {
+        int length = title.length();
+        int i = 0;
+        while (i < length) {
+            char c = title.charAt(i++);
+            if (isUpper(c)) {
+                while (i < length && isLower(title.charAt(i))) i++;
+            } else if (isDigit(c)) {
+                while (i < length && isDigit(title.charAt(i))) i++;
+            } else {
+                return false;
+            }
+
+            if (i == length) return true;
+            if (!isSpace(title.charAt(i++))) return false;
+        }
+        return false;
+    }
+
+    // [A-Za-z]+(\s[A-Za-z]+)*
+    public boolean isValidUserName(String name) {
+        int length = name.length();
+        int i = 0;
+        while (i < length) {
+            if (!isLetter(name.charAt(i++))) return false;
+            while (i < length && isLetter(name.charAt(i))) i++;
+
+            if (i == length) return true;
+            if (!isSpace(name.charAt(i++))) return false;
+        }
+        return false;
+    }
+
+    // \d{8}[A-Za-z0-9] is a subset of \d[A-Za-z0-9]{6}\d[A-Za-z0-9], so only
+    // the second shape has to be checked.
+    public boolean isValidUserId(String id, Set<String> existingUserIds) {
+        if (id.length() != 9) return false;
+        if (!isDigit(id.charAt(0)) || !isDigit(id.charAt(7))) return false;
+        for (int i = 0; i < 9; i++) {
+            if (!isLetterOrDigit(id.charAt(i))) return false;
+        }
+        return !existingUserIds.contains(id);
+    }
+
+    public boolean isMovieIdLettersValid(String title, String movieId) {
+        int next = 0;
+        for (int i = 0; i < title.length(); i++) {
+            char c = title.charAt(i);
+            if (!isUpper(c)) continue;
+            if (next >= movieId.length() || movieId.charAt(next) != c) return false;
+            next++;
+        }
+        return true;
+    }
+
+    public boolean isMovieIdSuffixValid(String movieId, Set<String> existingIds) {
+        if (MovieIdSuffixIndex.suffixOf(movieId) < 0) return false;
+
+        int suffixStart = movieId.length() - 3;
+        for (String id : existingIds) {
+            if (id.regionMatches(id.length() - 3, movieId, suffixStart, 3)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public MovieIdRegistry newMovieIdRegistry() {
+        return new MovieIdSuffixIndex();
+    }
+
+    private static boolean isUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isLower(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+
+    private static boolean isLetter(char c) {
+        return isUpper(c) || isLower(c);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetterOrDigit(char c) {
+        return isLetter(c) || isDigit(c);
+    }
+
+    // Matches the regex \s class: [ \t\n\x0B\f\r]
+    private static boolean isSpace(char c) {
+        return c == ' ' || (c >= '\t' && c <= '\r');
+    }
+}
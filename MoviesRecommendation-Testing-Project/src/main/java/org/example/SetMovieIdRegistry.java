@@ -0,0 +1,25 @@
+package org.example;
+
+import java.util.HashSet;
+import java.util.Set;
+
+// Fallback registry for validators that only implement the Set based check.
+public class SetMovieIdRegistry implements MovieIdRegistry {
+
+    private final Validator validator;
+    private final Set<String> ids = new HashSet<>();
+
+    public SetMovieIdRegistry(Validator validator) {
+        this.validator = validator;
+    }
+
+    @Override
+    public boolean isSuffixValid(String id) {
+        return validator.isMovieIdSuffixValid(id, ids);
+    }
+
+    @Override
+    public void register(String id) {
+        ids.add(id);
+    }
+}
@@ -0,0 +1,45 @@
+package org.example;
+
+import java.util.*;
+
+// Shared table of interned strings with dense int codes, so records can
+// store genres and IDs as int[] and every distinct value exists once.
+// Interning is synchronized; lookups by code are lock-free.
+public class StringDictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private volatile String[] values = new String[64];
+    private int size;
+
+    public synchronized int intern(String value) {
+        Integer code = codes.get(value);
+        if (code != null) return code;
+
+        String[] current = values;
+        if (size == current.length) current = Arrays.copyOf(current, size * 2);
+        current[size] = value;
+        values = current;
+        codes.put(value, size);
+        return size++;
+    }
+
+    // The code of value, or -1 if it was never interned.
+    public synchronized int code(String value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    public String get(int code) {
+        return values[code];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int[] internAll(List<String> list) {
+        int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; i++) result[i] = intern(list.get(i));
+        return result;
+    }
+}
@@ -0,0 +1,56 @@
+package org.example;
+
+import java.util.*;
+
+// Ranked variant of the genre engine: each user gets at most k titles,
+// ordered by how strongly their genres overlap the user's liked movies.
+public class TopKRecommender implements Recommender {
+
+    public enum Scoring {
+        // one point per genre shared with each liked movie
+        OVERLAP,
+        // shared genres weighted by log(1 + movies / movies in genre), so
+        // matches on niche genres count more than on popular ones
+        WEIGHTED
+    }
+
+    private final int k;
+    private final Scoring scoring;
+
+    public TopKRecommender(int k, Scoring scoring) {
+        if (k < 1) throw new IllegalArgumentException("k must be at least 1: " + k);
+        this.k = k;
+        this.scoring = scoring;
+    }
+
+    @Override
+    public Map<User, List<String>> recommend(List<User> users, List<Movie> movies) {
+        return recommend(users, new GenreIndex(movies));
+    }
+
+    @Override
+    public Map<User, List<String>> recommend(List<User> users, Catalog catalog) {
+        return recommend(users, new GenreIndex(catalog));
+    }
+
+    private Map<User, List<String>> recommend(List<User> users, GenreIndex index) {
+        float[] weights = genreWeights(index, scoring);
+        GenreIndex.Scratch scratch = index.newScratch();
+
+        Map<User, List<String>> output = new LinkedHashMap<>();
+        for (User user : users) {
+            output.put(user, index.recommendTop(user.getLikedMovieIds(), k, weights, scratch));
+        }
+        return output;
+    }
+
+    static float[] genreWeights(GenreIndex index, Scoring scoring) {
+        float[] weights = new float[index.genreCount()];
+        for (int g = 0; g < weights.length; g++) {
+            weights[g] = scoring == Scoring.WEIGHTED
+                    ? (float) Math.log(1.0 + (double) index.movieCount() / index.genreFrequency(g))
+                    : 1f;
+        }
+        return weights;
+    }
+}
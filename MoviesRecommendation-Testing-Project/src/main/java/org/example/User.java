@@ -14,6 +14,11 @@ public class User {
         this.likedMovieIds = likedMovieIds;
     }
 
+    // Compact form: liked IDs are codes into a dictionary shared by all users.
+    public User(String name, String id, int[] likedMovieIdCodes, StringDictionary dictionary) {
+        this(name, id, new CodeList(likedMovieIdCodes, dictionary));
+    }
+
     public String getName() {
         return name;
     }
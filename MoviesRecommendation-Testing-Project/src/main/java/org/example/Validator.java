@@ -8,4 +8,8 @@ public interface Validator {
     boolean isMovieIdSuffixValid(String id, Set<String> ids);
     boolean isValidUserName(String name);
     boolean isValidUserId(String id, Set<String> existingIds);
+
+    default MovieIdRegistry newMovieIdRegistry() {
+        return new SetMovieIdRegistry(this);
+    }
 }
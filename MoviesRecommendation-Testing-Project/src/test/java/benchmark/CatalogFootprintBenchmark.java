@@ -0,0 +1,48 @@
+package benchmark;
+
+import org.example.*;
+
+import java.io.File;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+// Retained heap and parse time of a large movies.txt read as a List of
+// Movie objects versus a columnar Catalog. Uses 7-digit IDs so catalogs
+// can exceed 1000 movies.
+//
+// Run: java -cp target/classes:target/test-classes benchmark.CatalogFootprintBenchmark [movies]
+public class CatalogFootprintBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int movieCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        DatasetGenerator generator = new DatasetGenerator();
+        generator.movies = movieCount;
+        generator.idDigits = 7;
+        File movies = Files.createTempFile("bench-movies", ".txt").toFile();
+        movies.deleteOnExit();
+        generator.writeMovies(movies);
+        FileHandler fileHandler = new FileHandler(new ExtendedIdValidator(7, ExtendedIdValidator.Uniqueness.SUFFIX));
+
+        System.out.printf("%d movies%n", movieCount);
+        System.out.printf("%10s %10s %10s%n", "model", "MB", "ms");
+        for (int round = 0; round < 2; round++) {
+            long before = CompactModelFootprintBenchmark.usedHeap();
+            long start = System.nanoTime();
+            Object list = fileHandler.readMovies(movies.getPath(), new ArrayList<>());
+            long nanos = System.nanoTime() - start;
+            long after = CompactModelFootprintBenchmark.usedHeap();
+            System.out.printf("%10s %10.1f %10.1f%n", "movies", (after - before) / (1024.0 * 1024.0), nanos / 1e6);
+            Reference.reachabilityFence(list);
+
+            before = CompactModelFootprintBenchmark.usedHeap();
+            start = System.nanoTime();
+            Catalog catalog = fileHandler.readCatalog(movies.getPath(), new ArrayList<>());
+            nanos = System.nanoTime() - start;
+            after = CompactModelFootprintBenchmark.usedHeap();
+            System.out.printf("%10s %10.1f %10.1f%n", "catalog", (after - before) / (1024.0 * 1024.0), nanos / 1e6);
+            Reference.reachabilityFence(catalog);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package benchmark;
+
+import org.example.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+// Streams a generated users.txt through CoLikeCounter at several memory
+// budgets and reports time and number of spilled runs. Users are never
+// held in memory, only the pair counts. Uses 7-digit IDs so the catalog
+// can exceed 1000 movies.
+//
+// Run: java -cp target/classes:target/test-classes benchmark.CoLikeBudgetBenchmark [movies] [users]
+public class CoLikeBudgetBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int movieCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int userCount = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        DatasetGenerator generator = new DatasetGenerator();
+        generator.movies = movieCount;
+        generator.users = userCount;
+        generator.idDigits = 7;
+        Path dir = Files.createTempDirectory("bench-colike");
+        File movies = dir.resolve("movies.txt").toFile();
+        File users = dir.resolve("users.txt").toFile();
+        generator.writeMovies(movies);
+        generator.writeUsers(users);
+        movies.deleteOnExit();
+        users.deleteOnExit();
+
+        FileHandler fileHandler = new FileHandler(new ExtendedIdValidator(7, ExtendedIdValidator.Uniqueness.SUFFIX));
+        List<Movie> catalog = fileHandler.readMovies(movies.getPath(), new ArrayList<>());
+        Set<String> ids = new HashSet<>();
+        for (Movie m : catalog) ids.add(m.getId());
+        GenreIndex index = new GenreIndex(catalog);
+
+        System.out.printf("%d movies, %d users, %.1f MB of users%n", movieCount, userCount, users.length() / (1024.0 * 1024.0));
+        System.out.printf("%10s %10s %8s%n", "budget MB", "ms", "runs");
+        for (int mb : new int[]{8, 32, 128, 512}) {
+            long start = System.nanoTime();
+            int runs;
+            try (CoLikeCounter counter = new CoLikeCounter(index, (long) mb << 20, dir)) {
+                fileHandler.readUsers(users.getPath(), ids, new ArrayList<>(), user -> {
+                    try {
+                        counter.add(user.getLikedMovieIds());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                runs = spilledRuns(dir);
+                counter.finish(20);
+            }
+            System.out.printf("%10d %10.1f %8d%n", mb, (System.nanoTime() - start) / 1e6, runs);
+        }
+    }
+
+    private static int spilledRuns(Path dir) throws IOException {
+        try (var files = Files.list(dir)) {
+            return (int) files.filter(f -> f.getFileName().toString().endsWith(".run")).count();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package benchmark;
+
+import org.example.*;
+
+import java.lang.ref.Reference;
+import java.nio.file.Path;
+import java.util.*;
+
+// Retained heap of a parsed users.txt with plain records (a List of String
+// per user) versus compact records (int codes into a shared dictionary).
+// Measured as used heap after GC, before and after reading.
+//
+// Run: java -cp target/classes:target/test-classes benchmark.CompactModelFootprintBenchmark [users]
+public class CompactModelFootprintBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path movies = SyntheticData.writeMovies(1000, 3);
+        Path users = SyntheticData.writeUsers(userCount, 1000, 10);
+
+        System.out.printf("%d users, 10 likes each%n", userCount);
+        System.out.printf("%10s %10s %10s%n", "records", "MB", "ms");
+        for (int round = 0; round < 2; round++) {
+            measure("plain", new FileHandler(new ScanningValidator()), movies, users);
+            measure("compact", new FileHandler(new ScanningValidator(), new StringDictionary()), movies, users);
+        }
+    }
+
+    static void measure(String name, FileHandler fileHandler, Path movies, Path users) throws Exception {
+        long before = usedHeap();
+        long start = System.nanoTime();
+        List<Movie> catalog = fileHandler.readMovies(movies.toString(), new ArrayList<>());
+        Set<String> ids = new HashSet<>();
+        for (Movie m : catalog) ids.add(m.getId());
+        List<User> parsed = fileHandler.readUsers(users.toString(), ids, new ArrayList<>());
+        long nanos = System.nanoTime() - start;
+        ids.clear();
+        long after = usedHeap();
+        System.out.printf("%10s %10.1f %10.1f%n", name, (after - before) / (1024.0 * 1024.0), nanos / 1e6);
+        Reference.reachabilityFence(catalog);
+        Reference.reachabilityFence(parsed);
+    }
+
+    static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,71 @@
+package benchmark;
+
+import org.example.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// Load and write paths of FileHandler on synthetic files. The 3-digit ID
+// rule caps readable catalogs at 1000 movies.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FileHandlerBenchmark {
+
+    @Param({"100", "1000"})
+    public int movies;
+
+    @Param({"10000", "100000"})
+    public int users;
+
+    @Param({"3"})
+    public int genresPerMovie;
+
+    @Param({"5"})
+    public int likesPerUser;
+
+    @Param({"buffered", "mapped"})
+    public String reader;
+
+    private FileHandler fileHandler;
+    private Path moviesFile;
+    private Path usersFile;
+    private Path outputFile;
+    private Set<String> movieIds;
+    private Map<User, List<String>> recommendations;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fileHandler = reader.equals("mapped")
+                ? new MappedFileHandler(new InputValidator())
+                : new FileHandler(new InputValidator());
+        moviesFile = SyntheticData.writeMovies(movies, genresPerMovie);
+        usersFile = SyntheticData.writeUsers(users, movies, likesPerUser);
+        outputFile = Files.createTempFile("bench-recommendations", ".txt");
+        outputFile.toFile().deleteOnExit();
+
+        List<Movie> catalog = fileHandler.readMovies(moviesFile.toString(), new ArrayList<>());
+        movieIds = new HashSet<>();
+        for (Movie m : catalog) movieIds.add(m.getId());
+        List<User> userList = fileHandler.readUsers(usersFile.toString(), movieIds, new ArrayList<>());
+        recommendations = RecommendationSystem.generateRecommendations(userList, catalog);
+    }
+
+    @Benchmark
+    public List<Movie> readMovies() throws Exception {
+        return fileHandler.readMovies(moviesFile.toString(), new ArrayList<>());
+    }
+
+    @Benchmark
+    public List<User> readUsers() throws Exception {
+        return fileHandler.readUsers(usersFile.toString(), movieIds, new ArrayList<>());
+    }
+
+    @Benchmark
+    public void writeRecommendations() throws Exception {
+        fileHandler.writeRecommendations(outputFile.toString(), recommendations, new ArrayList<>());
+    }
+}
@@ -0,0 +1,35 @@
+package benchmark;
+
+import org.example.CachedRecommendationSystem;
+import org.example.GenreSignatureCache;
+import org.example.Movie;
+import org.example.ParallelRecommendationSystem;
+import org.example.User;
+
+import java.util.List;
+
+// Times the genre signature cache against the uncached engine for users
+// with 1, 2, 3 and 5 likes. Fewer likes mean fewer distinct genre
+// sequences, so the hit rate and the gain drop as likes go up.
+//
+// Run: java -cp target/classes:target/test-classes benchmark.GenreSignatureCacheBenchmark [users] [movies] [genresPerMovie]
+public class GenreSignatureCacheBenchmark {
+
+    public static void main(String[] args) {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int movieCount = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int genresPerMovie = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+
+        List<Movie> movies = SyntheticData.movies(movieCount, genresPerMovie, 42);
+        System.out.printf("%6s %12s %12s %8s %9s %9s%n", "likes", "uncached ms", "cached ms", "speedup", "hit rate", "fallback");
+        for (int likes : new int[]{1, 2, 3, 5}) {
+            List<User> users = SyntheticData.users(userCount, movies, likes, 43);
+            long uncached = ParallelScalingBenchmark.best(new ParallelRecommendationSystem(1), users, movies);
+            CachedRecommendationSystem cachedEngine = new CachedRecommendationSystem(CachedRecommendationSystem.DEFAULT_MAX_TITLES, 1);
+            long cached = ParallelScalingBenchmark.best(cachedEngine, users, movies);
+            GenreSignatureCache.Stats stats = cachedEngine.getLastStats();
+            System.out.printf("%6d %12.1f %12.1f %8.2f %8.1f%% %9d%n", likes, uncached / 1e6, cached / 1e6,
+                    (double) uncached / cached, stats.hitRate() * 100, stats.fallbacks());
+        }
+    }
+}
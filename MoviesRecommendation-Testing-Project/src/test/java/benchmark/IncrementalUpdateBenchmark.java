@@ -0,0 +1,87 @@
+package benchmark;
+
+import org.example.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+// Full streaming run versus an incremental update after a share of the
+// users changed their likes, on a generated catalog and users file. The
+// incremental output is checked against the full one.
+//
+// Run: java -cp target/classes:target/test-classes benchmark.IncrementalUpdateBenchmark [users] [changed %]
+public class IncrementalUpdateBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        double changed = args.length > 1 ? Double.parseDouble(args[1]) / 100 : 0.02;
+
+        DatasetGenerator generator = new DatasetGenerator();
+        generator.users = userCount;
+        generator.genres = 300;
+        generator.genreSkew = 0;
+        generator.maxLikes = 5;
+        Path dir = Files.createTempDirectory("bench-incremental");
+        try {
+            run(dir, generator, userCount, changed);
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path file : files.toList()) Files.delete(file);
+            }
+            Files.delete(dir);
+        }
+    }
+
+    private static void run(Path dir, DatasetGenerator generator, int userCount, double changed) throws Exception {
+        File movies = dir.resolve("movies.txt").toFile();
+        File users = dir.resolve("users.txt").toFile();
+        generator.writeMovies(movies);
+        generator.writeUsers(users);
+
+        FileHandler fileHandler = new FileHandler(new InputValidator());
+        List<Movie> catalog = fileHandler.readMovies(movies.getPath(), new ArrayList<>());
+        Set<String> ids = new HashSet<>();
+        for (Movie m : catalog) ids.add(m.getId());
+        GenreIndex index = new GenreIndex(catalog);
+        String output = dir.resolve("recommendations.txt").toString();
+        String full = dir.resolve("full.txt").toString();
+        List<String> errors = new ArrayList<>();
+
+        fileHandler.updateRecommendations(users.getPath(), ids, index, output, errors);
+        rewriteLikes(users, changed, generator, new Random(7));
+
+        System.out.printf("%d users, %.1f%% changed%n", userCount, changed * 100);
+        System.out.printf("%12s %10s %12s%n", "run", "ms", "recomputed");
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            fileHandler.streamRecommendations(users.getPath(), ids, index, full, errors);
+            System.out.printf("%12s %10.1f %12d%n", "full", (System.nanoTime() - start) / 1e6, userCount);
+
+            // each round starts from the previous run's output
+            Files.copy(Path.of(output), dir.resolve("previous.txt"), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.COPY_ATTRIBUTES);
+            Files.copy(Path.of(output + ".state"), dir.resolve("previous.state"), StandardCopyOption.REPLACE_EXISTING);
+            start = System.nanoTime();
+            int recomputed = fileHandler.updateRecommendations(users.getPath(), ids, index, output, errors);
+            System.out.printf("%12s %10.1f %12d%n", "incremental", (System.nanoTime() - start) / 1e6, recomputed);
+            if (!errors.isEmpty() || Files.mismatch(Path.of(full), Path.of(output)) != -1) {
+                throw new IllegalStateException("incremental output differs from the full run");
+            }
+            Files.copy(dir.resolve("previous.txt"), Path.of(output), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.COPY_ATTRIBUTES);
+            Files.copy(dir.resolve("previous.state"), Path.of(output + ".state"), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Gives the chosen share of users a new likes line.
+    private static void rewriteLikes(File users, double share, DatasetGenerator generator, Random random) throws IOException {
+        List<String> lines = Files.readAllLines(users.toPath());
+        for (int i = 1; i < lines.size(); i += 2) {
+            if (random.nextDouble() < share) {
+                lines.set(i, generator.movieId(random.nextInt(generator.movies)));
+            }
+        }
+        Files.write(users.toPath(), lines);
+    }
+}
@@ -0,0 +1,74 @@
+package benchmark;
+
+import org.example.MinHashRecommender;
+import org.example.Movie;
+import org.example.Recommender;
+import org.example.User;
+
+import java.util.*;
+
+// Recall and latency of the MinHash/LSH engine at several band/row settings
+// against the exact Jaccard engine over the same sets. Recall is the share
+// of the exact engine's top-K titles that the approximate engine also
+// returns, over all users.
+//
+// Run: java -cp target/classes:target/test-classes benchmark.MinHashRecallBenchmark [users] [item|user]
+public class MinHashRecallBenchmark {
+
+    private static final int NEIGHBORS = 20;
+    private static final int K = 10;
+
+    public static void main(String[] args) {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        MinHashRecommender.Mode mode = args.length > 1 && args[1].equals("item")
+                ? MinHashRecommender.Mode.ITEM
+                : MinHashRecommender.Mode.USER;
+
+        List<Movie> movies = SyntheticData.movies(1000, 3, 42);
+        List<User> users = clusteredUsers(userCount, movies, new Random(43));
+
+        long start = System.nanoTime();
+        Map<User, List<String>> exact = MinHashRecommender.exact(mode, NEIGHBORS, K).recommend(users, movies);
+        long exactNanos = System.nanoTime() - start;
+
+        System.out.printf("%s mode, %d users%n", mode, userCount);
+        System.out.printf("%12s %10s %8s%n", "bands x rows", "ms", "recall");
+        System.out.printf("%12s %10.1f %8.3f%n", "exact", exactNanos / 1e6, 1.0);
+        int[][] settings = {{8, 4}, {16, 4}, {32, 4}, {16, 2}, {32, 2}, {64, 1}};
+        for (int[] setting : settings) {
+            Recommender recommender = new MinHashRecommender(mode, setting[0], setting[1], NEIGHBORS, K);
+            start = System.nanoTime();
+            Map<User, List<String>> approximate = recommender.recommend(users, movies);
+            long nanos = System.nanoTime() - start;
+            System.out.printf("%12s %10.1f %8.3f%n", setting[0] + " x " + setting[1], nanos / 1e6, recall(users, exact, approximate));
+        }
+    }
+
+    // Users like a few movies from one of 50 taste groups plus some noise,
+    // so there are real neighbors to find.
+    static List<User> clusteredUsers(int count, List<Movie> movies, Random random) {
+        int groupSize = movies.size() / 50;
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int group = random.nextInt(50) * groupSize;
+            List<String> likes = new ArrayList<>();
+            for (int l = 0; l < 8; l++) likes.add(movies.get(group + random.nextInt(groupSize)).getId());
+            for (int l = 0; l < 2; l++) likes.add(movies.get(random.nextInt(movies.size())).getId());
+            users.add(new User("User", String.format("%08dA", i), likes));
+        }
+        return users;
+    }
+
+    static double recall(List<User> users, Map<User, List<String>> exact, Map<User, List<String>> approximate) {
+        long hits = 0;
+        long total = 0;
+        for (User user : users) {
+            Set<String> expected = new HashSet<>(exact.get(user));
+            total += expected.size();
+            for (String title : approximate.get(user)) {
+                if (expected.contains(title)) hits++;
+            }
+        }
+        return total == 0 ? 1.0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,55 @@
+package benchmark;
+
+import org.example.FileHandler;
+import org.example.InputValidator;
+import org.example.MovieIdRegistry;
+import org.example.SetMovieIdRegistry;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Times FileHandler.readMovies with the suffix index against the old Set scan.
+// The 3-digit suffix rule caps a catalog at 1000 movies, so larger totals are
+// reached by loading the full 1000-movie catalog repeatedly.
+//
+// Run: java -cp target/classes:target/test-classes benchmark.MovieLoadBenchmark
+public class MovieLoadBenchmark {
+
+    static class SetScanValidator extends InputValidator {
+        @Override
+        public MovieIdRegistry newMovieIdRegistry() {
+            return new SetMovieIdRegistry(this);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path catalog = SyntheticData.writeMovies(1000, 3);
+        FileHandler indexed = new FileHandler(new InputValidator());
+        FileHandler scanning = new FileHandler(new SetScanValidator());
+
+        // warm up both paths
+        load(indexed, catalog, 50);
+        load(scanning, catalog, 50);
+
+        System.out.printf("%10s %14s %14s %12s%n", "movies", "index ms", "set scan ms", "ns/movie");
+        for (int total = 1_000; total <= 1_000_000; total *= 10) {
+            int loads = total / 1000;
+            long indexNanos = load(indexed, catalog, loads);
+            long scanNanos = load(scanning, catalog, loads);
+            System.out.printf("%10d %14.1f %14.1f %12d%n",
+                    total, indexNanos / 1e6, scanNanos / 1e6, indexNanos / total);
+        }
+    }
+
+    static long load(FileHandler fileHandler, Path catalog, int loads) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < loads; i++) {
+            List<String> errors = new ArrayList<>();
+            if (fileHandler.readMovies(catalog.toString(), errors).size() != 1000 || !errors.isEmpty()) {
+                throw new IllegalStateException("Synthetic catalog rejected: " + errors);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
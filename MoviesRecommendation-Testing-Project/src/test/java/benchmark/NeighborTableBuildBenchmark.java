@@ -0,0 +1,51 @@
+package benchmark;
+
+import org.example.GenreIndex;
+import org.example.Movie;
+import org.example.NeighborTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Times NeighborTable.build over catalogs of growing size with the 16
+// synthetic genres, up to a few genres per movie. Movies get IDs of their
+// own, so the catalog is not limited to the 1000 movies of 3-digit IDs.
+//
+// Run: java -cp target/classes:target/test-classes benchmark.NeighborTableBuildBenchmark [max movies] [genresPerMovie] [neighbors] [threads]
+public class NeighborTableBuildBenchmark {
+
+    public static void main(String[] args) {
+        int maxMovies = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int genresPerMovie = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int neighbors = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("%10s %10s %12s%n", "movies", "build ms", "entries");
+        for (int count = Math.min(maxMovies, 10_000); ; count = Math.min(count * 5, maxMovies)) {
+            GenreIndex index = new GenreIndex(movies(count, genresPerMovie));
+            long best = Long.MAX_VALUE;
+            NeighborTable table = null;
+            for (int run = 0; run < 3; run++) {
+                long start = System.nanoTime();
+                table = NeighborTable.build(index, neighbors, threads);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("%10d %10.1f %12d%n", count, best / 1e6, table.to(count - 1));
+            if (count == maxMovies) break;
+        }
+    }
+
+    private static List<Movie> movies(int count, int genresPerMovie) {
+        Random random = new Random(42);
+        List<Movie> movies = new ArrayList<>(count);
+        for (int m = 0; m < count; m++) {
+            List<String> genres = new ArrayList<>();
+            for (int g = 1 + random.nextInt(genresPerMovie); g > 0; g--) {
+                genres.add(SyntheticData.GENRES[random.nextInt(SyntheticData.GENRES.length)]);
+            }
+            movies.add(new Movie("Movie " + m, "M" + m, genres));
+        }
+        return movies;
+    }
+}
@@ -0,0 +1,117 @@
+package benchmark;
+
+import org.example.*;
+
+import java.io.File;
+import java.lang.foreign.Arena;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+// Heap, resident memory and GC time of a large catalog plus every user's
+// likes held as heap objects versus in an OffHeapCatalog and OffHeapLikes.
+// Each model is loaded and then recommended for all users twice; results
+// are dropped as they are produced so only the models stay live. Uses
+// 7-digit IDs so catalogs can exceed 1000 movies. Pass heap or offheap to
+// measure one model per JVM, which keeps the RSS figures apart.
+//
+// Run: java -cp target/classes:target/test-classes benchmark.OffHeapFootprintBenchmark [movies] [users] [heap|offheap]
+public class OffHeapFootprintBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int movieCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int userCount = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        DatasetGenerator generator = new DatasetGenerator();
+        generator.movies = movieCount;
+        generator.users = userCount;
+        generator.idDigits = 7;
+        // many evenly used genres and few likes keep each recommendation list short
+        generator.genres = Math.max(1, movieCount / 10);
+        generator.genreSkew = 0;
+        generator.maxLikes = 10;
+        File movies = Files.createTempFile("bench-movies", ".txt").toFile();
+        File users = Files.createTempFile("bench-users", ".txt").toFile();
+        movies.deleteOnExit();
+        users.deleteOnExit();
+        generator.writeMovies(movies);
+        generator.writeUsers(users);
+        FileHandler fileHandler = new FileHandler(new ExtendedIdValidator(7, ExtendedIdValidator.Uniqueness.SUFFIX));
+
+        System.out.printf("%d movies, %d users%n", movieCount, userCount);
+        System.out.printf("%10s %10s %10s %10s %10s%n", "model", "heap MB", "rss MB", "gc ms", "ms");
+        String mode = args.length > 2 ? args[2] : "both";
+        if (!mode.equals("offheap")) heap(fileHandler, movies, users);
+        if (!mode.equals("heap")) offHeap(fileHandler, movies, users);
+    }
+
+    private static void heap(FileHandler fileHandler, File movies, File users) throws Exception {
+        long rss = rss(), gc = gcMillis(), before = CompactModelFootprintBenchmark.usedHeap();
+        long start = System.nanoTime();
+        List<Movie> catalog = fileHandler.readMovies(movies.getPath(), new ArrayList<>());
+        Set<String> ids = new HashSet<>();
+        for (Movie m : catalog) ids.add(m.getId());
+        List<User> parsed = fileHandler.readUsers(users.getPath(), ids, new ArrayList<>());
+        ids = null;
+        GenreIndex index = new GenreIndex(catalog);
+        GenreIndex.Scratch scratch = index.newScratch();
+        for (int round = 0; round < 2; round++) {
+            for (User user : parsed) Reference.reachabilityFence(index.recommend(user.getLikedMovieIds(), scratch));
+        }
+        long nanos = System.nanoTime() - start;
+        report("heap", before, rss, gc, nanos);
+        Reference.reachabilityFence(catalog);
+        Reference.reachabilityFence(parsed);
+    }
+
+    private static void offHeap(FileHandler fileHandler, File movies, File users) throws Exception {
+        long rss = rss(), gc = gcMillis(), before = CompactModelFootprintBenchmark.usedHeap();
+        long start = System.nanoTime();
+        try (Arena arena = Arena.ofShared()) {
+            OffHeapCatalog catalog = OffHeapCatalog.build(fileHandler.readCatalog(movies.getPath(), new ArrayList<>()), arena);
+            OffHeapLikes.Builder builder = new OffHeapLikes.Builder(catalog);
+            // users are validated as they are read and only their likes are kept, off heap
+            List<String> errors = new ArrayList<>();
+            fileHandler.readUsers(users.getPath(), catalog.movieIds(), errors, user -> builder.add(user.getLikedMovieIds()));
+            if (!errors.isEmpty()) throw new IllegalStateException(errors.get(0));
+            try (OffHeapLikes likes = builder.build()) {
+                OffHeapCatalog.Scratch scratch = catalog.newScratch();
+                int[] buffer = new int[16];
+                for (int round = 0; round < 2; round++) {
+                    for (int u = 0; u < likes.userCount(); u++) {
+                        Reference.reachabilityFence(likes.recommend(catalog, u, scratch, buffer));
+                    }
+                }
+                long nanos = System.nanoTime() - start;
+                report("offheap", before, rss, gc, nanos);
+            }
+        }
+    }
+
+    private static void report(String name, long heapBefore, long rssBefore, long gcBefore, long nanos) throws Exception {
+        long heap = CompactModelFootprintBenchmark.usedHeap() - heapBefore;
+        System.out.printf("%10s %10.1f %10.1f %10d %10.1f%n", name, heap / (1024.0 * 1024.0),
+                (rss() - rssBefore) / (1024.0 * 1024.0), gcMillis() - gcBefore, nanos / 1e6);
+    }
+
+    static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, bean.getCollectionTime());
+        }
+        return total;
+    }
+
+    // Resident set size from /proc; 0 where it is not available.
+    static long rss() throws Exception {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.exists(status)) return 0;
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+        }
+        return 0;
+    }
+}
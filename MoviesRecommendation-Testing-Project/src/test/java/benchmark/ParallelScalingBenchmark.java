@@ -0,0 +1,43 @@
+package benchmark;
+
+import org.example.IndexedRecommendationSystem;
+import org.example.Movie;
+import org.example.ParallelRecommendationSystem;
+import org.example.Recommender;
+import org.example.User;
+
+import java.util.List;
+
+// Times ParallelRecommendationSystem at 1, 2, 4 ... N threads against the
+// single-threaded indexed engine on the same synthetic input.
+//
+// Run: java -cp target/classes:target/test-classes benchmark.ParallelScalingBenchmark [users] [maxThreads]
+public class ParallelScalingBenchmark {
+
+    public static void main(String[] args) {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        List<Movie> movies = SyntheticData.movies(1000, 3, 42);
+        List<User> users = SyntheticData.users(userCount, movies, 5, 43);
+
+        long baseline = best(new IndexedRecommendationSystem(), users, movies);
+        System.out.printf("%8s %10s %8s%n", "threads", "ms", "speedup");
+        System.out.printf("%8s %10.1f %8s%n", "indexed", baseline / 1e6, "1.00");
+        // powers of two, then maxThreads itself when it is not one
+        for (int threads = 1; threads <= maxThreads; threads = threads == maxThreads ? maxThreads + 1 : Math.min(threads * 2, maxThreads)) {
+            long nanos = best(new ParallelRecommendationSystem(threads), users, movies);
+            System.out.printf("%8d %10.1f %8.2f%n", threads, nanos / 1e6, (double) baseline / nanos);
+        }
+    }
+
+    static long best(Recommender recommender, List<User> users, List<Movie> movies) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            recommender.recommend(users, movies);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
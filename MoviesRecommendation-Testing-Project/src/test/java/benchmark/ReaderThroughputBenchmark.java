@@ -0,0 +1,64 @@
+package benchmark;
+
+import org.example.FileHandler;
+import org.example.InputValidator;
+import org.example.MappedFileHandler;
+import org.example.ParallelFileHandler;
+import org.example.Movie;
+import org.example.ScanningValidator;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Compares parse throughput of the BufferedReader based FileHandler with
+// MappedFileHandler and ParallelFileHandler on a synthetic users.txt.
+//
+// Run: java -cp target/classes:target/test-classes benchmark.ReaderThroughputBenchmark [users] [threads]
+public class ReaderThroughputBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        Path moviesFile = SyntheticData.writeMovies(1000, 3);
+        Path usersFile = SyntheticData.writeUsers(userCount, 1000, 5);
+        double megabytes = Files.size(usersFile) / (1024.0 * 1024.0);
+
+        List<Movie> movies = new FileHandler(new InputValidator()).readMovies(moviesFile.toString(), new ArrayList<>());
+        Set<String> movieIds = new HashSet<>();
+        for (Movie m : movies) movieIds.add(m.getId());
+
+        // the scanning validator keeps validation cost out of the comparison
+        FileHandler buffered = new FileHandler(new ScanningValidator());
+        FileHandler mapped = new MappedFileHandler(new ScanningValidator());
+        FileHandler parallel = new ParallelFileHandler(new ScanningValidator(), threads);
+        // and the default regex validator, where validation is most of the work
+        FileHandler bufferedRegex = new FileHandler(new InputValidator());
+        FileHandler parallelRegex = new ParallelFileHandler(new InputValidator(), threads);
+
+        System.out.printf("users.txt: %d users, %.1f MB%n", userCount, megabytes);
+        System.out.printf("%d threads for the parallel reader%n", threads);
+        System.out.printf("%16s %10s %10s%n", "reader", "ms", "MB/s");
+        for (int round = 0; round < 3; round++) {
+            report("buffered", buffered, usersFile, movieIds, megabytes);
+            report("mapped", mapped, usersFile, movieIds, megabytes);
+            report("parallel", parallel, usersFile, movieIds, megabytes);
+            report("buffered+regex", bufferedRegex, usersFile, movieIds, megabytes);
+            report("parallel+regex", parallelRegex, usersFile, movieIds, megabytes);
+        }
+    }
+
+    static void report(String name, FileHandler fileHandler, Path usersFile, Set<String> movieIds, double megabytes) throws Exception {
+        List<String> errors = new ArrayList<>();
+        long start = System.nanoTime();
+        int[] count = new int[1];
+        fileHandler.readUsers(usersFile.toString(), movieIds, errors, user -> count[0]++);
+        long nanos = System.nanoTime() - start;
+        if (!errors.isEmpty()) throw new IllegalStateException(errors.get(0));
+        System.out.printf("%16s %10.1f %10.1f%n", name, nanos / 1e6, megabytes / (nanos / 1e9));
+    }
+}
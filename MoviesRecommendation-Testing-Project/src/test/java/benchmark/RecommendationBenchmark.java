@@ -0,0 +1,52 @@
+package benchmark;
+
+import org.example.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Full recommendation pass over in-memory users for each engine.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RecommendationBenchmark {
+
+    @Param({"1000"})
+    public int movies;
+
+    @Param({"10000", "100000"})
+    public int users;
+
+    @Param({"1", "3"})
+    public int genresPerMovie;
+
+    @Param({"1", "5", "20"})
+    public int likesPerUser;
+
+    @Param({"genre", "indexed", "parallel", "topk", "neighbors"})
+    public String engine;
+
+    private Recommender recommender;
+    private List<Movie> catalog;
+    private List<User> userList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        recommender = switch (engine) {
+            case "indexed" -> new IndexedRecommendationSystem();
+            case "parallel" -> new ParallelRecommendationSystem();
+            case "topk" -> new TopKRecommender(20, TopKRecommender.Scoring.OVERLAP);
+            case "neighbors" -> new NeighborRecommender(20, 20, null);
+            default -> new RecommendationSystem();
+        };
+        catalog = SyntheticData.movies(movies, genresPerMovie, 42);
+        userList = SyntheticData.users(users, catalog, likesPerUser, 43);
+    }
+
+    @Benchmark
+    public Map<User, List<String>> generateRecommendations() {
+        return recommender.recommend(userList, catalog);
+    }
+}
@@ -0,0 +1,64 @@
+package benchmark;
+
+import org.example.IndexedRecommendationSystem;
+import org.example.Movie;
+import org.example.RecommendationSystem;
+import org.example.Recommender;
+import org.example.ResultCache;
+import org.example.User;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Times the genre and indexed engines without a result cache, then the
+// genre engine with one on a cold run, a run with nothing changed and a run
+// where a share of the users changed their likes, as between two nightly
+// runs.
+//
+// Run: java -cp target/classes:target/test-classes benchmark.ResultCacheBenchmark [users] [changed %]
+public class ResultCacheBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int changedPercent = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        List<Movie> movies = SyntheticData.movies(1000, 2, 42);
+        List<User> users = SyntheticData.users(userCount, movies, 2, 43);
+        List<User> changed = new ArrayList<>(users);
+        Random random = new Random(44);
+        for (int i = 0; i < changed.size(); i++) {
+            if (random.nextInt(100) >= changedPercent) continue;
+            User user = changed.get(i);
+            List<String> likes = new ArrayList<>(user.getLikedMovieIds());
+            likes.set(0, movies.get(random.nextInt(movies.size())).getId());
+            changed.set(i, new User(user.getName(), user.getId(), likes));
+        }
+
+        Path dir = Files.createTempDirectory("result-cache-bench");
+        Path file = dir.resolve("recommendations.txt.results");
+        try {
+            time("uncached", new RecommendationSystem(), users, movies);
+            time("indexed", new IndexedRecommendationSystem(), users, movies);
+            RecommendationSystem cached = new RecommendationSystem(file, 4L << 30);
+            time("cold", cached, users, movies);
+            time("unchanged", cached, users, movies);
+            time(changedPercent + "% changed", cached, changed, movies);
+            ResultCache.Stats stats = cached.getLastCacheStats();
+            System.out.printf("hit rate %.1f%%, %d compactions, file %d MB%n",
+                    stats.hitRate() * 100, stats.compactions(), Files.size(file) >> 20);
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static void time(String label, Recommender recommender, List<User> users, List<Movie> movies) {
+        long start = System.nanoTime();
+        recommender.recommend(users, movies);
+        System.out.printf("%-14s %8.1f ms%n", label, (System.nanoTime() - start) / 1e6);
+    }
+}
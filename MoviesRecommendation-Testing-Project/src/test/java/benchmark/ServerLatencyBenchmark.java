@@ -0,0 +1,117 @@
+package benchmark;
+
+import org.example.CatalogWatcher;
+import org.example.FileHandler;
+import org.example.GenreIndex;
+import org.example.InputValidator;
+import org.example.LatencyRecorder;
+import org.example.Movie;
+import org.example.RecommendationServer;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Starts a RecommendationServer over a synthetic catalog and sends liked-ID
+// queries from concurrent clients on virtual threads. Prints throughput and
+// the latencies seen by the clients and measured by the server. With a
+// reload interval the catalog file is touched that often and a
+// CatalogWatcher rebuilds and swaps in the index while requests run.
+//
+// Run: java -cp target/classes:target/test-classes benchmark.ServerLatencyBenchmark [requests] [clients] [movies] [reload ms]
+public class ServerLatencyBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int movieCount = args.length > 2 ? Integer.parseInt(args[2]) : 900;
+        long reloadMillis = args.length > 3 ? Long.parseLong(args[3]) : 0;
+
+        Path moviesFile = SyntheticData.writeMovies(movieCount, 1);
+        FileHandler fileHandler = new FileHandler(new InputValidator());
+        List<String> errors = new ArrayList<>();
+        List<Movie> movies = fileHandler.readMovies(moviesFile.toString(), errors);
+        if (!errors.isEmpty()) throw new IllegalStateException(errors.get(0));
+        RecommendationServer server = new RecommendationServer(new GenreIndex(movies), List.of());
+        server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        CatalogWatcher watcher = new CatalogWatcher(moviesFile,
+                reloadErrors -> new GenreIndex(fileHandler.readMovies(moviesFile.toString(), reloadErrors)), server::setIndex);
+        Thread toucher = new Thread(() -> {
+            try {
+                for (long time = 1; ; time++) {
+                    Thread.sleep(reloadMillis);
+                    Files.setLastModifiedTime(moviesFile, FileTime.fromMillis(time * 1000));
+                }
+            } catch (Exception e) {
+                // interrupted at the end of the run
+            }
+        });
+        if (reloadMillis > 0) {
+            watcher.start(Math.max(1, reloadMillis / 4));
+            toucher.start();
+        }
+        try {
+            // warm-up, not counted on the client side
+            run(client, server.getPort(), movies, requests / 10, clients, new LatencyRecorder());
+
+            LatencyRecorder seen = new LatencyRecorder();
+            long start = System.nanoTime();
+            run(client, server.getPort(), movies, requests, clients, seen);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("%d requests from %d clients in %.2f s, %.0f requests/s%n",
+                    requests, clients, seconds, requests / seconds);
+            System.out.println("client: " + seen.snapshot());
+            System.out.println("server: " + server.latency());
+            if (reloadMillis > 0) System.out.println("catalog reloads: " + watcher.stats().reloads());
+        } finally {
+            toucher.interrupt();
+            watcher.close();
+            server.stop();
+        }
+    }
+
+    private static void run(HttpClient client, int port, List<Movie> movies, int requests, int clients,
+                            LatencyRecorder seen) throws Exception {
+        AtomicInteger left = new AtomicInteger(requests);
+        List<Throwable> failures = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                long seed = c;
+                pool.submit(() -> {
+                    Random random = new Random(seed);
+                    try {
+                        while (left.getAndDecrement() > 0) {
+                            String liked = movies.get(random.nextInt(movies.size())).getId() + ","
+                                    + movies.get(random.nextInt(movies.size())).getId();
+                            HttpRequest request = HttpRequest.newBuilder(
+                                    URI.create("http://localhost:" + port + "/recommendations?liked=" + liked)).build();
+                            long sent = System.nanoTime();
+                            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                            seen.record(System.nanoTime() - sent);
+                            if (response.statusCode() != 200) throw new IllegalStateException("Status " + response.statusCode());
+                        }
+                    } catch (Exception e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                });
+            }
+        }
+        if (!failures.isEmpty()) throw new IllegalStateException("Requests failed", failures.get(0));
+    }
+}
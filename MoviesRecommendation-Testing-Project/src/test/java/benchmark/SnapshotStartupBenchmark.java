@@ -0,0 +1,49 @@
+package benchmark;
+
+import org.example.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Cold-start time of a large catalog: parsing movies.txt versus loading the
+// binary snapshot written by FileHandler.readMoviesCached. Uses 7-digit IDs
+// so catalogs can exceed 1000 movies.
+//
+// Run: java -cp target/classes:target/test-classes benchmark.SnapshotStartupBenchmark [movies]
+public class SnapshotStartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int movieCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        DatasetGenerator generator = new DatasetGenerator();
+        generator.movies = movieCount;
+        generator.idDigits = 7;
+        Path dir = Files.createTempDirectory("bench-snapshot");
+        File movies = dir.resolve("movies.txt").toFile();
+        generator.writeMovies(movies);
+        movies.deleteOnExit();
+        CatalogSnapshot.snapshotPath(movies.getPath()).toFile().deleteOnExit();
+
+        FileHandler fileHandler = new FileHandler(new ExtendedIdValidator(7, ExtendedIdValidator.Uniqueness.SUFFIX));
+        System.out.printf("%d movies, %.1f MB%n", movieCount, movies.length() / (1024.0 * 1024.0));
+        System.out.printf("%10s %10s%n", "load", "ms");
+        time("first", () -> fileHandler.readMoviesCached(movies.getPath(), new ArrayList<>()));
+        for (int round = 0; round < 3; round++) {
+            time("parse", () -> fileHandler.readMovies(movies.getPath(), new ArrayList<>()));
+            time("snapshot", () -> fileHandler.readMoviesCached(movies.getPath(), new ArrayList<>()));
+        }
+    }
+
+    interface Load {
+        List<Movie> run() throws Exception;
+    }
+
+    static void time(String name, Load load) throws Exception {
+        long start = System.nanoTime();
+        int size = load.run().size();
+        System.out.printf("%10s %10.1f  (%d movies)%n", name, (System.nanoTime() - start) / 1e6, size);
+    }
+}
@@ -0,0 +1,65 @@
+package benchmark;
+
+import org.example.FileHandler;
+import org.example.GenreIndex;
+import org.example.InputValidator;
+import org.example.Movie;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Times streamRecommendations over generated files: sequentially, with a
+// task per user on virtual threads, and with a task per user on a pool of
+// platform threads, best of five runs each.
+//
+// Run: java -cp target/classes:target/test-classes benchmark.StructuredBatchBenchmark [users] [movies] [threads]
+public class StructuredBatchBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int movieCount = args.length > 1 ? Integer.parseInt(args[1]) : 900;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        Path moviesFile = SyntheticData.writeMovies(movieCount, 2);
+        Path usersFile = SyntheticData.writeUsers(userCount, movieCount, 3);
+        Path output = Files.createTempFile("bench-recommendations", ".txt");
+        output.toFile().deleteOnExit();
+        FileHandler fileHandler = new FileHandler(new InputValidator());
+        List<String> errors = new ArrayList<>();
+        List<Movie> movies = fileHandler.readMovies(moviesFile.toString(), errors);
+        Set<String> ids = new HashSet<>();
+        for (Movie movie : movies) ids.add(movie.getId());
+        GenreIndex index = new GenreIndex(movies);
+
+        System.out.printf("%d users, %d movies, %d platform threads%n", userCount, movieCount, threads);
+        time("sequential", userCount, () -> fileHandler.streamRecommendations(usersFile.toString(), ids, index, output.toString(), errors));
+        for (int window : new int[]{64, FileHandler.STREAM_WINDOW}) {
+            try (ExecutorService virtual = Executors.newVirtualThreadPerTaskExecutor();
+                 ExecutorService platform = Executors.newFixedThreadPool(threads)) {
+                time("virtual/" + window, userCount, () -> fileHandler.streamRecommendations(usersFile.toString(), ids, index,
+                        output.toString(), errors, virtual, window));
+                time("platform/" + window, userCount, () -> fileHandler.streamRecommendations(usersFile.toString(), ids, index,
+                        output.toString(), errors, platform, window));
+            }
+        }
+        if (!errors.isEmpty()) throw new IllegalStateException(errors.get(0));
+    }
+
+    private interface Run {
+        void run() throws IOException;
+    }
+
+    private static void time(String label, int userCount, Run run) throws IOException {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            run.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-16s %8.1f ms  %8.0f users/s%n", label, best / 1e6, userCount / (best / 1e9));
+    }
+}
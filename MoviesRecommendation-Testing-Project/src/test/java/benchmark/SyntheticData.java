@@ -0,0 +1,83 @@
+package benchmark;
+
+import org.example.DatasetGenerator;
+import org.example.Movie;
+import org.example.User;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Benchmark inputs. Files come from DatasetGenerator; the in-memory lists
+// reuse its titles and IDs so both kinds of input look alike.
+public class SyntheticData {
+
+    static final long CATALOG_SEED = 42;
+
+    static final String[] GENRES = {
+            "Action", "Drama", "Comedy", "Crime", "Horror", "Romance", "Thriller", "Fantasy",
+            "Animation", "Documentary", "Mystery", "Western", "Musical", "War", "History", "Family"
+    };
+
+    private static final DatasetGenerator CATALOG = generator(1000, 0, 3, 1);
+
+    // Users always reference the catalog written with CATALOG_SEED.
+    public static DatasetGenerator generator(int movies, int users, int genresPerMovie, int likesPerUser) {
+        DatasetGenerator generator = new DatasetGenerator();
+        generator.movies = movies;
+        generator.users = users;
+        generator.genres = GENRES.length;
+        generator.genresPerMovie = genresPerMovie;
+        generator.minLikes = likesPerUser;
+        generator.maxLikes = likesPerUser;
+        generator.seed = CATALOG_SEED;
+        return generator;
+    }
+
+    public static String movieTitle(int index) {
+        return CATALOG.movieTitle(index);
+    }
+
+    public static String movieId(int index) {
+        return CATALOG.movieId(index);
+    }
+
+    public static Path writeMovies(int count, int genresPerMovie) throws IOException {
+        Path file = Files.createTempFile("bench-movies", ".txt");
+        file.toFile().deleteOnExit();
+        generator(count, 0, genresPerMovie, 1).writeMovies(file.toFile());
+        return file;
+    }
+
+    public static Path writeUsers(int count, int movieCount, int likesPerUser) throws IOException {
+        Path file = Files.createTempFile("bench-users", ".txt");
+        file.toFile().deleteOnExit();
+        generator(movieCount, count, 1, likesPerUser).writeUsers(file.toFile());
+        return file;
+    }
+
+    public static List<Movie> movies(int count, int genresPerMovie, long seed) {
+        Random random = new Random(seed);
+        List<Movie> movies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<String> genres = new ArrayList<>(genresPerMovie);
+            for (int g = 0; g < genresPerMovie; g++) genres.add(GENRES[random.nextInt(GENRES.length)]);
+            movies.add(new Movie(movieTitle(i), movieId(i), genres));
+        }
+        return movies;
+    }
+
+    public static List<User> users(int count, List<Movie> movies, int likesPerUser, long seed) {
+        Random random = new Random(seed);
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<String> likes = new ArrayList<>(likesPerUser);
+            for (int l = 0; l < likesPerUser; l++) likes.add(movies.get(random.nextInt(movies.size())).getId());
+            users.add(new User("User", String.format("%08dA", i), likes));
+        }
+        return users;
+    }
+}
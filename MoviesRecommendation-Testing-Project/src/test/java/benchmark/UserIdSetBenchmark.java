@@ -0,0 +1,82 @@
+package benchmark;
+
+import org.example.ConcurrentUserIdSet;
+
+import java.lang.ref.Reference;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+// Insert time and retained heap of ConcurrentHashMap.newKeySet() versus
+// ConcurrentUserIdSet for user IDs added from several threads, as a
+// parallel loader does. About 1% of the IDs are repeats. The "first" rows
+// keep each ID's smallest record position, as ParallelFileHandler needs:
+// a ConcurrentHashMap<String, Long> against ConcurrentUserIdSet.claim.
+//
+// Run: java -cp target/classes:target/test-classes benchmark.UserIdSetBenchmark [ids] [threads]
+public class UserIdSetBenchmark {
+
+    interface Inserter {
+        void insert(String id, long position);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        String letters = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+        Random random = new Random(20);
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            int index = random.nextInt(100) == 0 ? random.nextInt(i + 1) : i;
+            ids[i] = String.format("%08d", index) + letters.charAt(index % letters.length());
+        }
+
+        System.out.printf("%d IDs, %d threads%n", count, threads);
+        System.out.printf("%16s %10s %10s%n", "set", "ms", "MB");
+        for (int round = 0; round < 3; round++) {
+            run("keySet", ids, threads, () -> {
+                Set<String> set = ConcurrentHashMap.newKeySet();
+                return new Object[]{set, (Inserter) (id, position) -> set.add(id)};
+            });
+            run("userIdSet", ids, threads, () -> {
+                ConcurrentUserIdSet set = new ConcurrentUserIdSet();
+                return new Object[]{set, (Inserter) (id, position) -> set.add(id)};
+            });
+            run("first/map", ids, threads, () -> {
+                ConcurrentHashMap<String, Long> map = new ConcurrentHashMap<>();
+                return new Object[]{map, (Inserter) (id, position) -> map.merge(id, position, Math::min)};
+            });
+            run("first/userIdSet", ids, threads, () -> {
+                ConcurrentUserIdSet set = new ConcurrentUserIdSet();
+                return new Object[]{set, (Inserter) (id, position) -> set.claim(id, position)};
+            });
+        }
+    }
+
+    private static void run(String name, String[] ids, int threads, Supplier<Object[]> factory) throws Exception {
+        long before = CompactModelFootprintBenchmark.usedHeap();
+        Object[] created = factory.get();
+        Inserter inserter = (Inserter) created[1];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            int slice = (ids.length + threads - 1) / threads;
+            for (int t = 0; t < threads; t++) {
+                int from = t * slice;
+                int to = Math.min(ids.length, from + slice);
+                futures.add(pool.submit(() -> {
+                    for (int i = from; i < to; i++) inserter.insert(ids[i], i);
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        } finally {
+            pool.shutdown();
+        }
+        long nanos = System.nanoTime() - start;
+        long after = CompactModelFootprintBenchmark.usedHeap();
+        System.out.printf("%16s %10.1f %10.1f%n", name, nanos / 1e6, (after - before) / (1024.0 * 1024.0));
+        Reference.reachabilityFence(created);
+    }
+}
@@ -0,0 +1,69 @@
+package benchmark;
+
+import org.example.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Cost of each Validator method per call, for every validator implementation.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidatorBenchmark {
+
+    @Param({"regex", "scanning"})
+    public String validator;
+
+    @Param({"500"})
+    public int existingIds;
+
+    private Validator impl;
+    private Set<String> movieIds;
+    private Set<String> userIds;
+    private MovieIdRegistry registry;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        impl = validator.equals("scanning") ? new ScanningValidator() : new InputValidator();
+        movieIds = new HashSet<>();
+        userIds = new HashSet<>();
+        registry = impl.newMovieIdRegistry();
+        for (int i = 0; i < existingIds; i++) {
+            movieIds.add(SyntheticData.movieId(i));
+            registry.register(SyntheticData.movieId(i));
+            userIds.add(String.format("%08dB", i));
+        }
+    }
+
+    @Benchmark
+    public boolean isValidMovieTitle() {
+        return impl.isValidMovieTitle("The Shawshank Redemption");
+    }
+
+    @Benchmark
+    public boolean isMovieIdLettersValid() {
+        return impl.isMovieIdLettersValid("The Shawshank Redemption", "TSR999");
+    }
+
+    @Benchmark
+    public boolean isMovieIdSuffixValid() {
+        return impl.isMovieIdSuffixValid("TSR999", movieIds);
+    }
+
+    @Benchmark
+    public boolean registryIsSuffixValid() {
+        return registry.isSuffixValid("TSR999");
+    }
+
+    @Benchmark
+    public boolean isValidUserName() {
+        return impl.isValidUserName("Hassan Ali");
+    }
+
+    @Benchmark
+    public boolean isValidUserId() {
+        return impl.isValidUserId("12345678X", userIds);
+    }
+}
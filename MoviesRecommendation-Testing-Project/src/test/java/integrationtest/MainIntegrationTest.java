@@ -2,7 +2,9 @@ package org.integration_test;
 
 import org.example.Main;
 import org.junit.jupiter.api.*;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.nio.file.*;
 import java.util.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -119,4 +121,358 @@ public class MainIntegrationTest {
         List<String> result = runMainAndReadOutput();
         assertTrue(result.get(0).toLowerCase().contains("error"));
     }
+
+    @Test
+    void scanningValidatorProducesSameOutput() throws IOException {
+        createFiles(
+                "The Dark Knight,TDK003\nAction, Crime\nThe Godfather,TG002\nCrime, Drama\n",
+                "Hassan Ali,12345678X\nTDK003\n"
+        );
+        List<String> regexResult = runMainAndReadOutput();
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--validator=scanning"});
+        assertEquals(regexResult, Files.readAllLines(output));
+    }
+
+    @Test
+    void scanningValidatorReportsSameError() throws IOException {
+        createFiles(
+                "The Dark Knight,TDK003\nAction\nThe Godfather,TG003\nCrime\n",
+                "Hassan Ali,12345678X\nTDK003\n"
+        );
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--validator=scanning"});
+        assertEquals(List.of("Error ERROR: Movie Id numbers TG003 aren’t unique"), Files.readAllLines(output));
+    }
+
+    @Test
+    void indexedEngineProducesSameOutput() throws IOException {
+        createFiles(
+                "The Dark Knight,TDK003\nAction, Crime\nThe Godfather,TG002\nCrime, Drama\nThe Shawshank Redemption,TSR001\nDrama\n",
+                "Hassan Ali,12345678X\nTDK003\nAli Mohamed,87654321W\nTG002\n"
+        );
+        List<String> genreResult = runMainAndReadOutput();
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--engine=indexed"});
+        assertEquals(genreResult, Files.readAllLines(output));
+    }
+
+    @Test
+    void parallelEngineProducesSameOutput() throws IOException {
+        createFiles(
+                "The Dark Knight,TDK003\nAction, Crime\nThe Godfather,TG002\nCrime, Drama\nThe Shawshank Redemption,TSR001\nDrama\n",
+                "Hassan Ali,12345678X\nTDK003\nAli Mohamed,87654321W\nTG002\n"
+        );
+        List<String> genreResult = runMainAndReadOutput();
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--engine=parallel", "--threads=2"});
+        assertEquals(genreResult, Files.readAllLines(output));
+    }
+
+    @Test
+    void streamingProducesSameOutput() throws IOException {
+        createFiles(
+                "The Dark Knight,TDK003\nAction, Crime\nThe Godfather,TG002\nCrime, Drama\nThe Shawshank Redemption,TSR001\nDrama\n",
+                "Hassan Ali,12345678X\nTDK003\nAli Mohamed,87654321W\nTG002\n"
+        );
+        List<String> batchResult = runMainAndReadOutput();
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--streaming"});
+        assertEquals(batchResult, Files.readAllLines(output));
+    }
+
+    @Test
+    void streamingWritesOnlyFirstError() throws IOException {
+        createFiles(
+                "The Dark Knight,TDK003\nAction, Crime\n",
+                "Hassan Ali,12345678X\nTDK003\nAli Mohamed,87654321W\nXX999\nBad#Name,11111111A\nTDK003\n"
+        );
+        Files.writeString(output, "stale content\n");
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--streaming"});
+        assertEquals(List.of("Error ERROR: User Ali Mohamed has unknown movie ID XX999"), Files.readAllLines(output));
+    }
+
+    @Test
+    void streamingReportsMovieErrors() throws IOException {
+        createFiles(
+                "badtitle,BDT111\nGenre\n",
+                "Jack,123456789\nBDT111\n"
+        );
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--streaming"});
+        List<String> result = Files.readAllLines(output);
+        assertEquals(1, result.size());
+        assertTrue(result.get(0).startsWith("Error ERROR: Movie Title"));
+    }
+
+    @Test
+    void mappedReaderProducesSameOutput() throws IOException {
+        createFiles(
+                "The Dark Knight,TDK003\r\nAction, Crime\r\nThe Godfather,TG002\r\nCrime, Drama\r\n",
+                "Hassan Ali,12345678X\nTDK003\nAli Mohamed,87654321W\nTG002\n"
+        );
+        List<String> bufferedResult = runMainAndReadOutput();
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--reader=mapped"});
+        assertEquals(bufferedResult, Files.readAllLines(output));
+    }
+
+    @Test
+    void extendedValidatorAcceptsLongerIds() throws IOException {
+        createFiles(
+                "The Dark Knight,TDK000003\nAction, Crime\nThe Godfather,TG000002\nCrime, Drama\n",
+                "Hassan Ali,12345678X\nTDK000003\n"
+        );
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--validator=extended", "--id-digits=6"});
+        assertEquals(List.of("Hassan Ali,12345678X", "The Godfather"), Files.readAllLines(output));
+    }
+
+    @Test
+    void snapshotRunsProduceSameOutput() throws IOException {
+        createFiles(
+                "The Dark Knight,TDK003\nAction, Crime\nThe Godfather,TG002\nCrime, Drama\n",
+                "Hassan Ali,12345678X\nTDK003\n"
+        );
+        List<String> plainResult = runMainAndReadOutput();
+        for (int run = 0; run < 2; run++) {
+            Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--snapshot"});
+            assertEquals(plainResult, Files.readAllLines(output));
+        }
+        assertTrue(Files.deleteIfExists(Paths.get(movies + ".snap")));
+    }
+
+    @Test
+    void topKRanksAndTruncatesRecommendations() throws IOException {
+        createFiles(
+                "Deadpool,D001\nAction, Comedy\nExtraction,E002\nAction\nKung Fu Hustle,KFH003\nAction, Comedy, Fantasy\nThe Hangover,TH004\nComedy\n",
+                "Hassan Ali,12345678X\nD001\n"
+        );
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--top-k=2", "--scoring=weighted"});
+        assertEquals(List.of("Hassan Ali,12345678X", "Kung Fu Hustle, Extraction"), Files.readAllLines(output));
+    }
+
+    @Test
+    void neighborEngineStoresTableWithSnapshot() throws IOException {
+        createFiles(
+                "Deadpool,D001\nAction, Comedy\nExtraction,E002\nAction\nKung Fu Hustle,KFH003\nAction, Comedy\nThe Godfather,TG004\nDrama\n",
+                "Hassan Ali,12345678X\nD001\n"
+        );
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--engine=neighbors", "--neighbors=5", "--snapshot"});
+        assertEquals(List.of("Hassan Ali,12345678X", "Kung Fu Hustle, Extraction"), Files.readAllLines(output));
+        assertTrue(Files.exists(Paths.get(movies + ".nbr")));
+    }
+
+    @Test
+    void coLikeEngineUsesOtherUsersLikes() throws IOException {
+        createFiles(
+                "Up,U001\nAnimation\nHeat,H002\nCrime\nAlien,A004\nHorror\n",
+                "Hassan Ali,12345678X\nU001, H002\nAli Mohamed,87654321W\nU001\n"
+        );
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--engine=colike", "--memory-mb=1"});
+        assertEquals(List.of("Hassan Ali,12345678X", "", "Ali Mohamed,87654321W", "Heat"), Files.readAllLines(output));
+    }
+
+    @Test
+    void minHashEngineRecommendsFromSimilarUsers() throws IOException {
+        createFiles(
+                "Up,U001\nAnimation\nHeat,H002\nCrime\nAlien,A004\nHorror\n",
+                "Hassan Ali,12345678X\nU001, H002\nAli Mohamed,87654321W\nU001, H002, A004\n"
+        );
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--engine=minhash", "--minhash-mode=user"});
+        assertEquals(List.of("Hassan Ali,12345678X", "Alien", "Ali Mohamed,87654321W", ""), Files.readAllLines(output));
+    }
+
+    @Test
+    void compactRecordsProduceSameOutput() throws IOException {
+        createFiles(
+                "The Dark Knight,TDK003\nAction, Crime\nThe Godfather,TG002\nCrime, Drama\nThe Shawshank Redemption,TSR001\nDrama\n",
+                "Hassan Ali,12345678X\nTDK003\nAli Mohamed,87654321W\nTG002, TSR001\n"
+        );
+        List<String> plain = runMainAndReadOutput();
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--compact"});
+        assertEquals(plain, Files.readAllLines(output));
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--compact", "--reader=mapped"});
+        assertEquals(plain, Files.readAllLines(output));
+    }
+
+    @Test
+    void columnarCatalogProducesSameOutput() throws IOException {
+        createFiles(
+                "The Dark Knight,TDK003\nAction, Crime\nThe Godfather,TG002\nCrime, Drama\nThe Shawshank Redemption,TSR001\nDrama\n",
+                "Hassan Ali,12345678X\nTDK003\nAli Mohamed,87654321W\nTG002, TSR001\n"
+        );
+        List<String> plain = runMainAndReadOutput();
+        for (String[] extra : new String[][]{{}, {"--engine=parallel"}, {"--streaming"}, {"--reader=mapped"}}) {
+            List<String> args = new ArrayList<>(List.of(movies.toString(), users.toString(), output.toString(), "--columnar"));
+            args.addAll(List.of(extra));
+            Main.main(args.toArray(new String[0]));
+            assertEquals(plain, Files.readAllLines(output), String.join(" ", extra));
+        }
+    }
+
+    @Test
+    void offHeapEngineProducesSameOutput() throws IOException {
+        createFiles(
+                "The Dark Knight,TDK003\nAction, Crime\nThe Godfather,TG002\nCrime, Drama\nThe Shawshank Redemption,TSR001\nDrama\n",
+                "Hassan Ali,12345678X\nTDK003\nAli Mohamed,87654321W\nTG002, TSR001\n"
+        );
+        List<String> plain = runMainAndReadOutput();
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--engine=offheap"});
+        assertEquals(plain, Files.readAllLines(output));
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--engine=offheap", "--columnar"});
+        assertEquals(plain, Files.readAllLines(output));
+    }
+
+    @Test
+    void incrementalRunsMatchFullRun() throws IOException {
+        createFiles(
+                "The Dark Knight,TDK003\nAction, Crime\nThe Godfather,TG002\nCrime, Drama\nThe Shawshank Redemption,TSR001\nDrama\n",
+                "Hassan Ali,12345678X\nTDK003\nAli Mohamed,87654321W\nTG002, TSR001\n"
+        );
+        List<String> plain = runMainAndReadOutput();
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--incremental"});
+        assertEquals(plain, Files.readAllLines(output));
+        assertTrue(Files.exists(Paths.get(output + ".state")));
+
+        Files.writeString(users, "Hassan Ali,12345678X\nTSR001\nAli Mohamed,87654321W\nTG002, TSR001\n");
+        List<String> changed = runMainAndReadOutput();
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--incremental"});
+        assertEquals(changed, Files.readAllLines(output));
+    }
+
+    @Test
+    void parallelReaderProducesSameOutput() throws IOException {
+        createFiles(
+                "The Dark Knight,TDK003\nAction, Crime\nThe Godfather,TG002\nCrime, Drama\n",
+                "Hassan Ali,12345678X\nTDK003\n\nAli Mohamed,87654321W\nTG002\nOmar,11111111A\nTDK003, TG002\n"
+        );
+        List<String> bufferedResult = runMainAndReadOutput();
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--reader=parallel", "--threads=2"});
+        assertEquals(bufferedResult, Files.readAllLines(output));
+    }
+
+    @Test
+    void cachedEngineProducesSameOutput() throws IOException {
+        createFiles(
+                "The Dark Knight,TDK003\nAction, Crime\nThe Godfather,TG002\nCrime, Drama\nThe Godfather,TGF004\nDrama\n",
+                "Hassan Ali,12345678X\nTDK003\nAli Mohamed,87654321W\nTG002\nOmar,11111111A\nTDK003\nMona,22222222B\nTGF004\n"
+        );
+        List<String> genreResult = runMainAndReadOutput();
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--engine=cached", "--cache-titles=2"});
+        assertEquals(genreResult, Files.readAllLines(output));
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--engine=cached", "--threads=2"});
+        assertEquals(genreResult, Files.readAllLines(output));
+    }
+
+    @Test
+    void resultCacheRunsProduceSameOutput() throws IOException {
+        createFiles(
+                "The Dark Knight,TDK003\nAction, Crime\nThe Godfather,TG002\nCrime, Drama\nThe Shawshank Redemption,TSR001\nDrama\n",
+                "Hassan Ali,12345678X\nTDK003\nAli Mohamed,87654321W\nTG002, TSR001\n"
+        );
+        Path cache = Paths.get(output + ".results");
+        List<String> plain = runMainAndReadOutput();
+        for (int run = 0; run < 2; run++) {
+            Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--result-cache=" + cache});
+            assertEquals(plain, Files.readAllLines(output));
+        }
+        assertTrue(Files.size(cache) > 0);
+
+        Files.writeString(users, "Hassan Ali,12345678X\nTSR001\nAli Mohamed,87654321W\nTG002, TSR001\n");
+        List<String> changed = runMainAndReadOutput();
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--result-cache=" + cache});
+        assertEquals(changed, Files.readAllLines(output));
+        Files.delete(cache);
+    }
+
+    @Test
+    void executorStreamingProducesSameOutput() throws IOException {
+        createFiles(
+                "The Dark Knight,TDK003\nAction, Crime\nThe Godfather,TG002\nCrime, Drama\nThe Godfather,TGF004\nDrama\n",
+                "Hassan Ali,12345678X\nTDK003\nAli Mohamed,87654321W\nTG002\nOmar,11111111A\nTDK003\nMona,22222222B\nTGF004\n"
+        );
+        List<String> batchResult = runMainAndReadOutput();
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--streaming", "--executor=virtual", "--window=3"});
+        assertEquals(batchResult, Files.readAllLines(output));
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--streaming", "--executor=platform", "--threads=2"});
+        assertEquals(batchResult, Files.readAllLines(output));
+
+        Files.writeString(users, "Hassan Ali,12345678X\nTDK003\nAli Mohamed,87654321W\nXX999\nOmar,11111111A\nTDK003\n");
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--streaming", "--executor=virtual"});
+        assertEquals(List.of("Error ERROR: User Ali Mohamed has unknown movie ID XX999"), Files.readAllLines(output));
+    }
+
+    @Test
+    void offHeapCatalogFileIsMappedUntilMoviesChange() throws IOException {
+        createFiles(
+                "The Dark Knight,TDK003\nAction, Crime\nThe Godfather,TG002\nCrime, Drama\nThe Shawshank Redemption,TSR001\nDrama\n",
+                "Hassan Ali,12345678X\nTDK003\nAli Mohamed,87654321W\nTG002, TSR001\n"
+        );
+        Path catalog = Paths.get(output + ".offheap");
+        List<String> plain = runMainAndReadOutput();
+        for (int run = 0; run < 2; run++) {
+            Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--engine=offheap", "--offheap-catalog=" + catalog});
+            assertEquals(plain, Files.readAllLines(output));
+        }
+        assertTrue(Files.size(catalog) > 0);
+
+        Files.writeString(movies, "The Dark Knight,TDK003\nAction, Crime\nThe Godfather,TG002\nCrime\nThe Shawshank Redemption,TSR001\nDrama\n");
+        List<String> changed = runMainAndReadOutput();
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--engine=offheap", "--offheap-catalog=" + catalog});
+        assertEquals(changed, Files.readAllLines(output));
+
+        Files.writeString(users, "Hassan Ali,12345678X\nTDK003\nAli Mohamed,87654321W\nXX999\n");
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--engine=offheap", "--offheap-catalog=" + catalog});
+        assertEquals(List.of("Error ERROR: User Ali Mohamed has unknown movie ID XX999"), Files.readAllLines(output));
+        Files.delete(catalog);
+    }
+
+    @Test
+    void ignoredOptionCombinationsAreRejected() throws IOException {
+        createFiles("Deadpool,D001\nAction\n", "Hassan Ali,12345678X\nD001\n");
+        PrintStream err = System.err;
+        try {
+            for (String[] options : new String[][]{
+                    {"--engine=parallel", "--top-k=5"},
+                    {"--engine=typo", "--top-k=5"},
+                    {"--streaming", "--top-k=5"},
+                    {"--streaming", "--engine=indexed"},
+                    {"--incremental", "--engine=offheap"},
+                    {"--serve", "--engine=neighbors"},
+                    {"--streaming", "--result-cache=cache.bin"},
+                    {"--engine=parallel", "--result-cache=cache.bin"},
+                    {"--executor=virtual"},
+                    {"--streaming", "--executor=virtual", "--incremental"},
+                    {"--window=8"},
+                    {"--watch"},
+                    {"--offheap-catalog=catalog.bin"},
+                    {"--top-k=five"},
+                    {"--validator=typo"}}) {
+                List<String> args = new ArrayList<>(List.of(movies.toString(), users.toString(), output.toString()));
+                args.addAll(List.of(options));
+                ByteArrayOutputStream printed = new ByteArrayOutputStream();
+                System.setErr(new PrintStream(printed, true));
+                Main.main(args.toArray(new String[0]));
+                String message = printed.toString().strip();
+                assertTrue(message.startsWith("Option error: ") && !message.contains("\n"), String.join(" ", options) + ": " + message);
+            }
+        } finally {
+            System.setErr(err);
+        }
+        assertEquals(0, Files.size(output));
+
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--engine=offheap", "--streaming"});
+        assertEquals(List.of("Hassan Ali,12345678X", ""), Files.readAllLines(output));
+    }
+
+    @Test
+    void offHeapCatalogFileIsNotReusedUnderAnotherValidator() throws IOException {
+        createFiles(
+                "The Matrix,TM1234\nAction, Sci-Fi\nThe Godfather,TG5678\nCrime, Drama\n",
+                "Hassan Ali,12345678X\nTM1234\n"
+        );
+        Path catalog = Paths.get(output + ".offheap");
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--engine=offheap",
+                "--offheap-catalog=" + catalog, "--validator=extended", "--id-digits=4"});
+        assertEquals("Hassan Ali,12345678X", Files.readAllLines(output).get(0));
+
+        List<String> plain = runMainAndReadOutput();
+        assertTrue(plain.get(0).startsWith("Error ERROR: Movie Id numbers TM1234"), plain.get(0));
+        Main.main(new String[]{movies.toString(), users.toString(), output.toString(), "--engine=offheap", "--offheap-catalog=" + catalog});
+        assertEquals(plain, Files.readAllLines(output));
+        Files.delete(catalog);
+    }
 }
\ No newline at end of file
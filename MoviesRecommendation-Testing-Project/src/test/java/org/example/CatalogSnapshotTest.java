@@ -0,0 +1,99 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogSnapshotTest {
+
+    private static final String MOVIES =
+            "The Shawshank Redemption, TSR001\nDrama\nThe Godfather, TG002\nCrime, Drama\nUp,U003\nRomance ,Comédie\n";
+
+    private static Path moviesFile(String content) throws IOException {
+        Path dir = Files.createTempDirectory("snapshot");
+        Path file = dir.resolve("movies.txt");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private static List<String> describe(List<Movie> movies) {
+        List<String> lines = new ArrayList<>();
+        for (Movie m : movies) lines.add(m.getTitle() + "|" + m.getId() + "|" + m.getGenres());
+        return lines;
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        Path source = moviesFile(MOVIES);
+        List<Movie> movies = new FileHandler(new InputValidator()).readMovies(source.toString(), new ArrayList<>());
+        Path snapshot = CatalogSnapshot.snapshotPath(source.toString());
+
+        CatalogSnapshot.write(snapshot, source, "key", Files.readAttributes(source, BasicFileAttributes.class), movies);
+
+        assertEquals(describe(movies), describe(CatalogSnapshot.load(snapshot, source, "key")));
+    }
+
+    @Test
+    void testStaleOrForeignSnapshotIsIgnored() throws IOException {
+        Path source = moviesFile(MOVIES);
+        List<Movie> movies = new FileHandler(new InputValidator()).readMovies(source.toString(), new ArrayList<>());
+        Path snapshot = CatalogSnapshot.snapshotPath(source.toString());
+        CatalogSnapshot.write(snapshot, source, "key", Files.readAttributes(source, BasicFileAttributes.class), movies);
+
+        assertNull(CatalogSnapshot.load(snapshot, source, "other"));
+
+        FileTime modified = Files.getLastModifiedTime(source);
+        Files.writeString(source, MOVIES.replace("Drama", "Drame"));
+        Files.setLastModifiedTime(source, modified);
+        assertNull(CatalogSnapshot.load(snapshot, source, "key"), "same size and mtime but different content");
+
+        Files.writeString(snapshot, "garbage");
+        assertNull(CatalogSnapshot.load(snapshot, source, "key"));
+    }
+
+    @Test
+    void testReadMoviesCachedWritesAndReusesSnapshot() throws IOException {
+        Path source = moviesFile(MOVIES);
+        FileHandler fileHandler = new FileHandler(new InputValidator());
+        List<String> errors = new ArrayList<>();
+
+        List<Movie> first = fileHandler.readMoviesCached(source.toString(), errors);
+        assertTrue(Files.exists(CatalogSnapshot.snapshotPath(source.toString())));
+        List<Movie> second = fileHandler.readMoviesCached(source.toString(), errors);
+
+        assertTrue(errors.isEmpty());
+        assertEquals(describe(fileHandler.readMovies(source.toString(), new ArrayList<>())), describe(first));
+        assertEquals(describe(first), describe(second));
+        assertEquals(1, Files.list(source.getParent()).filter(p -> p.toString().endsWith(".snap")).count());
+    }
+
+    @Test
+    void testInvalidCatalogIsNotCached() throws IOException {
+        Path source = moviesFile("badtitle,BDT111\nGenre\n");
+        List<String> errors = new ArrayList<>();
+
+        new FileHandler(new InputValidator()).readMoviesCached(source.toString(), errors);
+
+        assertEquals(1, errors.size());
+        assertFalse(Files.exists(CatalogSnapshot.snapshotPath(source.toString())));
+    }
+
+    @Test
+    void testSnapshotOfOtherValidatorIsNotUsed() throws IOException {
+        Path source = moviesFile("Up,U000003\nAnimation\n");
+        List<String> errors = new ArrayList<>();
+        new FileHandler(new ExtendedIdValidator(6, ExtendedIdValidator.Uniqueness.SUFFIX)).readMoviesCached(source.toString(), errors);
+        assertTrue(errors.isEmpty());
+
+        new FileHandler(new InputValidator()).readMoviesCached(source.toString(), errors);
+        assertEquals(List.of("ERROR: Movie Id numbers U000003 aren’t unique"), errors);
+    }
+}
@@ -0,0 +1,88 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogTest {
+
+    @Test
+    void testRoundTripsMovies() {
+        List<Movie> movies = RandomData.movies(new Random(1), 500, 8, 1, 3, false);
+        movies.add(new Movie("Amélie", "AM001", List.of("Comédie", "Romance")));
+        movies.add(new Movie("No Genres", "NG002", List.of()));
+        Catalog catalog = Catalog.of(movies);
+
+        assertEquals(movies.size(), catalog.size());
+        List<Movie> back = catalog.toMovies();
+        for (int m = 0; m < movies.size(); m++) {
+            assertEquals(movies.get(m).getTitle(), back.get(m).getTitle());
+            assertEquals(movies.get(m).getId(), back.get(m).getId());
+            assertEquals(movies.get(m).getGenres(), back.get(m).getGenres());
+        }
+        assertEquals(10, catalog.genreCount());
+        assertEquals("Comédie", catalog.genreName(catalog.genre(catalog.genresFrom(500))));
+    }
+
+    @Test
+    void testMovieOfReturnsLastDuplicate() {
+        List<Movie> movies = List.of(
+                new Movie("First", "M001", List.of("Drama")),
+                new Movie("Other", "M002", List.of("Drama")),
+                new Movie("Second", "M001", List.of("Horror")),
+                new Movie("Élan", "É003", List.of("Drama")));
+        Catalog catalog = Catalog.of(movies);
+
+        assertEquals(2, catalog.movieOf("M001"));
+        assertEquals(1, catalog.movieOf("M002"));
+        assertEquals(3, catalog.movieOf("É003"));
+        assertEquals(-1, catalog.movieOf("M003"));
+        assertEquals(-1, Catalog.of(List.of()).movieOf("M001"));
+    }
+
+    @Test
+    void testRecommendationsMatchMovieList() {
+        Random random = new Random(7);
+        List<Movie> movies = RandomData.movies(random, 300, 8, 1, 3, false);
+        List<User> users = new ArrayList<>();
+        for (int u = 0; u < 500; u++) {
+            List<String> likes = new ArrayList<>();
+            for (int l = random.nextInt(4); l > 0; l--) likes.add("M" + random.nextInt(320));
+            users.add(new User("User", String.format("%08dA", u), likes));
+        }
+        users.add(new User("Nobody", "99999999Z", null));
+        Catalog catalog = Catalog.of(movies);
+
+        Map<User, List<String>> expected = RecommendationSystem.generateRecommendations(users, movies);
+        assertEquals(expected, RecommendationSystem.generateRecommendations(users, catalog));
+        assertEquals(expected, new ParallelRecommendationSystem(2).recommend(users, catalog));
+        assertEquals(expected, new IndexedRecommendationSystem().recommend(users, catalog));
+    }
+
+    @Test
+    void testIndexFromCatalogMatchesIndexFromMovies() {
+        List<Movie> movies = RandomData.movies(new Random(11), 400, 8, 1, 3, false);
+        movies.add(new Movie("Amélie", "É001", List.of("Comédie", "comédie", "ACTION")));
+        GenreIndex fromMovies = new GenreIndex(movies);
+        GenreIndex fromCatalog = new GenreIndex(Catalog.of(movies));
+
+        assertEquals(fromMovies.titleCount(), fromCatalog.titleCount());
+        assertEquals(fromMovies.idCodeCount(), fromCatalog.idCodeCount());
+        assertEquals(fromMovies.genreCount(), fromCatalog.genreCount());
+        for (int t = 0; t < fromMovies.titleCount(); t++) assertEquals(fromMovies.titleOfCode(t), fromCatalog.titleOfCode(t));
+        for (int c = 0; c < fromMovies.idCodeCount(); c++) assertEquals(fromMovies.idOfCode(c), fromCatalog.idOfCode(c));
+        for (int g = 0; g < fromMovies.genreCount(); g++) {
+            assertEquals(fromMovies.genreName(g), fromCatalog.genreName(g));
+            assertArrayEquals(fromMovies.moviesWithGenre(g), fromCatalog.moviesWithGenre(g));
+        }
+        for (int m = 0; m < movies.size(); m++) {
+            assertEquals(fromMovies.titleCode(m), fromCatalog.titleCode(m));
+            assertEquals(fromMovies.idCode(m), fromCatalog.idCode(m));
+            assertArrayEquals(fromMovies.genresOf(m), fromCatalog.genresOf(m));
+            assertEquals(fromMovies.movieOf(movies.get(m).getId()), fromCatalog.movieOf(movies.get(m).getId()));
+        }
+        assertEquals(-1, fromCatalog.idCodeOf("M999"));
+    }
+}
@@ -0,0 +1,87 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogWatcherTest {
+
+    private final FileHandler fileHandler = new FileHandler(new InputValidator());
+
+    private Path write(Path file, String content, long modified) throws IOException {
+        Files.writeString(file, content);
+        // the stamp must change even where timestamps are coarse
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified));
+        return file;
+    }
+
+    private CatalogWatcher watch(Path file, AtomicReference<GenreIndex> current, List<String> failures) throws IOException {
+        return new CatalogWatcher(file, errors -> new GenreIndex(fileHandler.readMovies(file.toString(), errors)),
+                current::set, failures::add);
+    }
+
+    @Test
+    void testReloadsOnlyChangedValidCatalogs() throws IOException {
+        Path file = write(Files.createTempFile("movies", ".txt"), "Up,U001\nAnimation\n", 1_000_000);
+        AtomicReference<GenreIndex> current = new AtomicReference<>();
+        List<String> failures = new ArrayList<>();
+        try (CatalogWatcher watcher = watch(file, current, failures)) {
+            assertFalse(watcher.checkNow());
+            assertNull(current.get());
+
+            write(file, "Up,U001\nAnimation\nCoco,C002\nAnimation\n", 2_000_000);
+            assertTrue(watcher.checkNow());
+            assertEquals(List.of("Coco"), current.get().recommend(List.of("U001"), current.get().newScratch()));
+            assertFalse(watcher.checkNow());
+
+            // a broken catalog keeps the last good one
+            GenreIndex good = current.get();
+            write(file, "lowercase,L001\nAnimation\n", 3_000_000);
+            assertFalse(watcher.checkNow());
+            assertSame(good, current.get());
+            CatalogWatcher.Stats stats = watcher.stats();
+            assertEquals(1, stats.reloads());
+            assertEquals(1, stats.failures());
+            assertTrue(stats.lastError().startsWith("ERROR: Movie Title"), stats.lastError());
+            assertEquals(List.of(stats.lastError()), failures);
+            assertFalse(watcher.checkNow());
+
+            // a deleted catalog is not an error; it is loaded once it is back
+            Files.delete(file);
+            assertFalse(watcher.checkNow());
+            write(file, "Heat,H001\nCrime\n", 4_000_000);
+            assertTrue(watcher.checkNow());
+            assertEquals(1, current.get().movieCount());
+            assertEquals(2, watcher.stats().reloads());
+        }
+    }
+
+    @Test
+    void testPollsInTheBackground() throws Exception {
+        Path file = write(Files.createTempFile("movies", ".txt"), "Up,U001\nAnimation\n", 1_000_000);
+        CountDownLatch reloaded = new CountDownLatch(1);
+        List<GenreIndex> indexes = new ArrayList<>();
+        try (CatalogWatcher watcher = new CatalogWatcher(file,
+                errors -> new GenreIndex(fileHandler.readMovies(file.toString(), errors)), index -> {
+                    indexes.add(index);
+                    reloaded.countDown();
+                })) {
+            assertThrows(IllegalArgumentException.class, () -> watcher.start(0));
+            watcher.start(10);
+            assertThrows(IllegalStateException.class, () -> watcher.start(10));
+            write(file, "Up,U001\nAnimation\nHeat,H002\nCrime\n", 2_000_000);
+            assertTrue(reloaded.await(10, TimeUnit.SECONDS));
+        }
+        assertEquals(2, indexes.get(0).movieCount());
+    }
+}
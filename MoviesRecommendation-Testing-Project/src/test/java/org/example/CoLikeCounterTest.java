@@ -0,0 +1,115 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoLikeCounterTest {
+
+    private static List<Movie> movies(int count) {
+        List<Movie> movies = new ArrayList<>();
+        for (int m = 0; m < count; m++) movies.add(new Movie("Movie " + m, "M" + m, List.of("Drama")));
+        return movies;
+    }
+
+    private static List<List<String>> randomLikes(Random random, int users, int movieCount) {
+        List<List<String>> likes = new ArrayList<>();
+        for (int u = 0; u < users; u++) {
+            List<String> liked = new ArrayList<>();
+            for (int l = random.nextInt(6); l > 0; l--) liked.add("M" + random.nextInt(movieCount + 5));
+            likes.add(liked);
+        }
+        return likes;
+    }
+
+    private static NeighborTable count(GenreIndex index, List<List<String>> likes, long budget, Path dir, int[] spills) throws IOException {
+        return count(index, likes, budget, CoLikeCounter.MAX_FAN_IN, dir, spills);
+    }
+
+    private static NeighborTable count(GenreIndex index, List<List<String>> likes, long budget, int fanIn, Path dir, int[] spills) throws IOException {
+        try (CoLikeCounter counter = new CoLikeCounter(index, budget, dir, fanIn)) {
+            for (List<String> liked : likes) counter.add(liked);
+            spills[0] = counter.spillCount();
+            return counter.finish(6);
+        }
+    }
+
+    @Test
+    void testCosineOfCoLikes() throws IOException {
+        GenreIndex index = new GenreIndex(movies(4));
+        List<List<String>> likes = List.of(
+                List.of("M0", "M1"),
+                List.of("M0", "M1", "M1"),
+                List.of("M0", "M2"),
+                List.of("M3"),
+                List.of("M1", "UNKNOWN"));
+        NeighborTable table = count(index, likes, 1 << 20, Files.createTempDirectory("colike"), new int[1]);
+
+        // M0 is liked by 3 users, M1 by 3, M2 by 1; M0 and M1 together by 2
+        assertEquals(2, table.to(0) - table.from(0));
+        assertEquals(1, table.neighbor(table.from(0)));
+        assertEquals((float) (2 / 3.0), table.score(table.from(0)));
+        assertEquals(2, table.neighbor(table.from(0) + 1));
+        assertEquals((float) (1 / Math.sqrt(3)), table.score(table.from(0) + 1));
+        assertEquals(0, table.to(3) - table.from(3));
+    }
+
+    @Test
+    void testSpilledRunsMergeToSameTable() throws IOException {
+        GenreIndex index = new GenreIndex(movies(60));
+        List<List<String>> likes = randomLikes(new Random(8), 2000, 60);
+        Path dir = Files.createTempDirectory("colike");
+        int[] spills = new int[1];
+
+        NeighborTable inMemory = count(index, likes, 1 << 24, dir, spills);
+        assertEquals(0, spills[0]);
+        NeighborTable spilled = count(index, likes, 50L * CoLikeCounter.BYTES_PER_PAIR, dir, spills);
+        assertTrue(spills[0] > 5, "expected several runs, got " + spills[0]);
+
+        for (int m = 0; m < 60; m++) {
+            assertEquals(inMemory.from(m), spilled.from(m));
+            for (int i = inMemory.from(m); i < inMemory.to(m); i++) {
+                assertEquals(inMemory.neighbor(i), spilled.neighbor(i));
+                assertEquals(inMemory.score(i), spilled.score(i));
+            }
+        }
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count(), "runs are deleted on close");
+        }
+    }
+
+    @Test
+    void testMergesManyRunsInPasses() throws IOException {
+        GenreIndex index = new GenreIndex(movies(60));
+        List<List<String>> likes = randomLikes(new Random(9), 2000, 60);
+        Path dir = Files.createTempDirectory("colike");
+        int[] spills = new int[1];
+
+        NeighborTable inMemory = count(index, likes, 1 << 24, dir, spills);
+        NeighborTable merged = count(index, likes, 4L * CoLikeCounter.BYTES_PER_PAIR, 3, dir, spills);
+        assertTrue(spills[0] > 9, "expected several merge passes, got " + spills[0]);
+
+        for (int m = 0; m < 60; m++) {
+            assertEquals(inMemory.from(m), merged.from(m));
+            for (int i = inMemory.from(m); i < inMemory.to(m); i++) {
+                assertEquals(inMemory.neighbor(i), merged.neighbor(i));
+                assertEquals(inMemory.score(i), merged.score(i));
+            }
+        }
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count(), "merged runs are deleted too");
+        }
+    }
+
+    @Test
+    void testRejectsTinyBudget() {
+        GenreIndex index = new GenreIndex(movies(1));
+        assertThrows(IllegalArgumentException.class, () -> new CoLikeCounter(index, 1, Path.of(".")));
+        assertThrows(IllegalArgumentException.class, () -> new CoLikeCounter(index, 1 << 20, Path.of("."), 1));
+    }
+}
@@ -0,0 +1,67 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoLikeRecommenderTest {
+
+    @Test
+    void testRecommendsWhatSimilarUsersLike() {
+        List<Movie> movies = new ArrayList<>();
+        movies.add(new Movie("Up", "U001", List.of("Animation")));
+        movies.add(new Movie("Heat", "H002", List.of("Crime")));
+        movies.add(new Movie("Cars", "C003", List.of("Animation")));
+        movies.add(new Movie("Alien", "A004", List.of("Horror")));
+
+        User fan = new User("Mona", "12345678A", List.of("U001", "H002"));
+        User other = new User("Omar", "12345678B", List.of("U001", "H002", "A004"));
+        User newcomer = new User("Sara", "12345678C", List.of("U001"));
+        User loner = new User("Nour", "12345678D", List.of("C003"));
+
+        Map<User, List<String>> result = new CoLikeRecommender(5, 10, 1 << 20)
+                .recommend(List.of(fan, other, newcomer, loner), movies);
+
+        assertEquals(List.of("Alien"), result.get(fan));
+        assertEquals(List.of(), result.get(other));
+        assertEquals(List.of("Heat", "Alien"), result.get(newcomer));
+        assertEquals(List.of(), result.get(loner), "nobody else liked Cars");
+    }
+
+    @Test
+    void testStreamingMatchesInMemory() throws IOException {
+        Random random = new Random(13);
+        List<Movie> movies = RandomData.movies(random, 150, 8, 1, 3, true);
+        List<User> users = RandomData.users(random, 800, 150, 0);
+        Path usersFile = Files.createTempFile("users", ".txt");
+        StringBuilder text = new StringBuilder();
+        for (User user : users) text.append(user.getName()).append(',').append(user.getId()).append('\n')
+                .append(String.join(", ", user.getLikedMovieIds())).append('\n');
+        Files.writeString(usersFile, text);
+        Set<String> movieIds = new HashSet<>();
+        for (Movie movie : movies) movieIds.add(movie.getId());
+        Path output = Files.createTempFile("recs", ".txt");
+
+        CoLikeRecommender recommender = new CoLikeRecommender(5, 4, 100L * CoLikeCounter.BYTES_PER_PAIR, output.getParent());
+        List<String> errors = new ArrayList<>();
+        FileHandler fileHandler = new FileHandler(new InputValidator());
+        // as read back, which drops users without likes
+        Map<User, List<String>> expected = recommender.recommend(fileHandler.readUsers(usersFile.toString(), movieIds, errors), movies);
+        recommender.recommend(fileHandler, usersFile.toString(), movieIds, new GenreIndex(movies), output.toString(), errors);
+
+        assertEquals(List.of(), errors);
+        Path expectedFile = Files.createTempFile("recs", ".txt");
+        fileHandler.writeRecommendations(expectedFile.toString(), expected, errors);
+        assertEquals(Files.readAllLines(expectedFile), Files.readAllLines(output));
+
+        Files.writeString(usersFile, "Mona,12345678A\nM1, XX999\n");
+        recommender.recommend(fileHandler, usersFile.toString(), movieIds, new GenreIndex(movies), output.toString(), errors);
+        assertEquals(1, errors.size());
+        assertEquals(List.of("Error " + errors.get(0)), Files.readAllLines(output));
+    }
+}
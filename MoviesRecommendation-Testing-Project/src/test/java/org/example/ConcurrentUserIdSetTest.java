@@ -0,0 +1,78 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentUserIdSetTest {
+
+    @Test
+    void testPackRoundTrip() {
+        for (String id : new String[]{"12345678X", "00000000a", "9zZ0aA1bB", "1abcdef2z"}) {
+            long packed = ConcurrentUserIdSet.pack(id);
+            assertTrue(packed >= 0 && packed < 1L << 54);
+            assertEquals(id, ConcurrentUserIdSet.unpack(packed));
+        }
+        assertEquals(-1, ConcurrentUserIdSet.pack("1234567X"));
+        assertEquals(-1, ConcurrentUserIdSet.pack("12345678-"));
+        assertEquals(-1, ConcurrentUserIdSet.pack("1234567é8"));
+    }
+
+    @Test
+    void testSetBehavesLikeHashSet() {
+        ConcurrentUserIdSet set = new ConcurrentUserIdSet(4);
+        Set<String> expected = new HashSet<>();
+        Random random = new Random(20);
+        for (int i = 0; i < 5000; i++) {
+            // mostly packable IDs, some that only a lenient validator accepts
+            String id = random.nextInt(10) == 0 ? "user " + random.nextInt(300) : String.format("%08d%c", random.nextInt(3000), 'A' + random.nextInt(3));
+            assertEquals(expected.add(id), set.add(id), id);
+        }
+        assertEquals(expected.size(), set.size());
+        assertEquals(expected, new HashSet<>(set));
+        assertEquals(expected.contains("00000001A"), set.contains("00000001A"));
+        assertFalse(set.contains("99999999z"));
+        assertFalse(set.contains(42));
+    }
+
+    @Test
+    void testClaimKeepsSmallestPosition() {
+        ConcurrentUserIdSet set = new ConcurrentUserIdSet();
+        for (String id : new String[]{"12345678X", "not packable"}) {
+            assertEquals(ConcurrentUserIdSet.ABSENT, set.claim(id, 7));
+            assertEquals(7, set.claim(id, 9));
+            assertEquals(7, set.claim(id, 3));
+            assertEquals(3, set.claim(id, 5));
+        }
+        assertThrows(IllegalArgumentException.class, () -> set.claim("12345678X", -1));
+    }
+
+    @Test
+    void testConcurrentAddsCountEachIdOnce() throws Exception {
+        ConcurrentUserIdSet set = new ConcurrentUserIdSet(16);
+        AtomicInteger added = new AtomicInteger();
+        int threads = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                futures.add(pool.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 50_000; i++) {
+                        if (set.add(String.format("%08dQ", random.nextInt(40_000)))) added.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(set.size(), added.get());
+        assertEquals(set.size(), new HashSet<>(set).size());
+    }
+}
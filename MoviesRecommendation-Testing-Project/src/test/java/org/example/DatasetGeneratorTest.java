@@ -0,0 +1,101 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatasetGeneratorTest {
+
+    private static File tempFile() throws IOException {
+        File file = File.createTempFile("generated", ".txt");
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    void testGeneratedFilesPassInputValidator() throws IOException {
+        DatasetGenerator generator = new DatasetGenerator();
+        generator.movies = 1000;
+        generator.users = 2000;
+        File movies = tempFile();
+        File users = tempFile();
+        generator.writeMovies(movies);
+        generator.writeUsers(users);
+
+        List<String> errors = new ArrayList<>();
+        FileHandler fileHandler = new FileHandler(new InputValidator());
+        List<Movie> movieList = fileHandler.readMovies(movies.getPath(), errors);
+        Set<String> movieIds = new HashSet<>();
+        for (Movie m : movieList) movieIds.add(m.getId());
+        List<User> userList = fileHandler.readUsers(users.getPath(), movieIds, errors);
+
+        assertEquals(List.of(), errors);
+        assertEquals(1000, movieList.size());
+        assertEquals(2000, userList.size());
+        for (Movie m : movieList) assertEquals(generator.genresPerMovie, m.getGenres().size(), m.getId());
+    }
+
+    @Test
+    void testSameSeedGivesSameFiles() throws IOException {
+        DatasetGenerator first = new DatasetGenerator();
+        DatasetGenerator second = new DatasetGenerator();
+        first.users = second.users = 300;
+        File a = tempFile();
+        File b = tempFile();
+        first.writeUsers(a);
+        second.writeUsers(b);
+        assertEquals(Files.readAllLines(a.toPath()), Files.readAllLines(b.toPath()));
+
+        second.seed = 7;
+        second.writeUsers(b);
+        assertNotEquals(Files.readAllLines(a.toPath()), Files.readAllLines(b.toPath()));
+    }
+
+    @Test
+    void testLikesStayWithinBoundsAndSkewTowardsFew() throws IOException {
+        DatasetGenerator generator = new DatasetGenerator();
+        generator.users = 5000;
+        generator.minLikes = 1;
+        generator.maxLikes = 40;
+        File users = tempFile();
+        generator.writeUsers(users);
+
+        List<String> lines = Files.readAllLines(users.toPath());
+        int single = 0;
+        for (int i = 1; i < lines.size(); i += 2) {
+            int likes = lines.get(i).split(", ").length;
+            assertTrue(likes >= 1 && likes <= 40, lines.get(i));
+            if (likes == 1) single++;
+        }
+        assertTrue(single > 5000 / 3, "power law should put most users at the minimum");
+    }
+
+    @Test
+    void testRejectsCatalogLargerThanThreeDigitIds() {
+        DatasetGenerator generator = new DatasetGenerator();
+        generator.movies = 1001;
+        assertThrows(IllegalArgumentException.class, () -> generator.writeMovies(tempFile()));
+    }
+
+    @Test
+    void testExtendedIdsAreUniqueAndPadded() throws IOException {
+        DatasetGenerator generator = new DatasetGenerator();
+        generator.movies = 20000;
+        generator.idDigits = 6;
+        File movies = tempFile();
+        generator.writeMovies(movies);
+
+        List<String> lines = Files.readAllLines(movies.toPath());
+        Set<String> suffixes = new HashSet<>();
+        for (int i = 0; i < lines.size(); i += 2) {
+            String id = lines.get(i).split(",")[1];
+            assertTrue(id.matches("[A-Z]+\\d{6}"), id);
+            suffixes.add(id.substring(id.length() - 6));
+        }
+        assertEquals(20000, suffixes.size());
+    }
+}
@@ -0,0 +1,76 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExtendedIdValidatorTest {
+
+    @Test
+    public void testThreeDigitSuffixPolicyMatchesInputValidator() {
+        ExtendedIdValidator validator = new ExtendedIdValidator(3, ExtendedIdValidator.Uniqueness.SUFFIX);
+        InputValidator regex = new InputValidator();
+        Set<String> existing = new HashSet<>(Set.of("AVT123", "MR456"));
+        for (String id : new String[]{"AVT123", "XYZ123", "AVT124", "MTX1234", "MTX12@", "123XYZ", "M000"}) {
+            assertEquals(regex.isMovieIdSuffixValid(id, existing), validator.isMovieIdSuffixValid(id, existing), id);
+        }
+    }
+
+    @Test
+    public void testLongerSuffix() {
+        ExtendedIdValidator validator = new ExtendedIdValidator(6, ExtendedIdValidator.Uniqueness.SUFFIX);
+        assertTrue(validator.isMovieIdSuffixValid("TSR123456", new HashSet<>()));
+        assertFalse(validator.isMovieIdSuffixValid("TSR123", new HashSet<>()));
+        assertFalse(validator.isMovieIdSuffixValid("TSR123456", Set.of("TG123456")));
+    }
+
+    @Test
+    public void testFullIdUniqueness() {
+        ExtendedIdValidator validator = new ExtendedIdValidator(3, ExtendedIdValidator.Uniqueness.FULL_ID);
+        assertTrue(validator.isMovieIdSuffixValid("XYZ123", Set.of("AVT123")));
+        assertFalse(validator.isMovieIdSuffixValid("AVT123", Set.of("AVT123")));
+
+        MovieIdRegistry registry = validator.newMovieIdRegistry();
+        registry.register("AVT123");
+        assertTrue(registry.isSuffixValid("XYZ123"));
+        assertFalse(registry.isSuffixValid("AVT123"));
+        assertFalse(registry.isSuffixValid("AVT1234"));
+    }
+
+    @Test
+    public void testBitmapAndHashedRegistries() {
+        for (int digits : new int[]{5, 9}) {
+            MovieIdRegistry registry = new ExtendedIdValidator(digits, ExtendedIdValidator.Uniqueness.SUFFIX).newMovieIdRegistry();
+            String zeros = "0".repeat(digits - 1);
+            assertTrue(registry.isSuffixValid("AB" + zeros + "7"));
+            registry.register("AB" + zeros + "7");
+            assertFalse(registry.isSuffixValid("CD" + zeros + "7"));
+            assertTrue(registry.isSuffixValid("CD" + zeros + "8"));
+        }
+    }
+
+    @Test
+    public void testLoadsGeneratedCatalogBeyondThousandMovies() throws IOException {
+        DatasetGenerator generator = new DatasetGenerator();
+        generator.movies = 50000;
+        generator.idDigits = 8;
+        File movies = File.createTempFile("extended", ".txt");
+        movies.deleteOnExit();
+        generator.writeMovies(movies);
+
+        List<String> errors = new ArrayList<>();
+        FileHandler fileHandler = new FileHandler(new ExtendedIdValidator(8, ExtendedIdValidator.Uniqueness.SUFFIX));
+        assertEquals(50000, fileHandler.readMovies(movies.getPath(), errors).size());
+        assertEquals(List.of(), errors);
+    }
+
+    @Test
+    public void testRejectsOutOfRangeDigits() {
+        assertThrows(IllegalArgumentException.class, () -> new ExtendedIdValidator(0, ExtendedIdValidator.Uniqueness.SUFFIX));
+        assertThrows(IllegalArgumentException.class, () -> new ExtendedIdValidator(19, ExtendedIdValidator.Uniqueness.SUFFIX));
+    }
+}
@@ -0,0 +1,109 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FailFastScopeTest {
+
+    @Test
+    void testFailureCancelsSiblings() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            FailFastScope<String> scope = new FailFastScope<>(executor);
+            FailFastScope.Subtask<String> blocked = scope.fork(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(60_000);
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                    throw e;
+                }
+                return "late";
+            });
+            started.await();
+            FailFastScope.Subtask<String> failing = scope.fork(() -> {
+                throw new IllegalStateException("unknown movie ID");
+            });
+
+            ExecutionException e = assertThrows(ExecutionException.class, scope::join);
+            assertEquals("unknown movie ID", e.getCause().getMessage());
+            assertTrue(scope.isShutdown());
+            assertEquals(FailFastScope.State.FAILED, failing.state());
+
+            // closed by hand: what close() does to the blocked subtask is under test
+            scope.close();
+            assertTrue(interrupted.get());
+            assertEquals(FailFastScope.State.CANCELLED, blocked.state());
+            assertThrows(IllegalStateException.class, blocked::get);
+        }
+    }
+
+    @Test
+    void testJoinCollectsResultsBetweenForks() throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(2);
+             FailFastScope<Integer> scope = new FailFastScope<>(executor)) {
+            FailFastScope.Subtask<Integer> first = scope.fork(() -> 1);
+            scope.join();
+            assertEquals(1, first.get());
+
+            FailFastScope.Subtask<Integer> second = scope.fork(() -> 2);
+            scope.join();
+            assertEquals(FailFastScope.State.SUCCESS, second.state());
+            assertEquals(2, second.get());
+        }
+    }
+
+    @Test
+    void testForkAfterShutdownIsCancelled() throws Exception {
+        AtomicBoolean ran = new AtomicBoolean();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             FailFastScope<String> scope = new FailFastScope<>(executor)) {
+            scope.shutdown();
+            FailFastScope.Subtask<String> subtask = scope.fork(() -> {
+                ran.set(true);
+                return "never";
+            });
+            scope.join();
+            assertEquals(FailFastScope.State.CANCELLED, subtask.state());
+        }
+        assertFalse(ran.get());
+    }
+
+    @Test
+    void testCloseWaitsForSubtasks() throws Exception {
+        AtomicBoolean finished = new AtomicBoolean();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CountDownLatch started = new CountDownLatch(1);
+            try (FailFastScope<String> scope = new FailFastScope<>(executor)) {
+                scope.fork(() -> {
+                    started.countDown();
+                    // ignores the interrupt, so close has to wait for it
+                    long end = System.nanoTime() + 50_000_000;
+                    while (System.nanoTime() < end) Thread.onSpinWait();
+                    finished.set(true);
+                    return "done";
+                });
+                started.await();
+            }
+            assertTrue(finished.get());
+        }
+    }
+
+    @Test
+    void testOnlyOwnerMayJoin() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             FailFastScope<String> scope = new FailFastScope<>(executor)) {
+            Future<?> join = executor.submit(() -> {
+                scope.join();
+                return null;
+            });
+            ExecutionException e = assertThrows(ExecutionException.class, join::get);
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+    }
+}
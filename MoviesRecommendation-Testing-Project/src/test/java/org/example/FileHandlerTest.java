@@ -289,5 +289,213 @@ public class FileHandlerTest {
         assertTrue(errors.stream().anyMatch(e -> e.toLowerCase().contains("unsupported format")));
     }
 
+    @Test
+    void testReadUsersHandsEachUserToSink() throws IOException {
+        List<String> errors = new ArrayList<>();
+        fileHandler = new FileHandler(new TestValidator());
+        File file = createTempFile("Alice,12345678A\nM001\nBob,12345678B\nM001,M002\n");
+        List<String> names = new ArrayList<>();
+
+        fileHandler.readUsers(file.getAbsolutePath(), Set.of("M001", "M002"), errors, user -> names.add(user.getName()));
+
+        assertEquals(List.of("Alice", "Bob"), names);
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    void testStreamRecommendationsLeavesNoTempFile() throws IOException {
+        List<String> errors = new ArrayList<>();
+        fileHandler = new FileHandler(new TestValidator());
+        File users = createTempFile("Alice,12345678A\nM001\n");
+        File dir = java.nio.file.Files.createTempDirectory("stream").toFile();
+        File output = new File(dir, "recommendations.txt");
+        GenreIndex index = new GenreIndex(List.of(
+                new Movie("Up", "M001", List.of("Animation")),
+                new Movie("Coco", "M002", List.of("Animation"))));
+
+        fileHandler.streamRecommendations(users.getAbsolutePath(), Set.of("M001", "M002"), index, output.getAbsolutePath(), errors);
+
+        assertEquals(List.of("Alice,12345678A", "Coco"), java.nio.file.Files.readAllLines(output.toPath()));
+        assertArrayEquals(new String[]{"recommendations.txt"}, dir.list());
+    }
+
+    @Test
+    void testCompactRecordsShareDictionaryStrings() throws IOException {
+        List<String> errors = new ArrayList<>();
+        StringDictionary dictionary = new StringDictionary();
+        fileHandler = new FileHandler(new TestValidator(), dictionary);
+        File movies = createTempFile("Up,M001\nAnimation, Family\nCoco,M002\nAnimation\n");
+        File users = createTempFile("Alice,12345678A\nM001, M002\n");
+
+        List<Movie> catalog = fileHandler.readMovies(movies.getAbsolutePath(), errors);
+        List<User> people = fileHandler.readUsers(users.getAbsolutePath(), Set.of("M001", "M002"), errors);
+
+        assertTrue(errors.isEmpty());
+        assertEquals(List.of("Animation", "Family"), catalog.get(0).getGenres());
+        assertSame(catalog.get(0).getGenres().get(0), catalog.get(1).getGenres().get(0));
+        assertEquals(List.of("M001", "M002"), people.get(0).getLikedMovieIds());
+        assertSame(catalog.get(1).getId(), people.get(0).getLikedMovieIds().get(1));
+        assertEquals(4, dictionary.size());
+    }
+
+    @Test
+    void testReadCatalogMatchesReadMovies() throws IOException {
+        fileHandler = new FileHandler(new TestValidator());
+        File file = createTempFile("Inception,M001\nAction, Drama\n\nUp,M002\nAnimation\n");
+        List<String> errors = new ArrayList<>();
+
+        List<Movie> movies = fileHandler.readMovies(file.getAbsolutePath(), errors);
+        Catalog catalog = fileHandler.readCatalog(file.getAbsolutePath(), errors);
+
+        assertTrue(errors.isEmpty());
+        assertEquals(2, catalog.size());
+        for (int m = 0; m < movies.size(); m++) {
+            assertEquals(movies.get(m).getTitle(), catalog.title(m));
+            assertEquals(movies.get(m).getId(), catalog.id(m));
+            assertEquals(movies.get(m).getGenres(), catalog.genres(m));
+        }
+        assertEquals(0, fileHandler.readCatalog("movies.csv", errors).size());
+        assertEquals(List.of("ERROR: Unsupported format"), errors);
+    }
+
+    @Test
+    void testUpdateRecommendationsRecomputesOnlyChangedUsers() throws IOException {
+        List<String> errors = new ArrayList<>();
+        fileHandler = new FileHandler(new TestValidator());
+        File dir = java.nio.file.Files.createTempDirectory("incremental").toFile();
+        String output = new File(dir, "recommendations.txt").getAbsolutePath();
+        List<Movie> movies = List.of(
+                new Movie("Up", "M001", List.of("Animation")),
+                new Movie("Coco", "M002", List.of("Animation")),
+                new Movie("Heat", "M003", List.of("Crime")),
+                new Movie("Ronin", "M004", List.of("Crime")));
+        Set<String> ids = Set.of("M001", "M002", "M003", "M004");
+        GenreIndex index = new GenreIndex(movies);
+
+        File users = createTempFile("Alice,12345678A\nM001\nBob,12345678B\nM003\nCarol,12345678C\nM002\n");
+        assertEquals(3, fileHandler.updateRecommendations(users.getAbsolutePath(), ids, index, output, errors));
+        assertEquals(0, fileHandler.updateRecommendations(users.getAbsolutePath(), ids, index, output, errors));
+
+        // Bob's likes change, Carol leaves and Dave is new
+        users = createTempFile("Alice,12345678A\nM001\nBob,12345678B\nM004\nDave,12345678D\nM002\n");
+        assertEquals(2, fileHandler.updateRecommendations(users.getAbsolutePath(), ids, index, output, errors));
+        assertEquals(List.of("Alice,12345678A", "Coco", "Bob,12345678B", "Heat", "Dave,12345678D", "Up"),
+                java.nio.file.Files.readAllLines(new File(output).toPath()));
+
+        // a new crime movie only affects Bob
+        movies = new ArrayList<>(movies);
+        movies.add(new Movie("Thief", "M005", List.of("Crime")));
+        assertEquals(1, fileHandler.updateRecommendations(users.getAbsolutePath(), Set.of("M001", "M002", "M003", "M004", "M005"),
+                new GenreIndex(movies), output, errors));
+        assertEquals("Heat, Thief", java.nio.file.Files.readAllLines(new File(output).toPath()).get(3));
+        assertTrue(errors.isEmpty());
+        assertEquals(Set.of("recommendations.txt", "recommendations.txt.state"), Set.of(dir.list()));
+    }
+
+    @Test
+    void testUpdateRecommendationsMatchesFullRun() throws IOException {
+        fileHandler = new FileHandler(new TestValidator());
+        File dir = java.nio.file.Files.createTempDirectory("incremental").toFile();
+        String output = new File(dir, "recommendations.txt").getAbsolutePath();
+        String expected = new File(dir, "expected.txt").getAbsolutePath();
+        String[] genres = {"Action", "Drama", "Comedy", "Crime", "War", "Horror", "Western", "Family", "Music", "Sport"};
+        Random random = new Random(18);
+        List<Movie> movies = new ArrayList<>();
+        for (int m = 0; m < 40; m++) movies.add(new Movie("Movie " + random.nextInt(30), String.format("M%03d", m), List.of(genres[random.nextInt(genres.length)])));
+        Map<String, List<String>> likes = new LinkedHashMap<>();
+        for (int u = 0; u < 60; u++) likes.put(String.format("%08dA", u), List.of(movies.get(random.nextInt(40)).getId()));
+
+        int recomputed = 0, total = 0;
+        for (int round = 0; round < 20; round++) {
+            // a few users and movies change between runs
+            for (int change = 0; change < 3; change++) {
+                String id = String.format("%08dA", random.nextInt(80));
+                if (random.nextInt(4) == 0) likes.remove(id);
+                else likes.put(id, List.of(movies.get(random.nextInt(40)).getId(), movies.get(random.nextInt(40)).getId()));
+            }
+            int m = random.nextInt(40);
+            movies.set(m, new Movie("Movie " + random.nextInt(30), movies.get(m).getId(), List.of(genres[random.nextInt(genres.length)], genres[random.nextInt(genres.length)])));
+            if (random.nextInt(5) == 0) Collections.swap(movies, random.nextInt(40), random.nextInt(40));
+
+            StringBuilder content = new StringBuilder();
+            for (Map.Entry<String, List<String>> user : likes.entrySet()) {
+                content.append("User,").append(user.getKey()).append('\n').append(String.join(", ", user.getValue())).append('\n');
+            }
+            File users = createTempFile(content.toString());
+            Set<String> ids = new HashSet<>();
+            for (Movie movie : movies) ids.add(movie.getId());
+            GenreIndex index = new GenreIndex(movies);
+            List<String> errors = new ArrayList<>();
+
+            int updated = fileHandler.updateRecommendations(users.getAbsolutePath(), ids, index, output, errors);
+            if (round > 0) {
+                recomputed += updated;
+                total += likes.size();
+            }
+            fileHandler.streamRecommendations(users.getAbsolutePath(), ids, index, expected, errors);
 
+            assertTrue(errors.isEmpty());
+            assertEquals(java.nio.file.Files.readAllLines(new File(expected).toPath()),
+                    java.nio.file.Files.readAllLines(new File(output).toPath()));
+        }
+        assertTrue(recomputed < total / 2, recomputed + " of " + total);
+    }
+
+    @Test
+    void testConcurrentStreamingMatchesSequential() throws IOException {
+        fileHandler = new FileHandler(new TestValidator());
+        File dir = java.nio.file.Files.createTempDirectory("concurrent").toFile();
+        String[] genres = {"Action", "Drama", "Comedy", "Crime", "War", "Horror"};
+        Random random = new Random(24);
+        List<Movie> movies = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        for (int m = 0; m < 30; m++) {
+            movies.add(new Movie("Movie " + m, String.format("M%03d", m), List.of(genres[random.nextInt(genres.length)])));
+            ids.add(movies.get(m).getId());
+        }
+        StringBuilder content = new StringBuilder();
+        for (int u = 0; u < 200; u++) {
+            content.append("User,").append(String.format("%08dA", u)).append('\n')
+                    .append(movies.get(random.nextInt(30)).getId()).append(", ")
+                    .append(movies.get(random.nextInt(30)).getId()).append('\n');
+        }
+        File users = createTempFile(content.toString());
+        GenreIndex index = new GenreIndex(movies);
+        List<String> errors = new ArrayList<>();
+        File expected = new File(dir, "expected.txt");
+        fileHandler.streamRecommendations(users.getAbsolutePath(), ids, index, expected.getAbsolutePath(), errors);
+
+        File output = new File(dir, "recommendations.txt");
+        for (int window : new int[]{1, 3, FileHandler.STREAM_WINDOW}) {
+            try (java.util.concurrent.ExecutorService virtual = java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor();
+                 java.util.concurrent.ExecutorService platform = java.util.concurrent.Executors.newFixedThreadPool(3)) {
+                for (java.util.concurrent.ExecutorService executor : List.of(virtual, platform)) {
+                    fileHandler.streamRecommendations(users.getAbsolutePath(), ids, index, output.getAbsolutePath(), errors, executor, window);
+                    assertEquals(java.nio.file.Files.readAllLines(expected.toPath()), java.nio.file.Files.readAllLines(output.toPath()));
+                }
+            }
+        }
+        assertTrue(errors.isEmpty());
+        assertEquals(Set.of("expected.txt", "recommendations.txt"), Set.of(dir.list()));
+    }
+
+    @Test
+    void testConcurrentStreamingStopsAtUnknownMovie() throws IOException {
+        fileHandler = new FileHandler(new TestValidator());
+        File dir = java.nio.file.Files.createTempDirectory("concurrent").toFile();
+        File output = new File(dir, "recommendations.txt");
+        File users = createTempFile("Alice,12345678A\nM001\nBob,12345678B\nM009\nCarol,12345678C\nM002\n");
+        GenreIndex index = new GenreIndex(List.of(
+                new Movie("Up", "M001", List.of("Animation")),
+                new Movie("Coco", "M002", List.of("Animation"))));
+        List<String> errors = new ArrayList<>();
+
+        try (java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor()) {
+            fileHandler.streamRecommendations(users.getAbsolutePath(), Set.of("M001", "M002"), index, output.getAbsolutePath(), errors, executor, 2);
+        }
+
+        assertEquals(List.of("ERROR: User Bob has unknown movie ID M009"), errors);
+        assertEquals(List.of("Error ERROR: User Bob has unknown movie ID M009"), java.nio.file.Files.readAllLines(output.toPath()));
+        assertArrayEquals(new String[]{"recommendations.txt"}, dir.list());
+    }
 }
@@ -0,0 +1,120 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenreSignatureCacheTest {
+
+    @Test
+    void testMatchesGenreEngine() {
+        for (int seed = 0; seed < 20; seed++) {
+            Random random = new Random(seed);
+            // repeated titles and IDs, so some users need the uncached path
+            List<Movie> movies = RandomData.movies(random, 200, 8, 0, 2, false);
+            List<User> users = RandomData.users(random, 2000, 200, 50);
+            GenreIndex index = new GenreIndex(movies);
+            GenreSignatureCache cache = new GenreSignatureCache(index, seed % 2 == 0 ? 1 << 20 : 300);
+            GenreIndex.Scratch scratch = index.newScratch();
+
+            Map<User, List<String>> expected = RecommendationSystem.generateRecommendations(users, movies);
+            for (User user : users) {
+                assertEquals(expected.get(user), cache.recommend(user.getLikedMovieIds(), scratch), "seed " + seed);
+            }
+            assertTrue(cache.stats().hits() > 0);
+        }
+    }
+
+    @Test
+    void testSharedSignatureIsComputedOnce() {
+        List<Movie> movies = List.of(
+                new Movie("A", "A1", List.of("Drama")),
+                new Movie("B", "B2", List.of("Drama", "Crime")),
+                new Movie("C", "C3", List.of("Crime")),
+                new Movie("D", "D4", List.of("Crime", "Drama")));
+        GenreIndex index = new GenreIndex(movies);
+        GenreSignatureCache cache = new GenreSignatureCache(index, 100);
+        GenreIndex.Scratch scratch = index.newScratch();
+
+        // a signature's list is built the second time it is seen
+        assertEquals(List.of("A", "D", "C"), cache.recommend(List.of("B2"), scratch));
+        assertEquals(List.of("B", "D"), cache.recommend(List.of("A1", "C3"), scratch));
+        // Crime first is another signature, as the titles come out in another order
+        assertEquals(List.of("B", "C", "A"), cache.recommend(List.of("D4", "Z9"), scratch));
+        assertEquals(List.of("B", "D"), cache.recommend(List.of("C3", "A1"), scratch));
+        assertEquals(List.of("A", "D", "C"), cache.recommend(List.of("B2"), scratch));
+        assertEquals(List.of("B", "C", "A"), cache.recommend(List.of("D4"), scratch));
+        assertTrue(cache.recommend(List.of("Z9"), scratch).isEmpty());
+        assertTrue(cache.recommend(null, scratch).isEmpty());
+
+        GenreSignatureCache.Stats stats = cache.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(4, stats.misses());
+        assertEquals(2, stats.entries());
+        assertEquals(2.0 / 6, stats.hitRate());
+    }
+
+    @Test
+    void testSharedTitleFallsBackToGenreIndex() {
+        List<Movie> movies = List.of(
+                new Movie("Heat", "H1", List.of("Crime")),
+                new Movie("Other", "O2", List.of("Crime")),
+                new Movie("Heat", "H3", List.of("Crime")));
+        GenreIndex index = new GenreIndex(movies);
+        GenreSignatureCache cache = new GenreSignatureCache(index, 100);
+        GenreIndex.Scratch scratch = index.newScratch();
+
+        assertEquals(List.of("Other", "Heat"), cache.recommend(List.of("H1"), scratch));
+        assertEquals(List.of("Other", "Heat"), cache.recommend(List.of("H1"), scratch));
+        assertEquals(List.of("Heat"), cache.recommend(List.of("O2"), scratch));
+        assertEquals(1, cache.stats().fallbacks());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedWithinBudget() {
+        List<Movie> movies = new ArrayList<>();
+        for (int g = 0; g < 5; g++) {
+            for (int m = 0; m < 3; m++) movies.add(new Movie("T" + g + m, "G" + g + m, List.of("Genre" + g)));
+        }
+        GenreIndex index = new GenreIndex(movies);
+        GenreSignatureCache cache = new GenreSignatureCache(index, 6);
+        GenreIndex.Scratch scratch = index.newScratch();
+
+        for (String id : List.of("G00", "G00", "G10", "G10", "G00", "G20", "G20")) cache.recommend(List.of(id), scratch);
+        assertEquals(1, cache.stats().evictions());
+        assertEquals(6, cache.stats().titles());
+
+        // genre 1 was the least recently used, then genre 2 is
+        cache.recommend(List.of("G01"), scratch);
+        cache.recommend(List.of("G11"), scratch);
+        assertEquals(2, cache.stats().hits());
+        assertEquals(7, cache.stats().misses());
+        assertEquals(2, cache.stats().evictions());
+
+        GenreSignatureCache empty = new GenreSignatureCache(index, 0);
+        assertEquals(List.of("T01", "T02"), empty.recommend(List.of("G00"), scratch));
+        assertEquals(List.of("T01", "T02"), empty.recommend(List.of("G00"), scratch));
+        assertEquals(0, empty.stats().entries());
+        assertThrows(IllegalArgumentException.class, () -> new GenreSignatureCache(index, -1));
+    }
+
+    @Test
+    void testRecommenderMatchesGenreEngineInParallel() {
+        Random random = new Random(3);
+        List<Movie> movies = RandomData.movies(random, 200, 8, 0, 2, false);
+        List<User> users = RandomData.users(random, 5000, 200, 50);
+
+        Map<User, List<String>> expected = RecommendationSystem.generateRecommendations(users, movies);
+        CachedRecommendationSystem recommender = new CachedRecommendationSystem(2000, 4);
+        assertNull(recommender.getLastStats());
+        Map<User, List<String>> actual = recommender.recommend(users, movies);
+
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(actual.values()));
+        assertEquals(new ArrayList<>(expected.values()),
+                new ArrayList<>(recommender.recommend(users, Catalog.of(movies)).values()));
+        assertTrue(recommender.getLastStats().hitRate() > 0.5);
+    }
+}
@@ -0,0 +1,110 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedRecommendationSystemTest {
+
+    private List<Movie> movieList;
+    private List<User> userList;
+    private final Recommender indexed = new IndexedRecommendationSystem();
+
+    @BeforeEach
+    void setup() {
+        movieList = new ArrayList<>();
+        userList = new ArrayList<>();
+    }
+
+    private void assertSameAsGenreEngine() {
+        Map<User, List<String>> expected = RecommendationSystem.generateRecommendations(userList, movieList);
+        Map<User, List<String>> actual = indexed.recommend(userList, movieList);
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(actual.values()));
+    }
+
+    @Test
+    void testKeepsOrderAcrossLikedGenres() {
+        movieList.add(new Movie("Deadpool", "M002", List.of("Action", "Comedy")));
+        movieList.add(new Movie("The Hangover", "M005", List.of("Comedy")));
+        movieList.add(new Movie("Extraction", "M004", List.of("Action")));
+        movieList.add(new Movie("The Godfather", "M006", List.of("Drama", "Comedy")));
+
+        User user = new User("Joseph", "87654321B", List.of("M006", "M002"));
+        userList.add(user);
+
+        assertEquals(List.of("The Hangover", "Extraction"), indexed.recommend(userList, movieList).get(user));
+        assertSameAsGenreEngine();
+    }
+
+    @Test
+    void testCaseInsensitiveGenresAndRepeatedGenres() {
+        movieList.add(new Movie("Avengers", "M010", List.of("Action", "ACTION")));
+        movieList.add(new Movie("John Wick", "M011", List.of("action")));
+        movieList.add(new Movie("Fast And Furious", "M012", List.of("Action", "Crime")));
+
+        userList.add(new User("Jonathan", "45678901E", List.of("M010")));
+        userList.add(new User("Issac", "45678901F", List.of("M012", "M012")));
+        assertSameAsGenreEngine();
+    }
+
+    @Test
+    void testDuplicateTitlesAndIds() {
+        movieList.add(new Movie("Twin", "M001", List.of("Drama")));
+        movieList.add(new Movie("Twin", "M002", List.of("Drama")));
+        movieList.add(new Movie("Other", "M002", List.of("Horror")));
+        movieList.add(new Movie("Scary", "M003", List.of("Horror")));
+
+        userList.add(new User("Bavly", "11223344C", List.of("M001")));
+        userList.add(new User("Poula", "11223344D", List.of("M002")));
+        assertSameAsGenreEngine();
+    }
+
+    @Test
+    void testUnknownAndEmptyLikes() {
+        movieList.add(new Movie("Titanic", "M001", List.of("Romance")));
+
+        userList.add(new User("Andrew", "99887766D", List.of("M999")));
+        userList.add(new User("Issac", "99887766E", new ArrayList<>()));
+        userList.add(new User("Joseph", "99887766F", null));
+        assertSameAsGenreEngine();
+    }
+
+    @Test
+    void testScratchIsClearedBetweenUsers() {
+        movieList.add(new Movie("Drama One", "M101", List.of("Drama")));
+        movieList.add(new Movie("Drama Two", "M102", List.of("Drama")));
+
+        User first = new User("Issac", "22334455F", List.of("M101"));
+        User second = new User("Andrew", "22334455G", List.of("M102"));
+        userList.add(first);
+        userList.add(second);
+
+        Map<User, List<String>> result = indexed.recommend(userList, movieList);
+        assertEquals(List.of("Drama Two"), result.get(first));
+        assertEquals(List.of("Drama One"), result.get(second));
+    }
+
+    @Test
+    void testRandomCatalogsMatchGenreEngine() {
+        String[] genres = {"Action", "drama", "Comedy", "HORROR", "Crime", "War"};
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            setup();
+            for (int m = 0; m < 60; m++) {
+                List<String> movieGenres = new ArrayList<>();
+                for (int g = random.nextInt(3) + 1; g > 0; g--) movieGenres.add(genres[random.nextInt(genres.length)]);
+                movieList.add(new Movie("Movie " + random.nextInt(40), "M" + random.nextInt(80), movieGenres));
+            }
+            for (int u = 0; u < 15; u++) {
+                List<String> likes = new ArrayList<>();
+                for (int l = random.nextInt(4); l > 0; l--) likes.add("M" + random.nextInt(90));
+                userList.add(new User("User", "1000000" + u, likes));
+            }
+            assertSameAsGenreEngine();
+        }
+    }
+}
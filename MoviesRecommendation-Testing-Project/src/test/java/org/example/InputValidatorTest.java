@@ -176,4 +176,34 @@ public class InputValidatorTest {
     public void testSpecialCharInMovieIdSuffix() {
         assertFalse(validator.isMovieIdSuffixValid("MTX12@", new HashSet<>()));
     }
+
+    // Movie ID registry tests
+    @Test
+    public void testRegistryAcceptsUnusedSuffix() {
+        MovieIdRegistry registry = validator.newMovieIdRegistry();
+        registry.register("MTX123");
+        assertTrue(registry.isSuffixValid("MTX124"));
+    }
+
+    @Test
+    public void testRegistryRejectsUsedSuffixWithOtherLetters() {
+        MovieIdRegistry registry = validator.newMovieIdRegistry();
+        registry.register("MR123");
+        assertFalse(registry.isSuffixValid("MTX123"));
+    }
+
+    @Test
+    public void testRegistryRejectsMalformedSuffix() {
+        MovieIdRegistry registry = validator.newMovieIdRegistry();
+        assertFalse(registry.isSuffixValid("MTX1234"));
+        assertFalse(registry.isSuffixValid("MTX12@"));
+        assertFalse(registry.isSuffixValid("123"));
+    }
+
+    @Test
+    public void testRegistriesAreIndependent() {
+        MovieIdRegistry first = validator.newMovieIdRegistry();
+        first.register("MTX123");
+        assertTrue(validator.newMovieIdRegistry().isSuffixValid("MTX123"));
+    }
 }
\ No newline at end of file
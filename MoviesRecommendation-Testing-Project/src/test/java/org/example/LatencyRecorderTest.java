@@ -0,0 +1,35 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyRecorderTest {
+
+    @Test
+    void testNearestRankPercentiles() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        assertEquals(new LatencyRecorder.Snapshot(0, 0, 0, 0, 0), recorder.snapshot());
+
+        for (int i = 1000; i >= 1; i--) recorder.record(i);
+        LatencyRecorder.Snapshot snapshot = recorder.snapshot();
+        assertEquals(1000, snapshot.count());
+        assertEquals(500, snapshot.p50());
+        assertEquals(990, snapshot.p99());
+        assertEquals(999, snapshot.p999());
+        assertEquals(1000, snapshot.max());
+    }
+
+    @Test
+    void testPercentilesCoverTheRecentWindow() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record(1_000_000);
+        for (int i = 0; i < LatencyRecorder.WINDOW; i++) recorder.record(5);
+
+        LatencyRecorder.Snapshot snapshot = recorder.snapshot();
+        assertEquals(LatencyRecorder.WINDOW + 1, snapshot.count());
+        assertEquals(5, snapshot.p999());
+        // the maximum is over every request
+        assertEquals(1_000_000, snapshot.max());
+    }
+}
@@ -0,0 +1,75 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongIntHashMapTest {
+
+    @Test
+    public void testMatchesHashMap() {
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(4);
+        for (int i = 0; i < 20000; i++) {
+            long key = random.nextInt(5000) - 2500L;
+            int delta = random.nextInt(5) + 1;
+            assertEquals((int) expected.merge(key, delta, Integer::sum), map.addTo(key, delta));
+        }
+        for (long key = -3000; key < 3000; key++) {
+            assertEquals(expected.getOrDefault(key, 0), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        assertEquals(expected.size(), map.size());
+
+        long[] keys = map.sortedKeys();
+        List<Long> sorted = new ArrayList<>(new TreeSet<>(expected.keySet()));
+        assertEquals(sorted.size(), keys.length);
+        for (int i = 0; i < keys.length; i++) assertEquals((long) sorted.get(i), keys[i]);
+    }
+
+    @Test
+    public void testMinValueKeyAndClear() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertFalse(map.containsKey(Long.MIN_VALUE));
+        map.addTo(Long.MIN_VALUE, 2);
+        map.addTo(Long.MIN_VALUE, 3);
+        map.addTo(7, 1);
+        assertEquals(5, map.get(Long.MIN_VALUE));
+        assertArrayEquals(new long[]{Long.MIN_VALUE, 7}, map.sortedKeys());
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(0, map.get(Long.MIN_VALUE));
+        assertEquals(0, map.get(7));
+    }
+
+    @Test
+    public void testSortEntriesInPlace() {
+        LongIntHashMap map = new LongIntHashMap(2000);
+        TreeMap<Long, Integer> expected = new TreeMap<>();
+        Random random = new Random(5);
+        for (int i = 0; i < 1500; i++) {
+            long key = random.nextLong();
+            expected.merge(key, i, Integer::sum);
+            map.addTo(key, i);
+        }
+        map.addTo(Long.MIN_VALUE, 9);
+        expected.put(Long.MIN_VALUE, 9);
+
+        assertEquals(expected.size(), map.sortEntries());
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals((long) entry.getKey(), map.keyAt(i));
+            assertEquals((int) entry.getValue(), map.valueAt(i++));
+        }
+
+        map.clear();
+        map.addTo(3, 1);
+        assertEquals(1, map.get(3));
+        assertEquals(0, map.get(Long.MIN_VALUE));
+        assertEquals(1, map.size());
+    }
+}
@@ -0,0 +1,128 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedFileHandlerTest {
+
+    static final String[] MOVIE_FILES = {
+            "The Shawshank Redemption, TSR001\nDrama\nThe Godfather, TG002\nCrime, Drama\n",
+            "The Godfather,TG002\r\nCrime ,  Drama\r\n\r\nUp,U003\r\nAnimation\r\n",
+            "Up,U003\rAnimation\rCoco,C004\rAnimation,Family",
+            "  Up , U003  \n\t Animation ,, Family ,\n",
+            "Up,U003\n\nCoco,C004\nAnimation\n",
+            "No Comma Here\nDrama\nUp,U003\nAnimation\n",
+            "Up,U003\n,\nCoco,C004\n, Animation\n",
+            "Amélie,A005\nRomance\n",
+            "Up,U003\nAnimation\nCoco,U003\nAnimation\n",
+            "up,U003\nAnimation\n",
+            "Up,X003\nAnimation\n",
+            "Up,U003\n",
+            "",
+            "\n\n\n"
+    };
+
+    static final String[] USER_FILES = {
+            "Hassan Ali, 12345678X\nTSR001, TDK003\nAli Mohamed, 87654321W\nTG002\n",
+            "Hassan Ali,12345678X\r\nTSR001 ,TG002,\r\n\r\nAli,87654321W\r\nTG002",
+            "Hassan Ali,12345678X\nXX001\nAli,87654321W\nTG002\n",
+            "Hassan#,12345678X\nTG002\n",
+            "Hassan,12345678X\nTG002\nAli,12345678X\nTG002\n",
+            "Hassan,12345678X\n\nAli,87654321W\nTG002\n",
+            "José,12345678X\nTG002\n"
+    };
+
+    static final Set<String> MOVIE_IDS = Set.of("TSR001", "TG002", "TDK003");
+
+    private static File write(String content) throws IOException {
+        File file = File.createTempFile("mapped", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String> describeMovies(List<Movie> movies) {
+        List<String> lines = new ArrayList<>();
+        for (Movie m : movies) lines.add(m.getTitle() + "|" + m.getId() + "|" + m.getGenres());
+        return lines;
+    }
+
+    private static List<String> describeUsers(List<User> users) {
+        List<String> lines = new ArrayList<>();
+        for (User u : users) lines.add(u.getName() + "|" + u.getId() + "|" + u.getLikedMovieIds());
+        return lines;
+    }
+
+    @Test
+    public void testMoviesMatchBufferedReader() throws IOException {
+        FileHandler buffered = new FileHandler(new InputValidator());
+        for (long window : new long[]{40, 4096, MappedLineReader.DEFAULT_WINDOW}) {
+            FileHandler mapped = new MappedFileHandler(new InputValidator(), window);
+            for (String content : MOVIE_FILES) {
+                File file = write(content);
+                List<String> expectedErrors = new ArrayList<>();
+                List<String> actualErrors = new ArrayList<>();
+                List<Movie> expected = buffered.readMovies(file.getPath(), expectedErrors);
+                List<Movie> actual = mapped.readMovies(file.getPath(), actualErrors);
+
+                assertEquals(describeMovies(expected), describeMovies(actual), content);
+                assertEquals(expectedErrors, actualErrors, content);
+            }
+        }
+    }
+
+    @Test
+    public void testUsersMatchBufferedReader() throws IOException {
+        FileHandler buffered = new FileHandler(new InputValidator());
+        for (long window : new long[]{48, 4096, MappedLineReader.DEFAULT_WINDOW}) {
+            FileHandler mapped = new MappedFileHandler(new InputValidator(), window);
+            for (String content : USER_FILES) {
+                File file = write(content);
+                List<String> expectedErrors = new ArrayList<>();
+                List<String> actualErrors = new ArrayList<>();
+                List<User> expected = buffered.readUsers(file.getPath(), MOVIE_IDS, expectedErrors);
+                List<User> actual = mapped.readUsers(file.getPath(), MOVIE_IDS, actualErrors);
+
+                assertEquals(describeUsers(expected), describeUsers(actual), content);
+                assertEquals(expectedErrors, actualErrors, content);
+            }
+        }
+    }
+
+    @Test
+    public void testRecordsSpanningManyWindows() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            content.append("Up,U").append(String.format("%03d", i)).append(i % 3 == 0 ? "\r\n" : "\n");
+            content.append("Animation, Family").append(i % 2 == 0 ? "\r" : "\n");
+        }
+        File file = write(content.toString());
+
+        List<String> errors = new ArrayList<>();
+        List<Movie> expected = new FileHandler(new InputValidator()).readMovies(file.getPath(), errors);
+        List<Movie> actual = new MappedFileHandler(new InputValidator(), 40).readMovies(file.getPath(), new ArrayList<>());
+
+        assertEquals(500, actual.size());
+        assertEquals(describeMovies(expected), describeMovies(actual));
+    }
+
+    @Test
+    public void testLineLongerThanWindowFails() throws IOException {
+        File file = write("The Shawshank Redemption,TSR001\nDrama\n");
+        FileHandler mapped = new MappedFileHandler(new InputValidator(), 8);
+        assertThrows(IOException.class, () -> mapped.readMovies(file.getPath(), new ArrayList<>()));
+    }
+
+    @Test
+    public void testUnsupportedFormat() throws IOException {
+        List<String> errors = new ArrayList<>();
+        new MappedFileHandler(new InputValidator()).readMovies("movies.csv", errors);
+        assertEquals(List.of("ERROR: Unsupported format"), errors);
+    }
+}
@@ -0,0 +1,67 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinHashIndexTest {
+
+    private static int[] range(int from, int to) {
+        int[] values = new int[to - from];
+        for (int i = 0; i < values.length; i++) values[i] = from + i;
+        return values;
+    }
+
+    @Test
+    void testSimilarityEstimatesJaccard() {
+        // Jaccard 1, 0.5, 0 against the first set
+        int[][] sets = {range(0, 100), range(0, 100), range(33, 133), range(500, 600)};
+        MinHashIndex index = new MinHashIndex(sets, 32, 8, 256, 1);
+
+        assertEquals(1f, index.similarity(0, 1));
+        assertEquals(0.5f, index.similarity(0, 2), 0.1f);
+        assertEquals(0f, index.similarity(0, 3), 0.02f);
+    }
+
+    @Test
+    void testNeighborsFindSimilarSetsAndSkipEmptyOnes() {
+        int[][] sets = {range(0, 50), range(1, 51), range(200, 250), range(201, 251), new int[0], range(400, 450)};
+        NeighborTable table = new MinHashIndex(sets, 16, 4, 256, 7).neighbors(3);
+
+        assertEquals(6, table.movieCount());
+        assertEquals(1, table.neighbor(table.from(0)));
+        assertEquals(0, table.neighbor(table.from(1)));
+        assertEquals(3, table.neighbor(table.from(2)));
+        assertEquals(1, table.to(0) - table.from(0), "dissimilar sets are not candidates");
+        assertEquals(0, table.to(4) - table.from(4));
+        assertEquals(0, table.to(5) - table.from(5));
+    }
+
+    @Test
+    void testHighRecallForCloseSets() {
+        Random random = new Random(5);
+        int[][] sets = new int[400][];
+        for (int i = 0; i < sets.length; i += 2) {
+            // pairs sharing 45 of 55 tokens, Jaccard about 0.8
+            int base = i * 1000;
+            sets[i] = range(base, base + 50);
+            sets[i + 1] = range(base + 5, base + 55);
+            if (random.nextBoolean()) sets[i + 1][0] = base + 999;
+        }
+        NeighborTable table = new MinHashIndex(sets, 16, 4, 256, 3).neighbors(1);
+
+        int found = 0;
+        for (int i = 0; i < sets.length; i++) {
+            if (table.to(i) > table.from(i) && table.neighbor(table.from(i)) == (i ^ 1)) found++;
+        }
+        assertTrue(found > 390, "found " + found);
+    }
+
+    @Test
+    void testRejectsBadSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new MinHashIndex(new int[0][], 0, 4, 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> new MinHashIndex(new int[0][], 4, 4, 10, 1).neighbors(0));
+    }
+}
@@ -0,0 +1,85 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinHashRecommenderTest {
+
+    private static List<Movie> movies() {
+        List<Movie> movies = new ArrayList<>();
+        movies.add(new Movie("Up", "U001", List.of("Animation")));
+        movies.add(new Movie("Heat", "H002", List.of("Crime")));
+        movies.add(new Movie("Cars", "C003", List.of("Animation")));
+        movies.add(new Movie("Alien", "A004", List.of("Horror")));
+        return movies;
+    }
+
+    @Test
+    void testUserModeRecommendsNeighborsLikes() {
+        User fan = new User("Mona", "12345678A", List.of("U001", "H002"));
+        User other = new User("Omar", "12345678B", List.of("U001", "H002", "A004"));
+        User loner = new User("Nour", "12345678D", List.of("C003"));
+        List<User> users = List.of(fan, other, loner);
+
+        for (Recommender recommender : List.of(
+                new MinHashRecommender(MinHashRecommender.Mode.USER, 32, 2, 5, 10),
+                MinHashRecommender.exact(MinHashRecommender.Mode.USER, 5, 10))) {
+            Map<User, List<String>> result = recommender.recommend(users, movies());
+            assertEquals(List.of("Alien"), result.get(fan));
+            assertEquals(List.of(), result.get(loner));
+        }
+    }
+
+    @Test
+    void testItemModeUsesGenresAndLikers() {
+        User a = new User("Mona", "12345678A", List.of("U001", "H002"));
+        User b = new User("Omar", "12345678B", List.of("U001", "H002"));
+        User newcomer = new User("Sara", "12345678C", List.of("U001"));
+        List<User> users = List.of(a, b, newcomer);
+
+        // Up shares its likers with Heat (Jaccard 2/5) and its genre with Cars (1/4)
+        Map<User, List<String>> exact = MinHashRecommender.exact(MinHashRecommender.Mode.ITEM, 5, 10).recommend(users, movies());
+        assertEquals(List.of("Heat", "Cars"), exact.get(newcomer));
+
+        Map<User, List<String>> approximate = new MinHashRecommender(MinHashRecommender.Mode.ITEM, 64, 1, 5, 10).recommend(users, movies());
+        assertTrue(approximate.get(newcomer).contains("Heat"));
+        assertFalse(approximate.get(newcomer).contains("Up"));
+    }
+
+    @Test
+    void testRecallAgainstExactEngine() {
+        Random random = new Random(12);
+        List<Movie> movies = new ArrayList<>();
+        String[] genres = {"Action", "Drama", "Comedy", "Horror", "Crime", "War"};
+        for (int m = 0; m < 150; m++) movies.add(new Movie("Movie " + m, "M" + m, List.of(genres[random.nextInt(genres.length)])));
+        List<User> users = new ArrayList<>();
+        for (int u = 0; u < 400; u++) {
+            // users cluster around one of 10 groups of 15 movies
+            int group = random.nextInt(10) * 15;
+            List<String> likes = new ArrayList<>();
+            for (int l = 0; l < 6; l++) likes.add("M" + (group + random.nextInt(15)));
+            users.add(new User("User", String.format("%08dA", u), likes));
+        }
+
+        Map<User, List<String>> exact = MinHashRecommender.exact(MinHashRecommender.Mode.USER, 10, 5).recommend(users, movies);
+        Map<User, List<String>> approximate = new MinHashRecommender(MinHashRecommender.Mode.USER, 16, 2, 10, 5).recommend(users, movies);
+        int hits = 0;
+        int total = 0;
+        for (User user : users) {
+            Set<String> expected = new HashSet<>(exact.get(user));
+            total += expected.size();
+            for (String title : approximate.get(user)) if (expected.contains(title)) hits++;
+        }
+        assertTrue(hits > 0.7 * total, "recall " + hits + "/" + total);
+    }
+
+    @Test
+    void testRejectsBadSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new MinHashRecommender(MinHashRecommender.Mode.ITEM, 0, 4, 5, 5));
+        assertThrows(IllegalArgumentException.class, () -> new MinHashRecommender(MinHashRecommender.Mode.ITEM, 4, 4, 0, 5));
+        assertThrows(IllegalArgumentException.class, () -> MinHashRecommender.exact(MinHashRecommender.Mode.USER, 5, 0));
+    }
+}
@@ -71,4 +71,11 @@ class MovieTest {
         assertEquals(1000, movie.getGenres().size());
     }
 
+    @Test
+    void testCompactGenres() {
+        StringDictionary dictionary = new StringDictionary();
+        Movie movie = new Movie("Inception", "M001", new int[]{dictionary.intern("Sci-Fi"), dictionary.intern("Thriller")}, dictionary);
+        assertEquals(Arrays.asList("Sci-Fi", "Thriller"), movie.getGenres());
+        assertEquals("Thriller", movie.getGenres().get(1));
+    }
 }
@@ -0,0 +1,67 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NeighborRecommenderTest {
+
+    @Test
+    void testRanksMergedNeighbors() {
+        List<Movie> movies = new ArrayList<>();
+        movies.add(new Movie("Deadpool", "D001", List.of("Action", "Comedy")));
+        movies.add(new Movie("Extraction", "E002", List.of("Action")));
+        movies.add(new Movie("Kung Fu Hustle", "KFH003", List.of("Action", "Comedy")));
+        movies.add(new Movie("The Hangover", "TH004", List.of("Comedy")));
+        movies.add(new Movie("The Godfather", "TG005", List.of("Drama")));
+
+        User user = new User("Joseph", "87654321B", List.of("D001"));
+        Map<User, List<String>> result = new NeighborRecommender(10).recommend(List.of(user), movies);
+        // Jaccard 1 for Kung Fu Hustle, 0.5 for the other two
+        assertEquals(List.of("Kung Fu Hustle", "Extraction", "The Hangover"), result.get(user));
+
+        User both = new User("Mona", "12345678A", List.of("D001", "E002"));
+        result = new NeighborRecommender(1, 5, null).recommend(List.of(both), movies);
+        assertEquals(List.of("Kung Fu Hustle"), result.get(both));
+    }
+
+    @Test
+    void testCoversGenreEngineTitlesWithWideRows() {
+        Random random = new Random(9);
+        String[] genres = {"Action", "Drama", "Comedy", "Horror", "Crime"};
+        List<Movie> movies = new ArrayList<>();
+        for (int m = 0; m < 80; m++) {
+            movies.add(new Movie("Movie " + random.nextInt(60), "M" + m,
+                    List.of(genres[random.nextInt(genres.length)], genres[random.nextInt(genres.length)])));
+        }
+        List<User> users = new ArrayList<>();
+        for (int u = 0; u < 100; u++) {
+            users.add(new User("User", String.format("%08dA", u), List.of("M" + random.nextInt(90), "M" + random.nextInt(80))));
+        }
+
+        Map<User, List<String>> expected = RecommendationSystem.generateRecommendations(users, movies);
+        Map<User, List<String>> actual = new NeighborRecommender(movies.size()).recommend(users, movies);
+        for (User user : users) {
+            assertEquals(new HashSet<>(expected.get(user)), new HashSet<>(actual.get(user)));
+        }
+    }
+
+    @Test
+    void testStoresTableNextToCatalog() throws IOException {
+        Path source = Files.createTempDirectory("neighbors").resolve("movies.txt");
+        Files.writeString(source, "Up,U001\nAnimation\nCars,C002\nAnimation\n");
+        List<Movie> movies = new FileHandler(new InputValidator()).readMovies(source.toString(), new ArrayList<>());
+        User user = new User("Nour", "12345678F", List.of("U001"));
+
+        NeighborRecommender recommender = new NeighborRecommender(3, 10, source.toString());
+        assertEquals(List.of("Cars"), recommender.recommend(List.of(user), movies).get(user));
+        assertTrue(Files.exists(NeighborTable.tablePath(source.toString())));
+        assertNotNull(NeighborTable.load(NeighborTable.tablePath(source.toString()), source, 3, 2));
+        assertEquals(List.of("Cars"), recommender.recommend(List.of(user), movies).get(user));
+    }
+}
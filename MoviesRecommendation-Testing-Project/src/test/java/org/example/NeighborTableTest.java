@@ -0,0 +1,129 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NeighborTableTest {
+
+    private static Set<String> genreSet(Movie movie) {
+        Set<String> genres = new HashSet<>();
+        for (String genre : movie.getGenres()) genres.add(genre.toLowerCase());
+        return genres;
+    }
+
+    @Test
+    void testRowsHoldBestJaccardNeighbors() {
+        List<Movie> movies = RandomData.movies(new Random(1), 120, 8, 1, 4, true);
+        NeighborTable table = NeighborTable.build(new GenreIndex(movies), 5, 1);
+
+        for (int m = 0; m < movies.size(); m++) {
+            // brute force: all other movies by similarity, then position
+            List<double[]> expected = new ArrayList<>();
+            Set<String> mine = genreSet(movies.get(m));
+            for (int o = 0; o < movies.size(); o++) {
+                if (o == m) continue;
+                Set<String> both = genreSet(movies.get(o));
+                Set<String> union = new HashSet<>(both);
+                union.addAll(mine);
+                both.retainAll(mine);
+                if (!both.isEmpty()) expected.add(new double[]{(float) both.size() / union.size(), o});
+            }
+            expected.sort((a, b) -> a[0] != b[0] ? Double.compare(b[0], a[0]) : Double.compare(a[1], b[1]));
+
+            assertEquals(Math.min(5, expected.size()), table.to(m) - table.from(m));
+            for (int i = table.from(m); i < table.to(m); i++) {
+                double[] want = expected.get(i - table.from(m));
+                assertEquals((int) want[1], table.neighbor(i));
+                assertEquals((float) want[0], table.score(i));
+            }
+        }
+    }
+
+    @Test
+    void testParallelBuildMatchesSerial() {
+        GenreIndex index = new GenreIndex(RandomData.movies(new Random(2), 1500, 8, 1, 4, true));
+        NeighborTable serial = NeighborTable.build(index, 8, 1);
+        NeighborTable parallel = NeighborTable.build(index, 8, 4);
+
+        assertEquals(serial.movieCount(), parallel.movieCount());
+        for (int m = 0; m < serial.movieCount(); m++) {
+            assertEquals(serial.from(m), parallel.from(m));
+            for (int i = serial.from(m); i < serial.to(m); i++) {
+                assertEquals(serial.neighbor(i), parallel.neighbor(i));
+                assertEquals(serial.score(i), parallel.score(i));
+            }
+        }
+    }
+
+    @Test
+    void testWriteAndLoad() throws IOException {
+        Path source = Files.createTempDirectory("neighbors").resolve("movies.txt");
+        Files.writeString(source, "Up,U001\nAnimation\n");
+        GenreIndex index = new GenreIndex(RandomData.movies(new Random(3), 50, 8, 1, 4, true));
+        NeighborTable table = NeighborTable.build(index, 4, 1);
+        Path stored = NeighborTable.tablePath(source.toString());
+        table.write(stored, source);
+
+        NeighborTable loaded = NeighborTable.load(stored, source, 4, 50);
+        assertNotNull(loaded);
+        for (int m = 0; m < 50; m++) {
+            assertEquals(table.from(m), loaded.from(m));
+            for (int i = table.from(m); i < table.to(m); i++) {
+                assertEquals(table.neighbor(i), loaded.neighbor(i));
+                assertEquals(table.score(i), loaded.score(i));
+            }
+        }
+
+        assertNull(NeighborTable.load(stored, source, 5, 50), "other neighbor count");
+        assertNull(NeighborTable.load(stored, source, 4, 51), "other catalog size");
+        Files.writeString(source, "Up,U001\nAnimation\nCars,C002\nAnimation\n");
+        assertNull(NeighborTable.load(stored, source, 4, 50), "catalog changed");
+    }
+
+    @Test
+    void testRejectsBadSettings() {
+        GenreIndex index = new GenreIndex(new ArrayList<>());
+        assertThrows(IllegalArgumentException.class, () -> NeighborTable.build(index, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> NeighborTable.build(index, 3, 0));
+        assertEquals(0, NeighborTable.build(index, 3, 1).movieCount());
+    }
+
+    @Test
+    void testTokenSetRowsSplitAcrossThreadsMatchBruteForce() {
+        // enough distinct sets to split into tasks, and repeated ones
+        Random random = new Random(4);
+        int[][] sets = new int[3000][];
+        for (int item = 0; item < sets.length; item++) {
+            sets[item] = item % 3 == 1
+                    ? sets[random.nextInt(item)]
+                    : random.ints(0, 40).distinct().limit(random.nextInt(5)).toArray();
+        }
+        NeighborTable table = NeighborTable.build(sets, 40, 6, 4);
+
+        for (int m = 0; m < sets.length; m += 7) {
+            List<double[]> expected = new ArrayList<>();
+            for (int o = 0; o < sets.length; o++) {
+                if (o == m) continue;
+                int both = 0;
+                for (int token : sets[m]) {
+                    for (int other : sets[o]) if (token == other) both++;
+                }
+                if (both > 0) expected.add(new double[]{(float) both / (sets[m].length + sets[o].length - both), o});
+            }
+            expected.sort((a, b) -> a[0] != b[0] ? Double.compare(b[0], a[0]) : Double.compare(a[1], b[1]));
+
+            assertEquals(Math.min(6, expected.size()), table.to(m) - table.from(m));
+            for (int i = table.from(m); i < table.to(m); i++) {
+                double[] want = expected.get(i - table.from(m));
+                assertEquals((int) want[1], table.neighbor(i));
+                assertEquals((float) want[0], table.score(i));
+            }
+        }
+    }
+}
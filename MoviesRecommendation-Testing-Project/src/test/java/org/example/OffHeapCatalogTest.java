@@ -0,0 +1,119 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapCatalogTest {
+
+    private static List<Movie> randomMovies(Random random, int count) {
+        List<Movie> movies = RandomData.movies(random, count, 8, 1, 3, false);
+        movies.add(new Movie("Amélie", "É001", List.of("Comédie")));
+        return movies;
+    }
+
+    private static List<User> randomUsers(Random random, int count, int movieCount) {
+        List<User> users = RandomData.users(random, count, movieCount + 20, 0);
+        users.add(new User("Nobody", "99999999Z", null));
+        users.add(new User("French", "99999999Y", List.of("É001")));
+        return users;
+    }
+
+    @Test
+    void testMatchesRecommendationSystem() {
+        Random random = new Random(21);
+        List<Movie> movies = randomMovies(random, 300);
+        List<User> users = randomUsers(random, 500, 300);
+
+        Map<User, List<String>> expected = RecommendationSystem.generateRecommendations(users, movies);
+        try (Arena arena = Arena.ofConfined()) {
+            OffHeapCatalog catalog = OffHeapCatalog.build(Catalog.of(movies), arena);
+            assertEquals(expected, RecommendationSystem.generateRecommendations(users, catalog));
+            assertEquals(movies.size(), catalog.movieCount());
+            assertEquals(-1, catalog.movieOf("UNKNOWN"));
+        }
+        assertEquals(expected, new OffHeapRecommendationSystem().recommend(users, movies));
+    }
+
+    @Test
+    void testWriteAndMap() throws IOException {
+        Random random = new Random(22);
+        List<Movie> movies = randomMovies(random, 200);
+        List<User> users = randomUsers(random, 200, 200);
+        Path file = Files.createTempFile("catalog", ".offheap");
+
+        try (Arena arena = Arena.ofConfined()) {
+            OffHeapCatalog.build(Catalog.of(movies), arena).write(file);
+        }
+        try (Arena arena = Arena.ofConfined()) {
+            OffHeapCatalog mapped = OffHeapCatalog.map(file, arena);
+            assertEquals(RecommendationSystem.generateRecommendations(users, movies),
+                    RecommendationSystem.generateRecommendations(users, mapped));
+        }
+
+        Files.writeString(file, "not a catalog");
+        try (Arena arena = Arena.ofConfined()) {
+            assertThrows(IllegalArgumentException.class, () -> OffHeapCatalog.map(file, arena));
+        }
+    }
+
+    @Test
+    void testOffHeapLikesMatchUserLists() {
+        Random random = new Random(23);
+        List<Movie> movies = randomMovies(random, 150);
+        // enough users and likes to grow both buffers several times
+        List<User> users = randomUsers(random, 5000, 150);
+        Map<User, List<String>> expected = RecommendationSystem.generateRecommendations(users, movies);
+
+        try (Arena arena = Arena.ofConfined()) {
+            OffHeapCatalog catalog = OffHeapCatalog.build(Catalog.of(movies), arena);
+            OffHeapLikes.Builder builder = new OffHeapLikes.Builder(catalog);
+            for (User user : users) builder.add(user.getLikedMovieIds());
+            try (OffHeapLikes likes = builder.build()) {
+                assertEquals(users.size(), likes.userCount());
+                OffHeapCatalog.Scratch scratch = catalog.newScratch();
+                int[] buffer = new int[2];
+                for (int u = 0; u < users.size(); u++) {
+                    assertEquals(expected.get(users.get(u)), likes.recommend(catalog, u, scratch, buffer));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testMapIfCurrentFollowsTheMoviesFile() throws IOException {
+        List<Movie> movies = randomMovies(new Random(24), 100);
+        Path source = Files.createTempFile("movies", ".txt");
+        Path file = Files.createTempFile("catalog", ".offheap");
+
+        try (Arena arena = Arena.ofConfined()) {
+            assertNull(OffHeapCatalog.mapIfCurrent(file, source, "regex", arena));
+            OffHeapCatalog built = OffHeapCatalog.build(Catalog.of(movies), arena);
+            built.write(file, source, "regex");
+            assertNull(OffHeapCatalog.mapIfCurrent(file, source, "extended", arena));
+            OffHeapCatalog mapped = OffHeapCatalog.mapIfCurrent(file, source, "regex", arena);
+            assertNotNull(mapped);
+            assertEquals(built.byteSize() + "regex".length(), mapped.byteSize());
+            Set<String> ids = new HashSet<>();
+            for (Movie movie : movies) ids.add(movie.getId());
+            assertEquals(ids, mapped.movieIds());
+            assertTrue(mapped.movieIds().contains("É001"));
+            assertFalse(mapped.movieIds().contains("UNKNOWN"));
+
+            // written again from the mapping, the key is replaced, not appended
+            Path copy = Files.createTempFile("catalog", ".offheap");
+            mapped.write(copy, source, "scanning");
+            assertEquals(Files.size(file) - "regex".length() + "scanning".length(), Files.size(copy));
+            assertNotNull(OffHeapCatalog.mapIfCurrent(copy, source, "scanning", arena));
+
+            Files.writeString(source, "changed");
+            assertNull(OffHeapCatalog.mapIfCurrent(file, source, "regex", arena));
+        }
+    }
+}
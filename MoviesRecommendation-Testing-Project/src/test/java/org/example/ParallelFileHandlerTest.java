@@ -0,0 +1,92 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelFileHandlerTest {
+
+    private static File write(String content) throws IOException {
+        File file = File.createTempFile("parallel", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String> describeUsers(List<User> users) {
+        List<String> lines = new ArrayList<>();
+        for (User u : users) lines.add(u.getName() + "|" + u.getId() + "|" + u.getLikedMovieIds());
+        return lines;
+    }
+
+    private static void assertSameAsBuffered(Validator validator, String content) throws IOException {
+        File file = write(content);
+        List<String> expectedErrors = new ArrayList<>();
+        List<User> expected = new FileHandler(validator).readUsers(file.getPath(), MappedFileHandlerTest.MOVIE_IDS, expectedErrors);
+        for (long chunk : new long[]{1, 3, 7, 16, 100, ParallelFileHandler.DEFAULT_CHUNK}) {
+            for (int threads : new int[]{1, 3}) {
+                FileHandler parallel = new ParallelFileHandler(validator, null, threads, chunk);
+                List<String> actualErrors = new ArrayList<>();
+                List<User> actual = parallel.readUsers(file.getPath(), MappedFileHandlerTest.MOVIE_IDS, actualErrors);
+
+                assertEquals(describeUsers(expected), describeUsers(actual), content + " chunk " + chunk);
+                assertEquals(expectedErrors, actualErrors, content + " chunk " + chunk);
+            }
+        }
+    }
+
+    @Test
+    public void testUsersMatchBufferedReader() throws IOException {
+        for (String content : MappedFileHandlerTest.USER_FILES) assertSameAsBuffered(new InputValidator(), content);
+    }
+
+    @Test
+    public void testRandomFilesMatchBufferedReader() throws IOException {
+        String[] names = {"Hassan", "Ali Mohamed", "José", "Bad#Name"};
+        String[] likes = {"TSR001", "TG002", "TDK003", "XX001"};
+        String[] endings = {"\n", "\r\n", "\r"};
+        Random random = new Random(19);
+        for (int file = 0; file < 200; file++) {
+            StringBuilder content = new StringBuilder();
+            String ending = endings[random.nextInt(endings.length)];
+            int records = random.nextInt(30);
+            for (int r = 0; r < records; r++) {
+                int kind = random.nextInt(40);
+                if (kind == 0) content.append(ending);
+                if (kind == 1) content.append("No Comma").append(ending);
+                String name = names[random.nextInt(kind == 2 ? names.length : names.length - 1)];
+                // a small ID range so repeats happen within and across ranges
+                String id = String.format("%08dX", random.nextInt(kind == 3 ? 1000 : 40));
+                content.append(name).append(",").append(id).append(ending);
+                if (kind == 4) content.append(ending);
+                else content.append(likes[random.nextInt(kind == 5 ? likes.length : likes.length - 1)]).append(", TG002").append(ending);
+            }
+            assertSameAsBuffered(new InputValidator(), content.toString());
+            assertSameAsBuffered(new FileHandlerTest.TestValidator(), content.toString());
+        }
+    }
+
+    @Test
+    public void testRepeatedIdStopsAtFirstRepeat() throws IOException {
+        File file = write("A,11111111X\nTG002\nB,22222222X\nTG002\nC,11111111X\nTG002\nD,22222222X\nTG002\n");
+        List<String> errors = new ArrayList<>();
+        List<User> users = new ParallelFileHandler(new InputValidator(), null, 4, 1)
+                .readUsers(file.getPath(), MappedFileHandlerTest.MOVIE_IDS, errors);
+
+        assertEquals(List.of("A", "B"), users.stream().map(User::getName).toList());
+        assertEquals(List.of("ERROR: User Id 11111111X is wrong"), errors);
+    }
+
+    @Test
+    public void testUnsupportedFormatAndSettings() throws IOException {
+        List<String> errors = new ArrayList<>();
+        assertTrue(new ParallelFileHandler(new InputValidator(), 2).readUsers("users.csv", Set.of(), errors).isEmpty());
+        assertEquals(List.of("ERROR: Unsupported format"), errors);
+        assertThrows(IllegalArgumentException.class, () -> new ParallelFileHandler(new InputValidator(), 0));
+    }
+}
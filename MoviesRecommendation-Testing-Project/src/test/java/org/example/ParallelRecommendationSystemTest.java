@@ -0,0 +1,39 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelRecommendationSystemTest {
+
+    @Test
+    void testMatchesGenreEngineInInputOrder() {
+        Random random = new Random(11);
+        List<Movie> movies = RandomData.movies(random, 200, 7, 1, 3, true);
+        List<User> users = RandomData.users(random, 3000, 220, 0);
+
+        Map<User, List<String>> expected = RecommendationSystem.generateRecommendations(users, movies);
+        Map<User, List<String>> actual = new ParallelRecommendationSystem(4).recommend(users, movies);
+
+        assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(actual.values()));
+    }
+
+    @Test
+    void testSingleThreadAndSmallInputs() {
+        Random random = new Random(5);
+        List<Movie> movies = RandomData.movies(random, 200, 7, 1, 3, true);
+        List<User> users = RandomData.users(random, 10, 220, 0);
+
+        assertEquals(RecommendationSystem.generateRecommendations(users, movies),
+                new ParallelRecommendationSystem(1).recommend(users, movies));
+        assertTrue(new ParallelRecommendationSystem(8).recommend(new ArrayList<>(), movies).isEmpty());
+    }
+
+    @Test
+    void testRejectsNonPositiveParallelism() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelRecommendationSystem(0));
+    }
+}
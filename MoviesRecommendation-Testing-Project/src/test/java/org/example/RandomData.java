@@ -0,0 +1,44 @@
+package org.example;
+
+import java.util.*;
+
+// Random catalogs and users for tests that check one engine or store
+// against another. Genres repeat within a movie and "action" duplicates
+// "Action" but for case; users may like unknown IDs.
+final class RandomData {
+
+    private static final String[] GENRES = {"Action", "Drama", "Comedy", "Horror", "Crime", "War", "Western", "action"};
+
+    private RandomData() {
+    }
+
+    // Movies with minGenres to maxGenres genres drawn from the first
+    // genreCount GENRES. With unique IDs movie m is "Movie m", "M" + m;
+    // otherwise titles and IDs are drawn from [0, count), so both repeat.
+    static List<Movie> movies(Random random, int count, int genreCount, int minGenres, int maxGenres, boolean uniqueIds) {
+        List<Movie> movies = new ArrayList<>();
+        for (int m = 0; m < count; m++) {
+            List<String> movieGenres = new ArrayList<>();
+            for (int g = minGenres + random.nextInt(maxGenres - minGenres + 1); g > 0; g--) {
+                movieGenres.add(GENRES[random.nextInt(genreCount)]);
+            }
+            movies.add(uniqueIds
+                    ? new Movie("Movie " + m, "M" + m, movieGenres)
+                    : new Movie("Movie " + random.nextInt(count), "M" + random.nextInt(count), movieGenres));
+        }
+        return movies;
+    }
+
+    // Users liking up to three of "M0" .. "M" + (idRange - 1); with
+    // noLikesEvery > 0 about one in noLikesEvery has no likes line at all.
+    static List<User> users(Random random, int count, int idRange, int noLikesEvery) {
+        List<User> users = new ArrayList<>();
+        for (int u = 0; u < count; u++) {
+            List<String> likes = new ArrayList<>();
+            for (int l = random.nextInt(4); l > 0; l--) likes.add("M" + random.nextInt(idRange));
+            boolean noLikes = noLikesEvery > 0 && random.nextInt(noLikesEvery) == 0;
+            users.add(new User("User", String.format("%08dA", u), noLikes ? null : likes));
+        }
+        return users;
+    }
+}
@@ -0,0 +1,149 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecommendationServerTest {
+
+    private static final List<Movie> MOVIES = List.of(
+            new Movie("The Dark Knight", "TDK003", List.of("Action", "Crime")),
+            new Movie("The Godfather", "TG002", List.of("Crime", "Drama")),
+            new Movie("Amélie", "AM004", List.of("Drama", "Romance")),
+            new Movie("The Shawshank Redemption", "TSR001", List.of("Drama")));
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private RecommendationServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new RecommendationServer(new GenreIndex(MOVIES), List.of(
+                new User("Hassan Ali", "12345678X", List.of("TDK003")),
+                new User("Ali Mohamed", "87654321W", List.of("TG002", "TSR001"))));
+        server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop();
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        URI uri = URI.create("http://localhost:" + server.getPort() + path);
+        return client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String liked(String ids) {
+        return "/recommendations?liked=" + URLEncoder.encode(ids, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testAnswersLikedIdsAndUsers() throws Exception {
+        Map<User, List<String>> expected = RecommendationSystem.generateRecommendations(
+                List.of(new User("Any", "00000000A", List.of("TG002", "TSR001"))), MOVIES);
+
+        HttpResponse<String> response = get(liked("TG002, TSR001"));
+        assertEquals(200, response.statusCode());
+        assertEquals(String.join(", ", expected.values().iterator().next()) + "\n", response.body());
+
+        assertEquals("The Godfather\n", get(liked("TDK003")).body());
+        assertEquals("\n", get(liked("")).body());
+        assertEquals("Ali Mohamed,87654321W\nThe Dark Knight, Amélie\n", get("/recommendations?user=87654321W").body());
+    }
+
+    @Test
+    void testRejectsBadRequests() throws Exception {
+        assertEquals(404, get("/recommendations?user=99999999Z").statusCode());
+        HttpResponse<String> unknown = get(liked("TG002,NOPE999"));
+        assertEquals(400, unknown.statusCode());
+        assertEquals("ERROR: Unknown movie ID NOPE999\n", unknown.body());
+        assertEquals(400, get("/recommendations").statusCode());
+
+        HttpRequest post = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/recommendations"))
+                .POST(HttpRequest.BodyPublishers.ofString("TG002")).build();
+        assertEquals(405, client.send(post, HttpResponse.BodyHandlers.ofString()).statusCode());
+        assertThrows(IllegalStateException.class, () -> server.start(new InetSocketAddress(0)));
+    }
+
+    @Test
+    void testConcurrentRequestsAreCountedInStats() throws Exception {
+        List<String> ids = List.of("TDK003", "TG002", "AM004", "TSR001");
+        GenreIndex index = new GenreIndex(MOVIES);
+        Random random = new Random(9);
+        List<List<String>> queries = new ArrayList<>();
+        for (int i = 0; i < 200; i++) queries.add(List.of(ids.get(random.nextInt(4)), ids.get(random.nextInt(4))));
+
+        List<Future<HttpResponse<String>>> responses = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (List<String> query : queries) responses.add(clients.submit(() -> get(liked(String.join(",", query)))));
+        }
+        for (int i = 0; i < queries.size(); i++) {
+            List<String> expected = index.recommend(queries.get(i), index.newScratch());
+            assertEquals(String.join(", ", expected) + "\n", responses.get(i).get().body());
+        }
+
+        LatencyRecorder.Snapshot latency = server.latency();
+        assertEquals(200, latency.count());
+        assertTrue(latency.p50() > 0 && latency.p50() <= latency.p99() && latency.p99() <= latency.max());
+        assertTrue(get("/stats").body().startsWith("requests 200, p50 "));
+    }
+
+    @Test
+    void testParsesQueryStrings() {
+        assertEquals(Map.of("liked", "A 1,B", "user", ""), RecommendationServer.parseQuery("liked=A+1%2CB&user&liked=C"));
+        assertTrue(RecommendationServer.parseQuery(null).isEmpty());
+    }
+
+    @Test
+    void testServesSwappedIndex() throws Exception {
+        List<Movie> updated = new ArrayList<>(MOVIES);
+        updated.add(new Movie("Heat", "H005", List.of("Crime")));
+        server.setIndex(new GenreIndex(updated));
+
+        assertEquals("The Godfather, Heat\n", get(liked("TDK003")).body());
+        assertEquals(200, get(liked("H005")).statusCode());
+        assertEquals(5, server.getIndex().movieCount());
+
+        // users keep working when a movie they like leaves the catalog
+        server.setIndex(new GenreIndex(MOVIES.subList(1, 4)));
+        assertEquals(400, get(liked("TDK003")).statusCode());
+        assertEquals("Hassan Ali,12345678X\n\n", get("/recommendations?user=12345678X").body());
+    }
+
+    @Test
+    void testRequestsNeverBlockOnSwaps() throws Exception {
+        GenreIndex before = new GenreIndex(MOVIES);
+        List<Movie> updated = new ArrayList<>(MOVIES);
+        updated.add(new Movie("Heat", "H005", List.of("Crime")));
+        GenreIndex after = new GenreIndex(updated);
+        Set<String> answers = Set.of(
+                String.join(", ", before.recommend(List.of("TG002"), before.newScratch())) + "\n",
+                String.join(", ", after.recommend(List.of("TG002"), after.newScratch())) + "\n");
+
+        List<Future<HttpResponse<String>>> responses = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 200; i++) {
+                responses.add(clients.submit(() -> get(liked("TG002"))));
+                server.setIndex(i % 2 == 0 ? after : before);
+            }
+        }
+        // every answer comes whole from one catalog or the other
+        for (Future<HttpResponse<String>> response : responses) assertTrue(answers.contains(response.get().body()));
+    }
+}
@@ -0,0 +1,163 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTest {
+
+    private static Path newCacheFile() throws IOException {
+        return Files.createTempDirectory("results").resolve("cache.results");
+    }
+
+    @Test
+    void testReopenedCacheReturnsStoredResults() throws IOException {
+        Path file = newCacheFile();
+        long likes = ResultCache.likesHash(List.of("A1", "B2"));
+        try (ResultCache cache = ResultCache.open(file, 7, 1 << 20)) {
+            assertNull(cache.get("12345678X", likes));
+            cache.put("12345678X", likes, new int[]{4, 0, 7});
+            cache.put("87654321W", ResultCache.likesHash(null), new int[0]);
+            assertArrayEquals(new int[]{4, 0, 7}, cache.get("12345678X", likes));
+        }
+
+        try (ResultCache cache = ResultCache.open(file, 7, 1 << 20)) {
+            assertArrayEquals(new int[]{4, 0, 7}, cache.get("12345678X", likes));
+            assertArrayEquals(new int[0], cache.get("87654321W", ResultCache.likesHash(List.of())));
+            // other likes, or the same likes in another order
+            assertNull(cache.get("12345678X", ResultCache.likesHash(List.of("B2", "A1"))));
+            assertEquals(2, cache.stats().hits());
+            assertEquals(1, cache.stats().misses());
+        }
+
+        try (ResultCache cache = ResultCache.open(file, 8, 1 << 20)) {
+            assertNull(cache.get("12345678X", likes));
+            assertEquals(0, cache.stats().entries());
+        }
+    }
+
+    @Test
+    void testTornTailAndForeignFilesAreDropped() throws IOException {
+        Path file = newCacheFile();
+        try (ResultCache cache = ResultCache.open(file, 1, 1 << 20)) {
+            cache.put("A", 1, new int[]{1});
+            cache.put("B", 2, new int[]{2, 2});
+        }
+        long size = Files.size(file);
+        try (var channel = java.nio.channels.FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+        try (ResultCache cache = ResultCache.open(file, 1, 1 << 20)) {
+            assertArrayEquals(new int[]{1}, cache.get("A", 1));
+            assertNull(cache.get("B", 2));
+            cache.put("B", 2, new int[]{2, 2});
+        }
+        try (ResultCache cache = ResultCache.open(file, 1, 1 << 20)) {
+            assertArrayEquals(new int[]{2, 2}, cache.get("B", 2));
+        }
+
+        Files.writeString(file, "not a cache");
+        try (ResultCache cache = ResultCache.open(file, 1, 1 << 20)) {
+            assertEquals(0, cache.stats().entries());
+        }
+        assertEquals(ResultCache.HEADER, Files.size(file));
+        assertThrows(IllegalArgumentException.class, () -> ResultCache.open(file, 1, -1));
+    }
+
+    @Test
+    void testCloseCompactsOverwrittenRecords() throws IOException {
+        Path file = newCacheFile();
+        try (ResultCache cache = ResultCache.open(file, 1, 1 << 20)) {
+            for (int run = 0; run < 50; run++) {
+                for (int u = 0; u < 10; u++) cache.put("U" + u, run, new int[]{run});
+            }
+            assertEquals(10, cache.stats().entries());
+        }
+        ResultCache.Stats stats;
+        try (ResultCache cache = ResultCache.open(file, 1, 1 << 20)) {
+            stats = cache.stats();
+            for (int u = 0; u < 10; u++) assertArrayEquals(new int[]{49}, cache.get("U" + u, 49));
+        }
+        assertEquals(stats.liveBytes() + ResultCache.HEADER, Files.size(file));
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedBeyondBudget() throws IOException {
+        Path file = newCacheFile();
+        long budget;
+        try (ResultCache cache = ResultCache.open(file, 1, Long.MAX_VALUE)) {
+            cache.put("A", 1, new int[]{1, 2});
+            budget = cache.stats().liveBytes() * 2;
+        }
+        try (ResultCache cache = ResultCache.open(file, 1, budget)) {
+            cache.put("B", 2, new int[]{3, 4});
+            assertArrayEquals(new int[]{1, 2}, cache.get("A", 1));
+            cache.put("C", 3, new int[]{5, 6});
+            cache.compact();
+            // B was used least recently
+            assertEquals(1, cache.stats().evictions());
+            assertNull(cache.get("B", 2));
+            assertArrayEquals(new int[]{1, 2}, cache.get("A", 1));
+            assertArrayEquals(new int[]{5, 6}, cache.get("C", 3));
+            assertTrue(cache.stats().fileBytes() <= budget + ResultCache.HEADER);
+        }
+        try (ResultCache cache = ResultCache.open(file, 1, budget)) {
+            assertEquals(2, cache.stats().entries());
+        }
+    }
+
+    @Test
+    void testRecommendationSystemReusesUnchangedUsers() throws IOException {
+        Path file = newCacheFile();
+        Random random = new Random(17);
+        List<Movie> movies = RandomData.movies(random, 100, 5, 0, 2, true);
+        List<User> users = RandomData.users(random, 500, 110, 20);
+        RecommendationSystem cached = new RecommendationSystem(file, 1 << 20);
+
+        Map<User, List<String>> expected = RecommendationSystem.generateRecommendations(users, movies);
+        assertEquals(expected, cached.recommend(users, movies));
+        assertEquals(0, cached.getLastCacheStats().hits());
+        assertEquals(expected, cached.recommend(users, Catalog.of(movies)));
+        assertEquals(500, cached.getLastCacheStats().hits());
+
+        // one user's likes change
+        List<User> changed = new ArrayList<>(users);
+        changed.set(3, new User("User", users.get(3).getId(), List.of("M1", "M2")));
+        assertEquals(RecommendationSystem.generateRecommendations(changed, movies), cached.recommend(changed, movies));
+        assertEquals(499, cached.getLastCacheStats().hits());
+
+        // any catalog change is a new version
+        List<Movie> edited = new ArrayList<>(movies);
+        edited.set(0, new Movie("Edited", "M0", List.of("War")));
+        assertEquals(RecommendationSystem.generateRecommendations(users, edited), cached.recommend(users, edited));
+        assertEquals(0, cached.getLastCacheStats().hits());
+        assertNull(new RecommendationSystem().getLastCacheStats());
+    }
+
+    @Test
+    void testCatalogVersionFollowsRecommendationInputs() {
+        List<Movie> movies = List.of(
+                new Movie("Heat", "H1", List.of("Crime")),
+                new Movie("Ran", "R2", List.of("War", "Drama")));
+        long version = ResultCache.catalogVersion(new GenreIndex(movies));
+
+        assertEquals(version, ResultCache.catalogVersion(new GenreIndex(new ArrayList<>(movies))));
+        assertNotEquals(version, ResultCache.catalogVersion(new GenreIndex(List.of(
+                new Movie("Heat", "H1", List.of("Crime")),
+                new Movie("Ran", "R2", List.of("Drama", "War"))))));
+        assertNotEquals(version, ResultCache.catalogVersion(new GenreIndex(List.of(
+                new Movie("Heat 2", "H1", List.of("Crime")),
+                new Movie("Ran", "R2", List.of("War", "Drama"))))));
+        // a movie without genres moves the title codes after it
+        assertNotEquals(version, ResultCache.catalogVersion(new GenreIndex(List.of(
+                new Movie("Kagemusha", "K3", List.of()),
+                new Movie("Heat", "H1", List.of("Crime")),
+                new Movie("Ran", "R2", List.of("War", "Drama"))))));
+    }
+}
@@ -0,0 +1,93 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Checks that ScanningValidator accepts and rejects exactly what InputValidator
+// does, using the inputs from InputValidatorTest, BlackBoxTest and WhiteBoxTest
+// plus whitespace and character-class edge cases.
+public class ScanningValidatorTest {
+
+    InputValidator regex = new InputValidator();
+    ScanningValidator scanning = new ScanningValidator();
+
+    static final String[] TITLES = {
+            "", "2invalid", "Inv@lid_", "Iron@Man", "Matrix", "Matrix2", "Room 101",
+            "The Matrix Reloaded", "The Matrix", "matrix", "the Matrix",
+            "A", "1", "007", "Se7en", "The  Matrix", "The Matrix ", " The Matrix", "The\tMatrix",
+            "MATRIX", "The 2", "2 Fast 2 Furious", "Ãmelie", "The Matrix\n", "Up\u000BDown", "Up Down"
+    };
+
+    static final String[] NAMES = {
+            " Alice", " Andrew", "Alice Smith", "Alice", "Alice1", "Andrew!", "Issac Amin", "Issac123",
+            "Poula  Hakem", "Poula ", "Poula", "", "a", "ALICE", "Alice\tSmith", "Alice\fSmith", "José"
+    };
+
+    static final String[] USER_IDS = {
+            "123456789", "1234567890", "12345678@", "12345678A", "1234567A", "1234567aa", "12345A",
+            "123A5678B", "1ABCDEF2G", "a12345678", "", "1ABCDEFGH", "1abcdef2g", "1ABC EF2G", "1ABCDEF2١"
+    };
+
+    static final String[][] TITLE_ID_PAIRS = {
+            {"A", "A123"}, {"Fast And Furious 7", "FAF123"}, {"Iron Man 2", "IM123"}, {"Iron man", "IM456"},
+            {"Matrix", "M123"}, {"Matrix", "Z123"}, {"The Batman", "T123"}, {"The Batman", "TB123"},
+            {"7", "123"}, {"", ""}, {"The Batman", "TB"}, {"The Batman", "T"}, {"Ab", "ab123"}
+    };
+
+    static final String[] MOVIE_IDS = {
+            "123XYZ", "AVT124", "MTX123", "MTX1234", "MTX12@", "MTXABC", "XYZ123", "M000", "123",
+            "", "M12", "m999", "MT X123", "MTX12٣"
+    };
+
+    @Test
+    public void testMovieTitlesMatchRegexValidator() {
+        for (String title : TITLES) {
+            assertEquals(regex.isValidMovieTitle(title), scanning.isValidMovieTitle(title), title);
+        }
+    }
+
+    @Test
+    public void testUserNamesMatchRegexValidator() {
+        for (String name : NAMES) {
+            assertEquals(regex.isValidUserName(name), scanning.isValidUserName(name), name);
+        }
+    }
+
+    @Test
+    public void testUserIdsMatchRegexValidator() {
+        Set<String> existing = new HashSet<>(Set.of("12345678A", "1ABCDEF2G"));
+        for (String id : USER_IDS) {
+            assertEquals(regex.isValidUserId(id, new HashSet<>()), scanning.isValidUserId(id, new HashSet<>()), id);
+            assertEquals(regex.isValidUserId(id, existing), scanning.isValidUserId(id, existing), id);
+        }
+    }
+
+    @Test
+    public void testMovieIdLettersMatchRegexValidator() {
+        for (String[] pair : TITLE_ID_PAIRS) {
+            assertEquals(regex.isMovieIdLettersValid(pair[0], pair[1]),
+                    scanning.isMovieIdLettersValid(pair[0], pair[1]), pair[0] + "/" + pair[1]);
+        }
+    }
+
+    @Test
+    public void testMovieIdSuffixesMatchRegexValidator() {
+        Set<String> existing = new HashSet<>(Set.of("AVT123", "MR456", "X1", "7"));
+        for (String id : MOVIE_IDS) {
+            assertEquals(regex.isMovieIdSuffixValid(id, new HashSet<>()), scanning.isMovieIdSuffixValid(id, new HashSet<>()), id);
+            assertEquals(regex.isMovieIdSuffixValid(id, existing), scanning.isMovieIdSuffixValid(id, existing), id);
+        }
+    }
+
+    @Test
+    public void testRegistryRejectsUsedSuffix() {
+        MovieIdRegistry registry = scanning.newMovieIdRegistry();
+        registry.register("AVT123");
+        assertFalse(registry.isSuffixValid("XYZ123"));
+        assertTrue(registry.isSuffixValid("AVT124"));
+    }
+}
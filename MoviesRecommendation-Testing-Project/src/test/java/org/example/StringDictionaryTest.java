@@ -0,0 +1,53 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StringDictionaryTest {
+
+    @Test
+    public void testInternAssignsDenseCodes() {
+        StringDictionary dictionary = new StringDictionary();
+        assertEquals(0, dictionary.intern("Action"));
+        assertEquals(1, dictionary.intern("Drama"));
+        assertEquals(0, dictionary.intern(new String("Action")));
+        assertEquals(1, dictionary.code("Drama"));
+        assertEquals(-1, dictionary.code("Comedy"));
+        assertEquals("Drama", dictionary.get(1));
+        assertEquals(2, dictionary.size());
+        assertArrayEquals(new int[]{1, 0, 2}, dictionary.internAll(List.of("Drama", "Action", "Comedy")));
+    }
+
+    @Test
+    public void testGrowsAndKeepsValues() {
+        StringDictionary dictionary = new StringDictionary();
+        for (int i = 0; i < 1000; i++) assertEquals(i, dictionary.intern("G" + i));
+        for (int i = 0; i < 1000; i++) assertEquals("G" + i, dictionary.get(i));
+    }
+
+    @Test
+    public void testConcurrentInterning() throws Exception {
+        StringDictionary dictionary = new StringDictionary();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(pool.submit(() -> {
+                    int[] codes = new int[500];
+                    for (int i = 0; i < codes.length; i++) codes[i] = dictionary.intern("M" + i);
+                    return codes;
+                }));
+            }
+            int[] first = results.get(0).get();
+            for (Future<int[]> result : results) assertArrayEquals(first, result.get());
+            for (int i = 0; i < first.length; i++) assertEquals("M" + i, dictionary.get(first[i]));
+            assertEquals(500, dictionary.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
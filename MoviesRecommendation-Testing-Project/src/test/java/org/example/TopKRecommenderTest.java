@@ -0,0 +1,129 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKRecommenderTest {
+
+    private List<Movie> movieList;
+    private List<User> userList;
+
+    @BeforeEach
+    void setup() {
+        movieList = new ArrayList<>();
+        userList = new ArrayList<>();
+    }
+
+    @Test
+    void testRanksByGenreOverlap() {
+        movieList.add(new Movie("Deadpool", "M001", List.of("Action", "Comedy")));
+        movieList.add(new Movie("Extraction", "M002", List.of("Action")));
+        movieList.add(new Movie("Kung Fu Hustle", "M003", List.of("Action", "Comedy", "Fantasy")));
+        movieList.add(new Movie("The Hangover", "M004", List.of("Comedy")));
+        movieList.add(new Movie("The Godfather", "M005", List.of("Drama")));
+
+        User user = new User("Joseph", "87654321B", List.of("M001"));
+        userList.add(user);
+
+        Map<User, List<String>> result = new TopKRecommender(10, TopKRecommender.Scoring.OVERLAP).recommend(userList, movieList);
+        assertEquals(List.of("Kung Fu Hustle", "Extraction", "The Hangover"), result.get(user));
+    }
+
+    @Test
+    void testKeepsOnlyTopK() {
+        movieList.add(new Movie("Liked", "L001", List.of("Action", "Comedy")));
+        movieList.add(new Movie("One", "O002", List.of("Action")));
+        movieList.add(new Movie("Two", "T003", List.of("Action", "Comedy")));
+        movieList.add(new Movie("Three", "T004", List.of("Comedy")));
+
+        User user = new User("Mona", "12345678A", List.of("L001"));
+        userList.add(user);
+
+        assertEquals(List.of("Two", "One"), new TopKRecommender(2, TopKRecommender.Scoring.OVERLAP).recommend(userList, movieList).get(user));
+        assertEquals(List.of("Two"), new TopKRecommender(1, TopKRecommender.Scoring.OVERLAP).recommend(userList, movieList).get(user));
+    }
+
+    @Test
+    void testScoresAddUpAcrossLikedMovies() {
+        movieList.add(new Movie("Liked Drama", "LD001", List.of("Drama")));
+        movieList.add(new Movie("Liked Horror", "LH002", List.of("Horror")));
+        movieList.add(new Movie("Drama Only", "DO003", List.of("Drama")));
+        movieList.add(new Movie("Both", "B004", List.of("Horror", "Drama")));
+
+        User user = new User("Sara", "12345678C", List.of("LD001", "LH002", "LD001"));
+        userList.add(user);
+
+        assertEquals(List.of("Both", "Drama Only"),
+                new TopKRecommender(5, TopKRecommender.Scoring.OVERLAP).recommend(userList, movieList).get(user));
+    }
+
+    @Test
+    void testWeightedScoringFavoursRareGenres() {
+        movieList.add(new Movie("Liked", "L001", List.of("Action", "Noir")));
+        movieList.add(new Movie("Popular", "P002", List.of("Action")));
+        movieList.add(new Movie("Popular Two", "PT003", List.of("Action")));
+        movieList.add(new Movie("Popular Three", "PT004", List.of("Action")));
+        movieList.add(new Movie("Rare", "R005", List.of("Noir")));
+
+        User user = new User("Omar", "12345678D", List.of("L001"));
+        userList.add(user);
+
+        assertEquals(List.of("Popular", "Popular Two", "Popular Three", "Rare"),
+                new TopKRecommender(5, TopKRecommender.Scoring.OVERLAP).recommend(userList, movieList).get(user));
+        assertEquals(List.of("Rare", "Popular", "Popular Two", "Popular Three"),
+                new TopKRecommender(5, TopKRecommender.Scoring.WEIGHTED).recommend(userList, movieList).get(user));
+    }
+
+    @Test
+    void testSameTitlesAsGenreEngineWhenKIsLarge() {
+        Random random = new Random(3);
+        String[] genres = {"Action", "Drama", "Comedy", "Horror", "Crime", "War", "Western"};
+        List<Movie> movies = new ArrayList<>();
+        for (int m = 0; m < 200; m++) {
+            List<String> movieGenres = new ArrayList<>();
+            for (int g = random.nextInt(3) + 1; g > 0; g--) movieGenres.add(genres[random.nextInt(genres.length)]);
+            movies.add(new Movie("Movie " + random.nextInt(150), "M" + m, movieGenres));
+        }
+        List<User> users = new ArrayList<>();
+        for (int u = 0; u < 300; u++) {
+            List<String> likes = new ArrayList<>();
+            for (int l = random.nextInt(4); l > 0; l--) likes.add("M" + random.nextInt(220));
+            users.add(new User("User", String.format("%08dA", u), likes));
+        }
+
+        Map<User, List<String>> expected = RecommendationSystem.generateRecommendations(users, movies);
+        Map<User, List<String>> ranked = new TopKRecommender(movies.size(), TopKRecommender.Scoring.OVERLAP).recommend(users, movies);
+        for (User user : users) {
+            assertEquals(new HashSet<>(expected.get(user)), new HashSet<>(ranked.get(user)));
+            assertEquals(expected.get(user).size(), ranked.get(user).size());
+        }
+    }
+
+    @Test
+    void testDuplicateTitlesScoreAsBestMovie() {
+        movieList.add(new Movie("Liked", "L001", List.of("Action", "Comedy")));
+        movieList.add(new Movie("Twin", "T002", List.of("Action")));
+        movieList.add(new Movie("Other", "O003", List.of("Comedy")));
+        movieList.add(new Movie("Twin", "T004", List.of("Action", "Comedy")));
+
+        User user = new User("Karim", "12345678E", List.of("L001"));
+        userList.add(user);
+
+        assertEquals(List.of("Twin", "Other"),
+                new TopKRecommender(5, TopKRecommender.Scoring.OVERLAP).recommend(userList, movieList).get(user));
+    }
+
+    @Test
+    void testNoLikesAndInvalidK() {
+        movieList.add(new Movie("Up", "U001", List.of("Animation")));
+        User user = new User("Nour", "12345678F", new ArrayList<>());
+        userList.add(user);
+
+        assertEquals(List.of(), new TopKRecommender(3, TopKRecommender.Scoring.WEIGHTED).recommend(userList, movieList).get(user));
+        assertThrows(IllegalArgumentException.class, () -> new TopKRecommender(0, TopKRecommender.Scoring.OVERLAP));
+    }
+}
@@ -51,4 +51,13 @@ public class UserTest {
         User user = new User("Bavly", "12345678A", liked);
         assertEquals(liked, user.getLikedMovieIds());
     }
+
+    @Test
+    public void testCompactLikedIds() {
+        StringDictionary dictionary = new StringDictionary();
+        int[] codes = {dictionary.intern("M012"), dictionary.intern("M013"), dictionary.intern("M012")};
+        User user = new User("Bavly", "12345678A", codes, dictionary);
+        assertEquals(List.of("M012", "M013", "M012"), user.getLikedMovieIds());
+        assertThrows(UnsupportedOperationException.class, () -> user.getLikedMovieIds().add("M014"));
+    }
 }
\ No newline at end of file